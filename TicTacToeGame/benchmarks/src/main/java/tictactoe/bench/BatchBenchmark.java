@@ -0,0 +1,107 @@
+package tictactoe.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.BatchGameEngine;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Benchmarks playing a batch of complete games from fixed random move orders, one game object
+ * at a time against all at once in a {@link BatchGameEngine}. Both paths play the same games
+ * and only differ in how the state is stored and stepped. Scores are games per second;
+ * {@code impl} only selects the game objects, the batched path is the same for both.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+  private static final int GAMES = 4096;
+
+  @Param({"model", "bitboard"})
+  public String impl;
+
+  // orders[ply][game] is the cell game marks on that ply; each game's cells are a permutation
+  private final int[][] orders = new int[9][GAMES];
+  private final int[] codes = new int[GAMES];
+  private final TicTacToe[] games = new TicTacToe[GAMES];
+  private BatchGameEngine engine;
+
+  /**
+   * Draws a random move order for every game, and creates the games.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    int[] cells = new int[9];
+    for (int g = 0; g < GAMES; g++) {
+      for (int i = 0; i < 9; i++) {
+        cells[i] = i;
+      }
+      for (int i = 8; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        int t = cells[i];
+        cells[i] = cells[j];
+        cells[j] = t;
+      }
+      for (int ply = 0; ply < 9; ply++) {
+        orders[ply][g] = cells[ply];
+      }
+      games[g] = Implementations.create(impl);
+    }
+    engine = new BatchGameEngine(GAMES);
+  }
+
+  /**
+   * Plays every game to the end on its own game object, reset first.
+   *
+   * @return the number of X wins, so the work cannot be eliminated
+   */
+  @Benchmark
+  @OperationsPerInvocation(GAMES)
+  public int objectPerGame() {
+    int xWins = 0;
+    for (int g = 0; g < GAMES; g++) {
+      TicTacToe game = games[g];
+      game.reset();
+      for (int ply = 0; !game.isGameOver(); ply++) {
+        int cell = orders[ply][g];
+        game.move(cell / 3, cell % 3);
+      }
+      xWins += game.getWinner() == Player.X ? 1 : 0;
+    }
+    return xWins;
+  }
+
+  /**
+   * Plays every game to the end in the batch engine, one move of every game per step.
+   *
+   * @return the number of games in progress after the last step, which is zero
+   */
+  @Benchmark
+  @OperationsPerInvocation(GAMES)
+  public int batched() {
+    engine.reset();
+    int inProgress = GAMES;
+    for (int ply = 0; ply < 9 && inProgress > 0; ply++) {
+      inProgress = engine.step(orders[ply], codes);
+    }
+    return inProgress;
+  }
+}
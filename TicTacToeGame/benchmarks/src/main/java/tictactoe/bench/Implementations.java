@@ -0,0 +1,37 @@
+package tictactoe.bench;
+
+import tictactoe.BitboardTicTacToe;
+import tictactoe.ConcurrentTicTacToe;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * The {@link TicTacToe} implementations under benchmark, by the name used in the benchmarks'
+ * {@code impl} parameter. To benchmark a new implementation, add it here and to the
+ * {@code @Param} lists.
+ */
+final class Implementations {
+
+  private Implementations() {
+  }
+
+  /**
+   * Creates a new three-by-three game of the named implementation.
+   *
+   * @param name the implementation name
+   * @return a new game
+   * @throws IllegalArgumentException if the name is unknown
+   */
+  static TicTacToe create(String name) throws IllegalArgumentException {
+    switch (name) {
+      case "model":
+        return new TicTacToeModel();
+      case "bitboard":
+        return new BitboardTicTacToe();
+      case "concurrent":
+        return new ConcurrentTicTacToe();
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + name);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package tictactoe.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.MoveJournal;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Benchmarks making moves on a journaled game: without a journal, with the journal committing
+ * in groups in the background, and with every move synced to disk before the next, as a
+ * journal without group commit would. Each operation is a move and its undo, two records.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+
+  @Param({"none", "group", "sync"})
+  public String durability;
+
+  private Path dir;
+  private MoveJournal journal;
+  private TicTacToe game;
+  private int cell;
+
+  /**
+   * Opens a journal in a new temporary directory, and attaches a game to it.
+   *
+   * @throws IOException if the journal cannot be opened
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    game = new TicTacToeModel(9, 5);
+    if (!durability.equals("none")) {
+      dir = Files.createTempDirectory("journal");
+      journal = new MoveJournal(dir, 256, 10, 1_000_000);
+      journal.attach(1, game);
+    }
+  }
+
+  /**
+   * Closes the journal and deletes its directory.
+   *
+   * @throws IOException if the journal cannot be closed or deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    if (journal != null) {
+      journal.close();
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+    }
+  }
+
+  /**
+   * Makes a move and takes it back, waiting for both to be on disk if every move is synced.
+   *
+   * @throws IOException if the journal fails
+   */
+  @Benchmark
+  public void moveAndUndo() throws IOException {
+    cell = (cell + 1) % 81;
+    game.move(cell / 9, cell % 9);
+    game.undo();
+    if (journal != null && durability.equals("sync")) {
+      journal.sync();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package tictactoe.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tictactoe.CellVisitor;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+
+/**
+ * Benchmarks the individual operations of each {@link TicTacToe} implementation on a game in
+ * progress: making a move, the game-over and winner checks, and reading or rendering the board.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+  @Param({"model", "bitboard", "concurrent"})
+  public String impl;
+
+  private TicTacToe game;
+  private StringBuilder buffer;
+  private CellVisitor visitor;
+
+  /**
+   * Sets up a game four moves in, with no winner yet.
+   *
+   * @param blackhole the sink for visited cells
+   */
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    game = Implementations.create(impl);
+    game.move(0, 0);
+    game.move(1, 1);
+    game.move(0, 1);
+    game.move(0, 2);
+    buffer = new StringBuilder(64);
+    visitor = (r, c, mark) -> blackhole.consume(mark);
+  }
+
+  /**
+   * Makes a move and takes it back, so every invocation sees the same position.
+   */
+  @Benchmark
+  public void moveAndUndo() {
+    game.move(2, 0);
+    game.undo();
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return game.isGameOver();
+  }
+
+  @Benchmark
+  public Player getWinner() {
+    return game.getWinner();
+  }
+
+  @Benchmark
+  public Player[][] getBoard() {
+    return game.getBoard();
+  }
+
+  @Benchmark
+  public String toStringBoard() {
+    return game.toString();
+  }
+
+  @Benchmark
+  public StringBuilder appendTo() throws IOException {
+    buffer.setLength(0);
+    game.appendTo(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public void forEachCell() {
+    game.forEachCell(visitor);
+  }
+}
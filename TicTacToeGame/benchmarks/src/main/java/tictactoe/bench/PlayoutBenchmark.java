@@ -0,0 +1,109 @@
+package tictactoe.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToePool;
+
+/**
+ * Benchmarks complete random games, checking for the end of the game after every move the way a
+ * controller or simulation does. One operation is one game.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+
+  @Param({"model", "bitboard", "concurrent"})
+  public String impl;
+
+  private SplittableRandom random;
+  private TicTacToe reused;
+  private TicTacToePool pool;
+  private final int[] empty = new int[9];
+
+  @Setup
+  public void setUp() {
+    random = new SplittableRandom(42);
+    reused = Implementations.create(impl);
+    pool = new TicTacToePool(() -> Implementations.create(impl), 16);
+  }
+
+  /**
+   * Plays a random game on a newly created model.
+   *
+   * @return the winner
+   */
+  @Benchmark
+  public Player newGamePerPlayout() {
+    return playOut(Implementations.create(impl));
+  }
+
+  /**
+   * Plays a random game on one model, undoing every move afterwards.
+   *
+   * @return the winner
+   */
+  @Benchmark
+  public Player reusedGamePerPlayout() {
+    Player winner = playOut(reused);
+    while (reused.getMoveCount() > 0) {
+      reused.undo();
+    }
+    return winner;
+  }
+
+  /**
+   * Plays a random game on one model, resetting it afterwards.
+   *
+   * @return the winner
+   */
+  @Benchmark
+  public Player resetGamePerPlayout() {
+    Player winner = playOut(reused);
+    reused.reset();
+    return winner;
+  }
+
+  /**
+   * Plays a random game on a model acquired from a pool, then releases it.
+   *
+   * @return the winner
+   */
+  @Benchmark
+  public Player pooledGamePerPlayout() {
+    TicTacToe game = pool.acquire();
+    Player winner = playOut(game);
+    pool.release(game);
+    return winner;
+  }
+
+  private Player playOut(TicTacToe game) {
+    for (int i = 0; i < empty.length; i++) {
+      empty[i] = i;
+    }
+    int remaining = empty.length;
+    while (!game.isGameOver()) {
+      int pick = random.nextInt(remaining);
+      int cell = empty[pick];
+      empty[pick] = empty[--remaining];
+      game.move(cell / 3, cell % 3);
+    }
+    return game.getWinner();
+  }
+}
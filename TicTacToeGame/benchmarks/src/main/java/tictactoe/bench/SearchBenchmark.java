@@ -0,0 +1,95 @@
+package tictactoe.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.NegamaxStrategy;
+import tictactoe.SolvedPositionTable;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Benchmarks the computer players: solving the empty three-by-three board from scratch and with
+ * a warm transposition table, looking a move up in the solved position table, and a
+ * budget-limited search on a fifteen-by-fifteen board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+  private TicTacToe empty3x3;
+  private TicTacToe gomoku;
+  private NegamaxStrategy warm;
+  private NegamaxStrategy budgeted;
+  private SolvedPositionTable table;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    empty3x3 = new TicTacToeModel();
+    warm = new NegamaxStrategy();
+    warm.chooseMove(empty3x3);
+    budgeted = new NegamaxStrategy(20_000, Long.MAX_VALUE / 2);
+    gomoku = new TicTacToeModel(15, 5);
+    int[][] opening = {{7, 7}, {7, 8}, {8, 8}, {6, 6}, {8, 7}, {8, 6}};
+    for (int[] move : opening) {
+      gomoku.move(move[0], move[1]);
+    }
+
+    Path file = Files.createTempFile("solved", ".bin");
+    file.toFile().deleteOnExit();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      SolvedPositionTable.generate(out);
+    }
+    table = SolvedPositionTable.load(file);
+  }
+
+  /**
+   * A strategy with an empty transposition table for every invocation.
+   */
+  @State(Scope.Thread)
+  public static class ColdStrategy {
+    NegamaxStrategy strategy;
+
+    @Setup(Level.Invocation)
+    public void newStrategy() {
+      strategy = new NegamaxStrategy();
+    }
+  }
+
+  @Benchmark
+  public int[] solveEmpty3x3Cold(ColdStrategy cold) {
+    return cold.strategy.chooseMove(empty3x3);
+  }
+
+  @Benchmark
+  public int[] solveEmpty3x3Warm() {
+    return warm.chooseMove(empty3x3);
+  }
+
+  @Benchmark
+  public int[] tableLookup3x3() {
+    return table.getBestMove(empty3x3);
+  }
+
+  @Benchmark
+  public int[] search15x15With20kNodes() {
+    return budgeted.chooseMove(gomoku);
+  }
+}
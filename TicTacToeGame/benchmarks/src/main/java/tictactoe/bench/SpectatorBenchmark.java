@@ -0,0 +1,139 @@
+package tictactoe.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tictactoe.Player;
+import tictactoe.SpectatorHub;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+/**
+ * Benchmarks broadcasting a move to every spectator of a fifteen-by-fifteen game: as delta
+ * frames through a {@link SpectatorHub}, against rendering and sending the whole board to each
+ * spectator. Spectators are channels that copy out and discard what they are written, so the
+ * scores measure the fan-out, not the network. Scores are moves per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpectatorBenchmark {
+  private static final int SIZE = 15;
+
+  @Param({"1000", "4000"})
+  public int spectators;
+
+  private TicTacToe game;
+  private SpectatorHub hub;
+  private Discard[] channels;
+  private ByteBuffer board;
+
+  /**
+   * A channel that accepts everything, copying it out as a socket copies into its send buffer,
+   * and then drops it.
+   */
+  private static final class Discard implements WritableByteChannel {
+    private static final byte[] SINK = new byte[1 << 16];
+
+    @Override
+    public int write(ByteBuffer src) {
+      int n = src.remaining();
+      src.get(SINK, 0, n);
+      return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Creates the game, the hub and the spectators.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    game = new TicTacToeModel(SIZE, SIZE);
+    hub = new SpectatorHub(game, 1 << 16, 32);
+    channels = new Discard[spectators];
+    for (int i = 0; i < spectators; i++) {
+      channels[i] = new Discard();
+      hub.subscribe(channels[i]);
+    }
+    hub.pump();
+    board = ByteBuffer.allocate(SIZE * SIZE + 4);
+  }
+
+  /**
+   * Closes the hub.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    hub.close();
+  }
+
+  // fills the board in reading order, taking every move back once X completes the diagonal
+  private void nextMove() {
+    if (game.isGameOver()) {
+      while (game.getMoveCount() > 0) {
+        game.undo();
+      }
+    }
+    int cell = game.getMoveCount();
+    game.move(cell / SIZE, cell % SIZE);
+  }
+
+  /**
+   * Makes a move and pumps its delta frame to every spectator.
+   *
+   * @return the bytes written
+   */
+  @Benchmark
+  public long deltaFrames() {
+    nextMove();
+    return hub.pump();
+  }
+
+  /**
+   * Makes a move and sends every spectator the whole board as text, as a {@code BOARD} request
+   * to {@link tictactoe.TicTacToeServer} returns it.
+   *
+   * @return the bytes written
+   */
+  @Benchmark
+  public long fullBoard() {
+    nextMove();
+    board.clear();
+    board.put((byte) 'O').put((byte) 'K').put((byte) ' ');
+    game.forEachCell((r, c, mark) ->
+        board.put((byte) (mark == null ? '.' : mark == Player.X ? 'X' : 'O')));
+    board.put((byte) '\n');
+    board.flip();
+    long written = 0;
+    for (Discard channel : channels) {
+      written += channel.write(board);
+      board.rewind();
+    }
+    return written;
+  }
+}
@@ -0,0 +1,28 @@
+#!/bin/sh
+# Builds an AppCDS archive for the headless console game, so the JVM maps the classes it needs
+# from a shared archive instead of loading and verifying them from the jar on every start.
+#
+# The archive is recorded by playing a short scripted game against the computer, which loads
+# the model, console view and controller, and search classes the way a real game does.
+#
+# Usage: scripts/headless-cds.sh [jar] [archive]
+#   then: java -XX:SharedArchiveFile=<archive> -jar <jar> --console [--computer X|O]
+#
+# The archive is only valid for the JVM and jar it was recorded with; rebuild it after either
+# changes. Requires JDK 13 or later.
+set -e
+
+cd "$(dirname "$0")/.."
+JAR=${1:-target/tictactoe-1.0-SNAPSHOT.jar}
+ARCHIVE=${2:-target/tictactoe-console.jsa}
+
+if [ ! -f "$JAR" ]; then
+  echo "$JAR not found; run mvn package first" >&2
+  exit 1
+fi
+
+printf '1 1\n1 2\n2 1\n3 3\nq\n' \
+  | java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" --console --computer O > /dev/null
+
+echo "Wrote $ARCHIVE. Run the console game with:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -jar $JAR --console"
@@ -0,0 +1,256 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * Many games of three-by-three Tic Tac Toe stepped together, for self-play and evaluation runs
+ * too large to play one game object at a time. The state of every game lives in parallel
+ * primitive arrays, one element per game: each player's marks as a bitmask, as in
+ * {@link BitboardTicTacToe}, the move count, which also gives the turn, and the status. Each
+ * {@link #step(int[], int[])} applies one move to every game.
+ *
+ * <p>A step is a few passes over the arrays whose bodies are straight-line integer arithmetic
+ * with no branches and no calls: legality is computed as 0/1 flags and applied through masks,
+ * and wins are found by testing every game against one line mask at a time. Loops of that shape
+ * are what the JIT compiler's superword pass turns into SIMD instructions, and even where it
+ * does not, they run without mispredicted branches and touch memory sequentially.
+ *
+ * <p>Moves follow the rules of {@link TicTacToeModel}: each game reports the same
+ * {@link MoveStatus} code for a move as the model would, and only legal moves are applied.
+ * Not thread-safe.
+ */
+public final class BatchGameEngine {
+  /** The status of a game still in progress. */
+  public static final int IN_PROGRESS = 0;
+  /** The status of a game won by X. */
+  public static final int X_WON = 1;
+  /** The status of a game won by O. */
+  public static final int O_WON = 2;
+  /** The status of a game that ended in a draw. */
+  public static final int DRAW = 3;
+
+  private static final int SIZE = 3;
+  private static final int CELLS = SIZE * SIZE;
+
+  // rows, columns, then the two diagonals
+  private static final int[] LINES = {
+      0b000_000_111, 0b000_111_000, 0b111_000_000,
+      0b001_001_001, 0b010_010_010, 0b100_100_100,
+      0b100_010_001, 0b001_010_100
+  };
+
+  private final int count;
+  private final int[] xBits;
+  private final int[] oBits;
+  private final int[] moveCounts;
+  private final int[] statuses;
+  // per step: whether each game's X or O marks complete a line
+  private final int[] xWins;
+  private final int[] oWins;
+
+  /**
+   * Creates the given number of new games, each empty with X to move.
+   *
+   * @param count the number of games
+   * @throws IllegalArgumentException if count is negative
+   */
+  public BatchGameEngine(int count) throws IllegalArgumentException {
+    if (count < 0) {
+      throw new IllegalArgumentException("Game count must not be negative!");
+    }
+    this.count = count;
+    this.xBits = new int[count];
+    this.oBits = new int[count];
+    this.moveCounts = new int[count];
+    this.statuses = new int[count];
+    this.xWins = new int[count];
+    this.oWins = new int[count];
+  }
+
+  /**
+   * Returns the number of games.
+   *
+   * @return the game count
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Applies one move to every game: game i marks cell {@code cells[i]}, packed as
+   * {@code r * 3 + c}, for the player whose turn it is in that game. A move that is illegal in
+   * its game is not applied, and its status code says why.
+   *
+   * @param cells the cell to mark in each game
+   * @param codes receives the {@link MoveStatus} code of each game's move
+   * @return the number of games still in progress after the step
+   * @throws IllegalArgumentException if either array is shorter than the number of games
+   */
+  public int step(int[] cells, int[] codes) throws IllegalArgumentException {
+    if (cells.length < count || codes.length < count) {
+      throw new IllegalArgumentException("Arrays must hold a value for every game!");
+    }
+    for (int i = 0; i < count; i++) {
+      int cell = cells[i];
+      int outOfBounds = (cell | (CELLS - 1 - cell)) >>> 31;
+      int bit = (1 << cell) & -(outOfBounds ^ 1);
+      int over = nonZero(statuses[i]);
+      int occupied = nonZero((xBits[i] | oBits[i]) & bit);
+      // the model checks bounds, then the end of the game, then the cell
+      codes[i] = outOfBounds * MoveStatus.OUT_OF_BOUNDS + (outOfBounds ^ 1)
+          * (over * MoveStatus.GAME_OVER + (over ^ 1) * occupied * MoveStatus.OCCUPIED);
+      int legal = (outOfBounds | over | occupied) ^ 1;
+      bit &= -legal;
+      int xToMove = (moveCounts[i] & 1) ^ 1;
+      xBits[i] |= bit & -xToMove;
+      oBits[i] |= bit & -(xToMove ^ 1);
+      moveCounts[i] += legal;
+      xWins[i] = 0;
+      oWins[i] = 0;
+    }
+    for (int line : LINES) {
+      for (int i = 0; i < count; i++) {
+        xWins[i] |= isZero((xBits[i] & line) ^ line);
+        oWins[i] |= isZero((oBits[i] & line) ^ line);
+      }
+    }
+    int inProgress = 0;
+    for (int i = 0; i < count; i++) {
+      // only the player who just moved can have completed a line, so at most one flag is set
+      int full = isZero(moveCounts[i] - CELLS);
+      int next = xWins[i] * X_WON + oWins[i] * O_WON
+          + ((xWins[i] | oWins[i]) ^ 1) * full * DRAW;
+      int status = statuses[i];
+      status += isZero(status) * next;
+      statuses[i] = status;
+      inProgress += isZero(status);
+    }
+    return inProgress;
+  }
+
+  // 1 if v is zero, otherwise 0; v must not be Integer.MIN_VALUE
+  private static int isZero(int v) {
+    return nonZero(v) ^ 1;
+  }
+
+  // 1 if v is non-zero, otherwise 0; v must not be Integer.MIN_VALUE
+  private static int nonZero(int v) {
+    return (v | -v) >>> 31;
+  }
+
+  /**
+   * Returns the status of a game.
+   *
+   * @param game the index of the game
+   * @return {@link #IN_PROGRESS}, {@link #X_WON}, {@link #O_WON} or {@link #DRAW}
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public int getStatus(int game) throws IndexOutOfBoundsException {
+    return statuses[game];
+  }
+
+  /**
+   * Returns whether a game is over.
+   *
+   * @param game the index of the game
+   * @return true if the game has been won or drawn
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public boolean isGameOver(int game) throws IndexOutOfBoundsException {
+    return statuses[game] != IN_PROGRESS;
+  }
+
+  /**
+   * Returns the winner of a game.
+   *
+   * @param game the index of the game
+   * @return the winner, or null if the game is drawn or still in progress
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public Player getWinner(int game) throws IndexOutOfBoundsException {
+    int status = statuses[game];
+    return status == X_WON ? Player.X : status == O_WON ? Player.O : null;
+  }
+
+  /**
+   * Returns the player whose turn it is in a game.
+   *
+   * @param game the index of the game
+   * @return the player to move
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public Player getTurn(int game) throws IndexOutOfBoundsException {
+    return (moveCounts[game] & 1) == 0 ? Player.X : Player.O;
+  }
+
+  /**
+   * Returns the number of moves made in a game.
+   *
+   * @param game the index of the game
+   * @return the move count
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public int getMoveCount(int game) throws IndexOutOfBoundsException {
+    return moveCounts[game];
+  }
+
+  /**
+   * Returns the mark in a cell of a game.
+   *
+   * @param game the index of the game
+   * @param r    the row of the cell
+   * @param c    the column of the cell
+   * @return the player at that cell, or null if it's empty
+   * @throws IndexOutOfBoundsException if there is no such game
+   * @throws IllegalArgumentException  if the position is out of bounds
+   */
+  public Player getMarkAt(int game, int r, int c) throws IndexOutOfBoundsException,
+      IllegalArgumentException {
+    if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+      throw new IllegalArgumentException("Position is out of bounds!");
+    }
+    int bit = 1 << (r * SIZE + c);
+    if ((xBits[game] & bit) != 0) {
+      return Player.X;
+    } else if ((oBits[game] & bit) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a game's marks as a bitmask, bit {@code r * 3 + c} being set if the player has
+   * marked cell (r, c).
+   *
+   * @param game   the index of the game
+   * @param player the player whose marks to return
+   * @return the player's marks
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public int getBits(int game, Player player) throws IndexOutOfBoundsException {
+    return player == Player.X ? xBits[game] : oBits[game];
+  }
+
+  /**
+   * Starts every game over, empty with X to move.
+   */
+  public void reset() {
+    Arrays.fill(xBits, 0);
+    Arrays.fill(oBits, 0);
+    Arrays.fill(moveCounts, 0);
+    Arrays.fill(statuses, IN_PROGRESS);
+  }
+
+  /**
+   * Starts one game over, empty with X to move.
+   *
+   * @param game the index of the game
+   * @throws IndexOutOfBoundsException if there is no such game
+   */
+  public void reset(int game) throws IndexOutOfBoundsException {
+    xBits[game] = 0;
+    oBits[game] = 0;
+    moveCounts[game] = 0;
+    statuses[game] = IN_PROGRESS;
+  }
+}
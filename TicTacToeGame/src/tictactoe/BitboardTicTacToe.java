@@ -0,0 +1,295 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A game of Tic Tac Toe on a three-by-three grid that stores each player's marks as a bitmask.
+ * Cell (r, c) is bit {@code r * 3 + c}. Wins are detected by comparing the mover's mask against
+ * the eight precomputed line masks once per move, and a running move count makes the full-board
+ * check constant-time, so {@link #isGameOver()} and {@link #getWinner()} never scan the board.
+ */
+public class BitboardTicTacToe implements TicTacToe {
+  private static final int SIZE = 3;
+
+  // rows, columns, then the two diagonals
+  private static final int[] LINES = {
+      0b000_000_111, 0b000_111_000, 0b111_000_000,
+      0b001_001_001, 0b010_010_010, 0b100_100_100,
+      0b100_010_001, 0b001_010_100
+  };
+
+  // for each cell, the line masks passing through it
+  private static final int[][] LINES_THROUGH = new int[SIZE * SIZE][];
+
+  static {
+    for (int cell = 0; cell < SIZE * SIZE; cell++) {
+      int count = 0;
+      for (int line : LINES) {
+        if ((line & (1 << cell)) != 0) {
+          count++;
+        }
+      }
+      LINES_THROUGH[cell] = new int[count];
+      int i = 0;
+      for (int line : LINES) {
+        if ((line & (1 << cell)) != 0) {
+          LINES_THROUGH[cell][i++] = line;
+        }
+      }
+    }
+  }
+
+  private int xBits;
+  private int oBits;
+  private int moveCount;
+  private Player winner;
+  // moves[0..moveCount) have been played; moves[moveCount..redoCount) can be redone
+  private final int[] moves;
+  private int redoCount;
+  private final SymmetricHash hash = new SymmetricHash(SIZE);
+  private final TicTacToeListeners listeners = new TicTacToeListeners();
+
+  /**
+   * Creates a new, empty game with player X to move.
+   */
+  public BitboardTicTacToe() {
+    this.xBits = 0;
+    this.oBits = 0;
+    this.moveCount = 0;
+    this.winner = null;
+    this.moves = new int[SIZE * SIZE];
+    this.redoCount = 0;
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveStatus.check(this.tryMove(r, c));
+  }
+
+  @Override
+  public int tryMove(int r, int c) {
+    if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+      return MoveStatus.OUT_OF_BOUNDS;
+    } else if (this.isGameOver()) {
+      return MoveStatus.GAME_OVER;
+    }
+    int cell = r * SIZE + c;
+    if (((xBits | oBits) & 1 << cell) != 0) {
+      return MoveStatus.OCCUPIED;
+    }
+    this.place(cell);
+    redoCount = moveCount;
+    return MoveStatus.OK;
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    if (moveCount == 0) {
+      throw new IllegalStateException("No moves to undo!");
+    }
+    int cell = moves[--moveCount];
+    int bit = 1 << cell;
+    hash.toggle(cell, (xBits & bit) != 0 ? Player.X : Player.O);
+    xBits &= ~bit;
+    oBits &= ~bit;
+    winner = null; // a finished game can only have been won by its last move
+    listeners.fireUndo(cell / SIZE, cell % SIZE, this.getTurn());
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    if (!this.canRedo()) {
+      throw new IllegalStateException("No moves to redo!");
+    }
+    this.place(moves[moveCount]);
+  }
+
+  @Override
+  public boolean canRedo() {
+    return moveCount < redoCount;
+  }
+
+  @Override
+  public void reset() {
+    xBits = 0;
+    oBits = 0;
+    moveCount = 0;
+    redoCount = 0;
+    winner = null;
+    hash.clear();
+    listeners.fireReset();
+  }
+
+  @Override
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  @Override
+  public int[] getMoveHistory() {
+    return Arrays.copyOf(moves, moveCount);
+  }
+
+  @Override
+  public Player getTurn() {
+    return (moveCount & 1) == 0 ? Player.X : Player.O;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return winner != null || moveCount == SIZE * SIZE;
+  }
+
+  @Override
+  public Player getWinner() {
+    return winner;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    Player[][] newBoard = new Player[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        newBoard[i][j] = markAt(i * SIZE + j);
+      }
+    }
+    return newBoard;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+      throw new IllegalArgumentException("Position is out of bounds!");
+    }
+    return markAt(r * SIZE + c);
+  }
+
+  @Override
+  public int getSize() {
+    return SIZE;
+  }
+
+  @Override
+  public int getWinLength() {
+    return SIZE;
+  }
+
+  @Override
+  public long getHash() {
+    return hash.hash();
+  }
+
+  @Override
+  public long getCanonicalHash() {
+    return hash.canonical();
+  }
+
+  @Override
+  public int getCanonicalSymmetry() {
+    return hash.symmetry();
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void removeAllListeners() {
+    listeners.clear();
+  }
+
+  /**
+   * Returns the bitmask of cells marked by player X. Bit {@code r * 3 + c} is set when
+   * X occupies row r, column c.
+   *
+   * @return the X bitmask
+   */
+  public int getXBits() {
+    return xBits;
+  }
+
+  /**
+   * Returns the bitmask of cells marked by player O. Bit {@code r * 3 + c} is set when
+   * O occupies row r, column c.
+   *
+   * @return the O bitmask
+   */
+  public int getOBits() {
+    return oBits;
+  }
+
+  /**
+   * Returns a string representation of the board in the same format as
+   * {@link TicTacToeModel#toString()}.
+   *
+   * @return a string representation of the tic-tac-toe board
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(SIZE * 16);
+    try {
+      this.appendTo(sb);
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // a StringBuilder never throws
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    for (int cell = 0; cell < SIZE * SIZE; cell++) {
+      visitor.visit(cell / SIZE, cell % SIZE, markAt(cell));
+    }
+  }
+
+  /**
+   * Returns the mark in the given cell index without bounds checking.
+   *
+   * @param cell the cell index, {@code r * 3 + c}
+   * @return the player at that cell, or null if it's empty
+   */
+  private Player markAt(int cell) {
+    int bit = 1 << cell;
+    if ((xBits & bit) != 0) {
+      return Player.X;
+    } else if ((oBits & bit) != 0) {
+      return Player.O;
+    }
+    return null;
+  }
+
+  /**
+   * Marks an empty cell for the player whose turn it is, records the move, updates the winner,
+   * and notifies the listeners.
+   *
+   * @param cell the cell index, {@code r * 3 + c}
+   */
+  private void place(int cell) {
+    int bit = 1 << cell;
+    Player mover = this.getTurn();
+    int mine;
+    if (mover == Player.X) {
+      xBits |= bit;
+      mine = xBits;
+    } else {
+      oBits |= bit;
+      mine = oBits;
+    }
+    moves[moveCount++] = cell;
+    hash.toggle(cell, mover);
+    for (int line : LINES_THROUGH[cell]) {
+      if ((mine & line) == line) {
+        winner = mover;
+        break;
+      }
+    }
+    listeners.fireMove(cell / SIZE, cell % SIZE, mover, this.isGameOver(), winner);
+  }
+}
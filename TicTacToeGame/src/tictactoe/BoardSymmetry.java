@@ -0,0 +1,76 @@
+package tictactoe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The eight symmetries of a square board: the four rotations, each with and without a
+ * reflection. A symmetry is represented as a permutation of cell indices, mapping cell
+ * {@code r * size + c} to the index of the cell it moves to.
+ */
+final class BoardSymmetry {
+  /** The number of symmetries of a square board. */
+  static final int COUNT = 8;
+
+  private static final ConcurrentMap<Integer, int[][]> TRANSFORMS = new ConcurrentHashMap<>();
+  // the rotations by a quarter turn undo each other; every other symmetry undoes itself
+  private static final int[] INVERSES = {0, 3, 2, 1, 4, 5, 6, 7};
+
+  private BoardSymmetry() {
+  }
+
+  /**
+   * Returns the symmetries of a board of the given size. Transform 0 is the identity. The
+   * returned arrays are shared and must not be modified.
+   *
+   * @param size the board size
+   * @return an array of {@link #COUNT} cell permutations
+   */
+  static int[][] transforms(int size) {
+    return TRANSFORMS.computeIfAbsent(size, s -> {
+      int[][] transforms = new int[COUNT][s * s];
+      for (int r = 0; r < s; r++) {
+        for (int c = 0; c < s; c++) {
+          int cell = r * s + c;
+          int last = s - 1;
+          transforms[0][cell] = r * s + c;
+          transforms[1][cell] = c * s + (last - r);
+          transforms[2][cell] = (last - r) * s + (last - c);
+          transforms[3][cell] = (last - c) * s + r;
+          transforms[4][cell] = r * s + (last - c);
+          transforms[5][cell] = c * s + r;
+          transforms[6][cell] = (last - r) * s + c;
+          transforms[7][cell] = (last - c) * s + (last - r);
+        }
+      }
+      return transforms;
+    });
+  }
+
+  /**
+   * Returns the cell that the given symmetry maps onto the given cell, i.e. applies the inverse
+   * of the symmetry.
+   *
+   * @param transform the symmetry, as returned by {@link #transforms(int)}
+   * @param cell      the cell in the transformed frame
+   * @return the cell in the original frame
+   */
+  static int inverse(int[] transform, int cell) {
+    for (int i = 0; i < transform.length; i++) {
+      if (transform[i] == cell) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Cell is out of bounds!");
+  }
+
+  /**
+   * Returns the index of the symmetry that undoes the given one.
+   *
+   * @param symmetry an index into {@link #transforms(int)}
+   * @return the index of the inverse symmetry
+   */
+  static int inverse(int symmetry) {
+    return INVERSES[symmetry];
+  }
+}
@@ -0,0 +1,56 @@
+package tictactoe;
+
+/**
+ * A computer player that plays the moves of a {@link PositionBook} with a single lookup and no
+ * search, and hands positions the book does not hold to a fallback strategy.
+ */
+public class BookStrategy implements Strategy {
+  private final PositionBook book;
+  private final Strategy fallback;
+  private long bookMoves;
+  private long fallbackMoves;
+
+  /**
+   * Creates a strategy that looks moves up in the given book, and asks the fallback strategy
+   * for positions the book does not hold.
+   *
+   * @param book     the precomputed positions
+   * @param fallback the strategy for other positions
+   */
+  public BookStrategy(PositionBook book, Strategy fallback) {
+    this.book = book;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public int[] chooseMove(TicTacToe game) throws IllegalStateException {
+    if (game.isGameOver()) {
+      throw new IllegalStateException("Game is over!");
+    }
+    int[] move = book.getMove(game);
+    if (move != null) {
+      bookMoves++;
+      return move;
+    }
+    fallbackMoves++;
+    return fallback.chooseMove(game);
+  }
+
+  /**
+   * Returns the number of moves taken from the book.
+   *
+   * @return the book move count
+   */
+  public long getBookMoves() {
+    return bookMoves;
+  }
+
+  /**
+   * Returns the number of moves left to the fallback strategy.
+   *
+   * @return the fallback move count
+   */
+  public long getFallbackMoves() {
+    return fallbackMoves;
+  }
+}
@@ -0,0 +1,16 @@
+package tictactoe;
+
+/**
+ * Receives the board cells the user selects in a {@link TicTacToeView}.
+ */
+@FunctionalInterface
+public interface CellClickListener {
+
+  /**
+   * Called when the user selects a cell.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   */
+  void cellClicked(int row, int col);
+}
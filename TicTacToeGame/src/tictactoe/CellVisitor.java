@@ -0,0 +1,18 @@
+package tictactoe;
+
+/**
+ * A callback that receives the cells of a Tic Tac Toe board one at a time, so the board can be
+ * inspected or rendered without copying it.
+ */
+@FunctionalInterface
+public interface CellVisitor {
+
+  /**
+   * Visit one cell of the board.
+   *
+   * @param r    the row of the cell
+   * @param c    the column of the cell
+   * @param mark the player marking the cell, or {@code null} if it's empty
+   */
+  void visit(int r, int c, Player mark);
+}
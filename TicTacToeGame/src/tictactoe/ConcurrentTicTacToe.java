@@ -0,0 +1,405 @@
+package tictactoe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A game of Tic Tac Toe on a three-by-three grid that is safe to share between threads without
+ * locks. The whole game, including the undo history, is packed into one 64-bit word held in an
+ * {@link AtomicLong}: readers take a single volatile read and always see a consistent position,
+ * and writers compute the next state and install it with compare-and-set, retrying if another
+ * thread got there first. When two threads race for the same cell, exactly one move is applied
+ * and the other is rejected with the same exception a sequential game would throw.
+ *
+ * <p>Threads acting for a particular player should use {@link #move(Player, int, int)}, which
+ * also rejects the move if the turn has passed, so two racing moves can never both be applied
+ * for the same turn.
+ *
+ * <p>Listeners are notified on the thread whose move succeeded, after the move is installed;
+ * events from racing threads may reach a listener in either order.
+ *
+ * <p>State layout, from the least significant bit: 9 two-bit cells (0 empty, 1 X, 2 O) in
+ * row-major order; 9 four-bit history slots holding the cell of each move; a four-bit move
+ * count; a four-bit count of moves available to redo; and the winner in two bits (0 none, 1 X,
+ * 2 O), found once when a move is placed so that reads never scan for it.
+ */
+public class ConcurrentTicTacToe implements TicTacToe {
+  private static final int SIZE = 3;
+  private static final int CELLS = SIZE * SIZE;
+  private static final int HISTORY_SHIFT = 2 * CELLS;
+  private static final int COUNT_SHIFT = HISTORY_SHIFT + 4 * CELLS;
+  private static final int REDO_SHIFT = COUNT_SHIFT + 4;
+  private static final int WINNER_SHIFT = REDO_SHIFT + 4;
+  private static final long CELL_BITS = (1L << HISTORY_SHIFT) - 1;
+
+  // each line as the low bit of its cells' two-bit fields; shift left once for O
+  private static final long[] LINES = new long[8];
+
+  static {
+    int[][] lines = {
+        {0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, {0, 4, 8}, {2, 4, 6}
+    };
+    for (int i = 0; i < lines.length; i++) {
+      for (int cell : lines[i]) {
+        LINES[i] |= 1L << (2 * cell);
+      }
+    }
+  }
+
+  private static final long[][] SYMMETRIC_KEYS = Zobrist.symmetricKeys(SIZE);
+
+  private final AtomicLong state = new AtomicLong();
+  private final TicTacToeListeners listeners = new TicTacToeListeners();
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveStatus.check(this.tryMove(null, r, c));
+  }
+
+  @Override
+  public int tryMove(int r, int c) {
+    return this.tryMove(null, r, c);
+  }
+
+  /**
+   * Execute a move for the given player, in the position specified by the given row and
+   * column. Unlike {@link #move(int, int)}, the move is rejected if it is not that player's
+   * turn, so a thread acting for one player never places a mark for the other.
+   *
+   * @param player the player making the move, or null to move for whoever's turn it is
+   * @param r      the row of the intended move
+   * @param c      the column of the intended move
+   * @throws IllegalArgumentException if the space is occupied or the position is otherwise
+   *                                  invalid
+   * @throws IllegalStateException    if the game is over, or it is not the player's turn
+   */
+  public void move(Player player, int r, int c) throws IllegalArgumentException,
+      IllegalStateException {
+    int status = this.tryMove(player, r, c);
+    if (status == MoveStatus.WRONG_TURN) {
+      throw new IllegalStateException("It is not " + player + "'s turn!");
+    }
+    MoveStatus.check(status);
+  }
+
+  /**
+   * Execute a move for the given player if it is legal and that player's turn, and report
+   * whether it was, without throwing.
+   *
+   * @param player the player making the move, or null to move for whoever's turn it is
+   * @param r      the row of the intended move
+   * @param c      the column of the intended move
+   * @return {@link MoveStatus#OK} if the move was made, otherwise the {@link MoveStatus} code
+   *         saying why not
+   */
+  public int tryMove(Player player, int r, int c) {
+    if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+      return MoveStatus.OUT_OF_BOUNDS;
+    }
+    int cell = r * SIZE + c;
+    while (true) {
+      long s = state.get();
+      if (isGameOver(s)) {
+        return MoveStatus.GAME_OVER;
+      } else if (player != null && turn(s) != player) {
+        return MoveStatus.WRONG_TURN;
+      } else if (cellAt(s, cell) != 0) {
+        return MoveStatus.OCCUPIED;
+      }
+      int count = count(s);
+      long next = place(s, cell);
+      next = withRedo(next, count + 1);
+      if (state.compareAndSet(s, next)) {
+        fireMove(next, cell);
+        return MoveStatus.OK;
+      }
+    }
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    while (true) {
+      long s = state.get();
+      int count = count(s);
+      if (count == 0) {
+        throw new IllegalStateException("No moves to undo!");
+      }
+      int cell = historyAt(s, count - 1);
+      // the game ends with the winning move, so taking back the last move leaves no winner
+      long next = s & ~(3L << (2 * cell)) & ~(3L << WINNER_SHIFT);
+      next = (next & ~(0xFL << COUNT_SHIFT)) | (long) (count - 1) << COUNT_SHIFT;
+      if (state.compareAndSet(s, next)) {
+        listeners.fireUndo(cell / SIZE, cell % SIZE, turn(next));
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    while (true) {
+      long s = state.get();
+      int count = count(s);
+      if (count >= redo(s)) {
+        throw new IllegalStateException("No moves to redo!");
+      }
+      int cell = historyAt(s, count);
+      long next = place(s, cell);
+      if (state.compareAndSet(s, next)) {
+        fireMove(next, cell);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public boolean canRedo() {
+    long s = state.get();
+    return count(s) < redo(s);
+  }
+
+  /**
+   * {@inheritDoc} The new game is installed with a single write, so a move racing with the
+   * reset is applied either to the old game, and then discarded, or to the new one. Listeners
+   * may hear of such a move before the reset even though it was applied after.
+   */
+  @Override
+  public void reset() {
+    state.set(0);
+    listeners.fireReset();
+  }
+
+  @Override
+  public int getMoveCount() {
+    return count(state.get());
+  }
+
+  @Override
+  public int[] getMoveHistory() {
+    long s = state.get();
+    int[] history = new int[count(s)];
+    for (int i = 0; i < history.length; i++) {
+      history[i] = historyAt(s, i);
+    }
+    return history;
+  }
+
+  @Override
+  public Player getTurn() {
+    return turn(state.get());
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return isGameOver(state.get());
+  }
+
+  @Override
+  public Player getWinner() {
+    return winner(state.get());
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    long s = state.get();
+    Player[][] board = new Player[SIZE][SIZE];
+    for (int cell = 0; cell < CELLS; cell++) {
+      board[cell / SIZE][cell % SIZE] = mark(cellAt(s, cell));
+    }
+    return board;
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    if (r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+      throw new IllegalArgumentException("Position is out of bounds!");
+    }
+    return mark(cellAt(state.get(), r * SIZE + c));
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    long s = state.get();
+    for (int cell = 0; cell < CELLS; cell++) {
+      visitor.visit(cell / SIZE, cell % SIZE, mark(cellAt(s, cell)));
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return SIZE;
+  }
+
+  @Override
+  public int getWinLength() {
+    return SIZE;
+  }
+
+  /**
+   * {@inheritDoc} The hash is computed from a single snapshot of the board, which is too small
+   * for maintaining it alongside the state to pay off.
+   */
+  @Override
+  public long getHash() {
+    long s = state.get();
+    long hash = 0;
+    for (int cell = 0; cell < CELLS; cell++) {
+      int mark = cellAt(s, cell);
+      if (mark != 0) {
+        hash ^= SYMMETRIC_KEYS[0][(mark - 1) * CELLS + cell];
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * {@inheritDoc} The hashes are computed from a single snapshot of the board.
+   */
+  @Override
+  public long getCanonicalHash() {
+    long s = state.get();
+    long min = Long.MAX_VALUE;
+    for (int t = 0; t < SYMMETRIC_KEYS.length; t++) {
+      min = Math.min(min, symmetricHash(s, t));
+    }
+    return min;
+  }
+
+  /**
+   * {@inheritDoc} The symmetry is found from a single snapshot of the board.
+   */
+  @Override
+  public int getCanonicalSymmetry() {
+    return canonicalSymmetry(state.get());
+  }
+
+  private static int canonicalSymmetry(long s) {
+    int best = 0;
+    long min = symmetricHash(s, 0);
+    for (int t = 1; t < SYMMETRIC_KEYS.length; t++) {
+      long hash = symmetricHash(s, t);
+      if (hash < min) {
+        min = hash;
+        best = t;
+      }
+    }
+    return best;
+  }
+
+  private static long symmetricHash(long s, int symmetry) {
+    long[] keys = SYMMETRIC_KEYS[symmetry];
+    long hash = 0;
+    for (int cell = 0; cell < CELLS; cell++) {
+      int mark = cellAt(s, cell);
+      if (mark != 0) {
+        hash ^= keys[(mark - 1) * CELLS + cell];
+      }
+    }
+    return hash;
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public void removeAllListeners() {
+    listeners.clear();
+  }
+
+  /**
+   * Returns a string representation of the board in the same format as
+   * {@link TicTacToeModel#toString()}, taken from a single consistent snapshot.
+   *
+   * @return a string representation of the tic-tac-toe board
+   */
+  @Override
+  public String toString() {
+    long s = state.get();
+    StringBuilder sb = new StringBuilder(SIZE * 16);
+    for (int i = 0; i < SIZE; i++) {
+      if (i > 0) {
+        sb.append("\n-----------\n");
+      }
+      for (int j = 0; j < SIZE; j++) {
+        if (j > 0) {
+          sb.append(" |");
+        }
+        Player p = mark(cellAt(s, i * SIZE + j));
+        sb.append(' ').append(p == null ? " " : p.toString());
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the state with the player to move marking the given empty cell, the move appended
+   * to the history, and the player recorded as the winner if the move completes a line. The
+   * redo count is left unchanged.
+   */
+  private static long place(long s, int cell) {
+    int count = count(s);
+    long mark = turn(s) == Player.X ? 1L : 2L;
+    long next = s | mark << (2 * cell);
+    long cells = next & CELL_BITS;
+    for (long line : LINES) {
+      long marked = line * mark;
+      if ((cells & marked) == marked) {
+        next |= mark << WINNER_SHIFT;
+        break;
+      }
+    }
+    next = (next & ~(0xFL << (HISTORY_SHIFT + 4 * count)))
+        | (long) cell << (HISTORY_SHIFT + 4 * count);
+    return (next & ~(0xFL << COUNT_SHIFT)) | (long) (count + 1) << COUNT_SHIFT;
+  }
+
+  private void fireMove(long s, int cell) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Player mover = turn(s) == Player.X ? Player.O : Player.X;
+    listeners.fireMove(cell / SIZE, cell % SIZE, mover, isGameOver(s), winner(s));
+  }
+
+  private static long withRedo(long s, int redo) {
+    return (s & ~(0xFL << REDO_SHIFT)) | (long) redo << REDO_SHIFT;
+  }
+
+  private static int cellAt(long s, int cell) {
+    return (int) (s >>> (2 * cell)) & 3;
+  }
+
+  private static int historyAt(long s, int index) {
+    return (int) (s >>> (HISTORY_SHIFT + 4 * index)) & 0xF;
+  }
+
+  private static int count(long s) {
+    return (int) (s >>> COUNT_SHIFT) & 0xF;
+  }
+
+  private static int redo(long s) {
+    return (int) (s >>> REDO_SHIFT) & 0xF;
+  }
+
+  private static Player turn(long s) {
+    return (count(s) & 1) == 0 ? Player.X : Player.O;
+  }
+
+  private static Player winner(long s) {
+    return mark((int) (s >>> WINNER_SHIFT) & 3);
+  }
+
+  private static boolean isGameOver(long s) {
+    return count(s) == CELLS || s >>> WINNER_SHIFT != 0;
+  }
+
+  private static Player mark(int cell) {
+    return cell == 0 ? null : cell == 1 ? Player.X : Player.O;
+  }
+}
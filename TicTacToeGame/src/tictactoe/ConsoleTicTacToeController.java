@@ -0,0 +1,111 @@
+package tictactoe;
+
+/**
+ * Implements the game controller for a Tic Tac Toe game played through a
+ * {@link ConsoleTicTacToeView}. Unlike the Swing controller, which returns once the window is
+ * shown and is then driven by clicks, this controller plays the whole game in
+ * {@link #playGame()}, reading the user's moves until the game ends or the input does.
+ *
+ * <p>As with the Swing controller, the model reports every move, turn change and result, and
+ * the controller forwards each to the view. A move the model rejects is reported to the user
+ * rather than thrown, since typed input is expected to be wrong sometimes.
+ */
+public class ConsoleTicTacToeController implements TicTacToeController, TicTacToeListener {
+  private final TicTacToe model;
+  private final ConsoleTicTacToeView view;
+  private Strategy computer;
+  private Player computerPlayer;
+  private boolean gameOver;
+
+  /**
+   * Constructs a console controller for two users sharing the console.
+   *
+   * @param view  The view reading the users' moves and showing the board.
+   * @param model The model component representing the Tic Tac Toe game logic.
+   */
+  public ConsoleTicTacToeController(ConsoleTicTacToeView view, TicTacToe model) {
+    this.model = model;
+    this.view = view;
+    this.gameOver = model.isGameOver();
+    model.addListener(this);
+    view.addClickListener(this::cellClicked);
+  }
+
+  /**
+   * Constructs a console controller in which the computer plays one side using the given
+   * strategy, and the user plays the other.
+   *
+   * @param view           The view reading the user's moves and showing the board.
+   * @param model          The model component representing the Tic Tac Toe game logic.
+   * @param computer       The strategy choosing the computer's moves.
+   * @param computerPlayer The player the computer plays as.
+   */
+  public ConsoleTicTacToeController(ConsoleTicTacToeView view, TicTacToe model,
+                                    Strategy computer, Player computerPlayer) {
+    this(view, model);
+    this.computer = computer;
+    this.computerPlayer = computerPlayer;
+  }
+
+  @Override
+  public void playGame() {
+    view.display();
+    view.updateTurnLabel(model.getTurn().toString());
+    playComputerMoves();
+    while (!gameOver && view.readClick()) {
+      // each click is handled by cellClicked
+    }
+  }
+
+  private void cellClicked(int row, int col) {
+    if (gameOver || isComputersTurn()) {
+      return;
+    }
+    int status = model.tryMove(row, col);
+    if (status != MoveStatus.OK) {
+      view.displayMessage(MoveStatus.message(status));
+      return;
+    }
+    playComputerMoves();
+  }
+
+  @Override
+  public void moveMade(int r, int c, Player player) {
+    view.displayMove(r, c, player.toString());
+  }
+
+  @Override
+  public void moveUndone(int r, int c) {
+    view.clearMove(r, c);
+  }
+
+  @Override
+  public void turnChanged(Player turn) {
+    gameOver = false;
+    view.updateTurnLabel(turn.toString());
+  }
+
+  @Override
+  public void gameOver(Player winner) {
+    gameOver = true;
+    if (winner != null) {
+      view.displayMessage("Game is over! " + winner + " wins.");
+    } else {
+      view.displayMessage("Game is over! Tie game.");
+    }
+  }
+
+  private boolean isComputersTurn() {
+    return computer != null && model.getTurn() == computerPlayer;
+  }
+
+  /**
+   * Lets the computer move for as long as it is the computer's turn and the game is not over.
+   */
+  private void playComputerMoves() {
+    while (!gameOver && isComputersTurn()) {
+      int[] move = computer.chooseMove(model);
+      model.move(move[0], move[1]);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Implements a text view for a Tic Tac Toe game, for playing in a terminal or driving a game
+ * from a script. The board is written to an {@link Appendable} after every move, and the user
+ * selects a cell by typing its one-based row and column, read from a {@link Readable}.
+ *
+ * <p>The view uses no AWT or Swing classes, so a game played through it starts without loading
+ * the windowing toolkit.
+ */
+public class ConsoleTicTacToeView implements TicTacToeView {
+  private final Scanner in;
+  private final Appendable out;
+  private final char[][] cells;
+  private final List<CellClickListener> listeners = new ArrayList<>();
+
+  /**
+   * Constructs a console view of a board of the given size.
+   *
+   * @param in   The source of the user's input.
+   * @param out  The destination of the board and messages.
+   * @param size The number of rows and columns of the board.
+   * @throws IllegalArgumentException if either stream is null or the size is not positive
+   */
+  public ConsoleTicTacToeView(Readable in, Appendable out, int size)
+      throws IllegalArgumentException {
+    if (in == null || out == null) {
+      throw new IllegalArgumentException("Input and output cannot be null!");
+    } else if (size < 1) {
+      throw new IllegalArgumentException("Invalid board size!");
+    }
+    this.in = new Scanner(in);
+    this.out = out;
+    this.cells = new char[size][size];
+    for (char[] row : cells) {
+      Arrays.fill(row, ' ');
+    }
+  }
+
+  @Override
+  public void display() {
+    StringBuilder board = new StringBuilder();
+    for (int r = 0; r < cells.length; r++) {
+      if (r > 0) {
+        for (int c = 0; c < cells.length; c++) {
+          board.append(c == 0 ? "---" : "+---");
+        }
+        board.append('\n');
+      }
+      for (int c = 0; c < cells.length; c++) {
+        board.append(c == 0 ? " " : " | ").append(cells[r][c]);
+      }
+      board.append('\n');
+    }
+    write(board);
+  }
+
+  @Override
+  public void addClickListener(CellClickListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void displayMove(int row, int col, String currentPlayer) {
+    cells[row][col] = currentPlayer.charAt(0);
+    this.display();
+  }
+
+  @Override
+  public void clearMove(int row, int col) {
+    cells[row][col] = ' ';
+    this.display();
+  }
+
+  @Override
+  public void updateTurnLabel(String turn) {
+    write("Turn: " + turn + "\n");
+  }
+
+  @Override
+  public void displayMessage(String result) {
+    if (!result.isEmpty()) {
+      write(result + "\n");
+    }
+  }
+
+  /**
+   * Reads the next cell the user selects and passes it to the click listeners. Input that is not
+   * a pair of row and column numbers on the board is reported and skipped.
+   *
+   * @return false if the input ended or the user typed {@code q} to quit, otherwise true
+   */
+  public boolean readClick() {
+    int[] cell = new int[2];
+    int read = 0;
+    while (read < 2) {
+      if (!in.hasNext()) {
+        return false;
+      } else if (in.hasNextInt()) {
+        cell[read++] = in.nextInt() - 1;
+      } else if (in.next().equalsIgnoreCase("q")) {
+        return false;
+      } else {
+        read = 0;
+        this.prompt();
+      }
+    }
+    if (cell[0] < 0 || cell[0] >= cells.length || cell[1] < 0 || cell[1] >= cells.length) {
+      this.prompt();
+      return true;
+    }
+    for (CellClickListener listener : listeners) {
+      listener.cellClicked(cell[0], cell[1]);
+    }
+    return true;
+  }
+
+  private void prompt() {
+    write("Enter a row and column between 1 and " + cells.length + ", or q to quit.\n");
+  }
+
+  private void write(CharSequence text) {
+    try {
+      out.append(text);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write to the output!", e);
+    }
+  }
+}
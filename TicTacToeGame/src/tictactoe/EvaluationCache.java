@@ -0,0 +1,200 @@
+package tictactoe;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of position evaluations, keyed by position hash, that any number of threads
+ * can share without locking. Computer players in the same JVM share {@link #shared()}, so a
+ * position evaluated in one game is not evaluated again in another.
+ *
+ * <p>The cache is set-associative: a key can live in any of the eight slots of the set its hash
+ * selects, and when the set is full a clock sweep evicts a slot that has not been read since the
+ * hand last passed it. Each slot is a pair of longs, the value and the key XORed with the value,
+ * written without synchronization. A reader that sees a half-written slot finds that the pair no
+ * longer XORs to its key and treats it as a miss, so a race can lose an entry but never return a
+ * wrong value. Memory use is fixed when the cache is created.
+ */
+public final class EvaluationCache {
+  /** The value returned by {@link #get(long)} when the key is not cached. */
+  public static final long MISS = Long.MIN_VALUE;
+
+  /** The system property giving the size of {@link #shared()}, in megabytes. */
+  public static final String SHARED_SIZE_PROPERTY = "tictactoe.evalCacheMb";
+
+  private static final int WAYS = 8;
+  // two longs and a reference flag per slot
+  private static final int SLOT_BYTES = 2 * Long.BYTES + 1;
+  private static final long VALID = 1L << 32;
+
+  private final long[] checks;
+  private final long[] values;
+  private final boolean[] referenced;
+  private final byte[] hands;
+  private final int setMask;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates a cache that uses at most the given amount of memory.
+   *
+   * @param maxBytes the memory cap, in bytes; the cache uses the largest power-of-two number of
+   *                 slots that fits
+   * @throws IllegalArgumentException if the cap cannot hold a single set of slots, or needs more
+   *                                  than 2^30 slots
+   */
+  public EvaluationCache(long maxBytes) throws IllegalArgumentException {
+    long slots = maxBytes / SLOT_BYTES;
+    if (slots < WAYS || slots > 1L << 30) {
+      throw new IllegalArgumentException("Cache size must hold between 8 and 2^30 entries!");
+    }
+    int sets = Integer.highestOneBit((int) (slots / WAYS));
+    this.checks = new long[sets * WAYS];
+    this.values = new long[sets * WAYS];
+    this.referenced = new boolean[sets * WAYS];
+    this.hands = new byte[sets];
+    this.setMask = sets - 1;
+  }
+
+  /**
+   * Returns the cache shared by the computer players in this JVM, creating it on first use. Its
+   * size is {@value #SHARED_SIZE_PROPERTY} megabytes if that system property is set, and
+   * 16 megabytes otherwise.
+   *
+   * @return the shared cache
+   */
+  public static EvaluationCache shared() {
+    return Shared.INSTANCE;
+  }
+
+  /**
+   * Looks up a key.
+   *
+   * @param key the position hash
+   * @return the cached value, or {@link #MISS} if the key is not cached
+   */
+  public long get(long key) {
+    int base = setOf(key) * WAYS;
+    for (int i = base; i < base + WAYS; i++) {
+      long value = values[i];
+      if (value != 0 && (checks[i] ^ value) == key) {
+        referenced[i] = true;
+        hits.increment();
+        return (int) value;
+      }
+    }
+    misses.increment();
+    return MISS;
+  }
+
+  /**
+   * Caches a value, replacing any value already cached for the key.
+   *
+   * @param key   the position hash
+   * @param value the value
+   */
+  public void put(long key, int value) {
+    int set = setOf(key);
+    int base = set * WAYS;
+    long packed = VALID | (value & 0xFFFFFFFFL);
+    int slot = -1;
+    for (int i = base; i < base + WAYS; i++) {
+      long current = values[i];
+      if (current == 0 || (checks[i] ^ current) == key) {
+        slot = i;
+        break;
+      }
+    }
+    if (slot < 0) {
+      // clock sweep: give each recently read slot a second chance, at most one lap
+      int hand = hands[set];
+      for (int step = 0; step < WAYS && referenced[base + hand]; step++) {
+        referenced[base + hand] = false;
+        hand = (hand + 1) & (WAYS - 1);
+      }
+      slot = base + hand;
+      hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+      evictions.increment();
+    }
+    values[slot] = packed;
+    checks[slot] = key ^ packed;
+    referenced[slot] = false;
+  }
+
+  private int setOf(long key) {
+    return (int) (key ^ (key >>> 29)) & setMask;
+  }
+
+  /**
+   * Removes every entry. Entries stored by other threads while the cache is being cleared may
+   * survive.
+   */
+  public void clear() {
+    Arrays.fill(values, 0L);
+    Arrays.fill(checks, 0L);
+    Arrays.fill(referenced, false);
+  }
+
+  /**
+   * Returns the number of entries the cache can hold.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return values.length;
+  }
+
+  /**
+   * Returns the number of lookups that found their key.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that did not find their key.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of entries evicted to make room for others.
+   *
+   * @return the eviction count
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Returns the fraction of lookups that found their key.
+   *
+   * @return the hit rate, or 0 if there have been no lookups
+   */
+  public double getHitRate() {
+    long h = hits.sum();
+    long total = h + misses.sum();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d entries: %d hits, %d misses (%.1f%%), %d evictions",
+        getCapacity(), getHits(), getMisses(), 100 * getHitRate(), getEvictions());
+  }
+
+  /**
+   * Holds the shared cache, so it is only allocated when first used.
+   */
+  private static final class Shared {
+    private static final EvaluationCache INSTANCE = new EvaluationCache(
+        Long.getLong(SHARED_SIZE_PROPERTY, 16) << 20);
+  }
+}
@@ -0,0 +1,260 @@
+package tictactoe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Aggregates the outcomes of archived games. Each partition, a file written by
+ * {@link GameRecordWriter}, is streamed by its own task on a {@link ForkJoinPool}: its games are
+ * replayed through a {@link TicTacToeModel} to find their results and counted into stats owned by
+ * that task, and the partitions' stats are then merged.
+ *
+ * <p>Runs are incremental. A checkpoint file records the merged stats and how far each partition
+ * has been read, so the next run over the same partitions only reads the blocks appended since,
+ * and adds their counts to the checkpointed ones.
+ */
+public class GameAnalytics {
+  private static final int CHECKPOINT_MAGIC = 0x54545441; // "TTTA"
+  private static final int CHECKPOINT_VERSION = 2;
+
+  private final int size;
+  private final int winLength;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates an analytics stage for games with the given rules, on all available cores. Games
+   * with other rules are skipped.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @throws IllegalArgumentException if the rules are invalid or the board is larger than
+   *                                  {@link GameStats#MAX_SIZE}
+   */
+  public GameAnalytics(int size, int winLength) throws IllegalArgumentException {
+    this(size, winLength, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates an analytics stage for games with the given rules. Games with other rules are
+   * skipped.
+   *
+   * @param size        the board size
+   * @param winLength   the win length
+   * @param parallelism the number of partitions to read at once
+   * @throws IllegalArgumentException if the rules are invalid, the board is larger than
+   *                                  {@link GameStats#MAX_SIZE}, or parallelism is not positive
+   */
+  public GameAnalytics(int size, int winLength, int parallelism)
+      throws IllegalArgumentException {
+    if (size < 1 || size > GameStats.MAX_SIZE || winLength < 1 || winLength > size) {
+      throw new IllegalArgumentException("Invalid board size or win length!");
+    } else if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive!");
+    }
+    this.size = size;
+    this.winLength = winLength;
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Reads every game in the given partitions and returns their stats.
+   *
+   * @param partitions the game-record files to read
+   * @return the stats of all their games
+   * @throws IOException if a partition cannot be read
+   */
+  public GameStats run(List<Path> partitions) throws IOException {
+    return this.run(partitions, null);
+  }
+
+  /**
+   * Reads the games appended to the given partitions since the checkpoint was written, and
+   * returns the stats of all games read so far. The checkpoint is then updated. Partitions that
+   * are new to the checkpoint are read in full.
+   *
+   * @param partitions the game-record files to read
+   * @param checkpoint the checkpoint file, which need not exist yet, or null to read everything
+   *                   and keep no checkpoint
+   * @return the stats of every game read, in this run and earlier ones
+   * @throws IOException if a partition or the checkpoint cannot be read, the checkpoint is for
+   *                     other rules, or a partition is shorter than when it was last read
+   */
+  public GameStats run(List<Path> partitions, Path checkpoint) throws IOException {
+    GameStats total = new GameStats(size, winLength);
+    Map<String, Long> offsets = new HashMap<>();
+    if (checkpoint != null && Files.exists(checkpoint)) {
+      total = readCheckpoint(checkpoint, offsets);
+    }
+
+    List<Callable<PartitionResult>> tasks = new ArrayList<>();
+    for (Path partition : partitions) {
+      String key = partition.toAbsolutePath().normalize().toString();
+      long offset = offsets.getOrDefault(key, (long) GameRecordWriter.HEADER_BYTES);
+      tasks.add(() -> readPartition(key, partition, offset));
+    }
+    for (Future<PartitionResult> future : pool.invokeAll(tasks)) {
+      PartitionResult result;
+      try {
+        result = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+      total.add(result.stats);
+      offsets.put(result.key, result.endOffset);
+    }
+
+    if (checkpoint != null) {
+      writeCheckpoint(checkpoint, total, offsets);
+    }
+    return total;
+  }
+
+  /**
+   * Stops the worker threads. The analytics stage cannot be used afterwards.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private PartitionResult readPartition(String key, Path partition, long offset)
+      throws IOException {
+    GameStats stats = new GameStats(size, winLength);
+    TicTacToe game = new TicTacToeModel(size, winLength);
+    int[] moves = new int[size * size];
+    try (GameRecordReader reader = new GameRecordReader(partition)) {
+      if (offset > Files.size(partition)) {
+        throw new IOException("Partition " + key + " is shorter than when it was last read");
+      }
+      reader.seek(offset);
+      while (reader.next()) {
+        if (reader.getSize() != size || reader.getWinLength() != winLength) {
+          stats.recordSkipped();
+          continue;
+        }
+        int len = reader.getMoveCount();
+        for (int i = 0; i < len; i++) {
+          moves[i] = reader.getMove(i);
+        }
+        game.reset(); // rather than allocating a new game for every record
+        if (MoveStatus.code(reader.replay(game)) != MoveStatus.OK) {
+          stats.recordSkipped();
+          continue;
+        }
+        stats.record(moves, len, game.isGameOver(), game.getWinner());
+      }
+      return new PartitionResult(key, stats, reader.getNextBlockOffset());
+    }
+  }
+
+  private GameStats readCheckpoint(Path checkpoint, Map<String, Long> offsets)
+      throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+      if (in.readInt() != CHECKPOINT_MAGIC) {
+        throw new IOException("Not an analytics checkpoint");
+      } else if (in.readInt() != CHECKPOINT_VERSION) {
+        throw new IOException("Unsupported analytics checkpoint version");
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String key = in.readUTF();
+        offsets.put(key, in.readLong());
+      }
+      GameStats stats = GameStats.read(in);
+      if (stats.getSize() != size || stats.getWinLength() != winLength) {
+        throw new IOException("Checkpoint is for different game rules");
+      }
+      return stats;
+    }
+  }
+
+  /**
+   * Writes the checkpoint to a temporary file, then moves it into place, so a failed write
+   * leaves the previous checkpoint intact.
+   */
+  private static void writeCheckpoint(Path checkpoint, GameStats stats,
+                                      Map<String, Long> offsets) throws IOException {
+    Path dir = checkpoint.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(dir, checkpoint.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeInt(offsets.size());
+        for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeLong(entry.getValue());
+        }
+        stats.write(out);
+      }
+      Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * The stats of the games read from one partition, and where reading stopped.
+   */
+  private static final class PartitionResult {
+    private final String key;
+    private final GameStats stats;
+    private final long endOffset;
+
+    PartitionResult(String key, GameStats stats, long endOffset) {
+      this.key = key;
+      this.stats = stats;
+      this.endOffset = endOffset;
+    }
+  }
+
+  /**
+   * Aggregates standard three-by-three games and prints the report.
+   *
+   * @param args Command-line arguments: {@code [--checkpoint file] partition...}
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    Path checkpoint = null;
+    List<Path> partitions = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--checkpoint") && i + 1 < args.length) {
+        checkpoint = Paths.get(args[++i]);
+      } else {
+        partitions.add(Paths.get(args[i]));
+      }
+    }
+    GameAnalytics analytics = new GameAnalytics(3, 3);
+    try {
+      long start = System.nanoTime();
+      GameStats stats = analytics.run(partitions, checkpoint);
+      System.out.print(stats);
+      System.out.printf("Read in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    } finally {
+      analytics.shutdown();
+    }
+  }
+}
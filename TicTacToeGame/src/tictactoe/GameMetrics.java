@@ -0,0 +1,239 @@
+package tictactoe;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for games and controllers, filled in by
+ * {@link InstrumentedTicTacToe} and {@link InstrumentedController}. Counters are
+ * {@link LongAdder}s and latencies go into {@link LatencyHistogram}s, so threads record
+ * without contending on a lock. The metrics can be published over JMX with
+ * {@link #register(String)} and printed periodically with {@link #startDump(PrintStream, long)}.
+ *
+ * <p>Instrumentation is off unless the JVM is started with {@code -D}{@value #ENABLED_PROPERTY}
+ * {@code =true}. While it is off, {@link #wrap(TicTacToe)} and
+ * {@link #wrap(TicTacToeController)} return their argument unwrapped, so uninstrumented code
+ * runs exactly as it would without this class.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+  /** The system property that turns instrumentation on. */
+  public static final String ENABLED_PROPERTY = "tictactoe.metrics";
+
+  private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+  private static final GameMetrics GLOBAL = new GameMetrics();
+
+  final LongAdder moves = new LongAdder();
+  final LongAdder illegalMoves = new LongAdder();
+  final LongAdder undos = new LongAdder();
+  final LongAdder gamesStarted = new LongAdder();
+  final LongAdder xWins = new LongAdder();
+  final LongAdder oWins = new LongAdder();
+  final LongAdder draws = new LongAdder();
+  final LongAdder controllerSessions = new LongAdder();
+
+  final LatencyHistogram moveLatency = new LatencyHistogram();
+  final LatencyHistogram isGameOverLatency = new LatencyHistogram();
+  final LatencyHistogram getWinnerLatency = new LatencyHistogram();
+  final LatencyHistogram gameDuration = new LatencyHistogram();
+  final LatencyHistogram controllerLatency = new LatencyHistogram();
+
+  /**
+   * Creates an empty set of metrics, separate from the {@linkplain #global() global} ones.
+   */
+  public GameMetrics() {
+  }
+
+  /**
+   * Returns whether instrumentation was turned on when the JVM started.
+   *
+   * @return true if {@value #ENABLED_PROPERTY} is true
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Returns the metrics shared by the whole JVM.
+   *
+   * @return the global metrics
+   */
+  public static GameMetrics global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns the given game instrumented to record into these metrics, or the game itself if
+   * instrumentation is off.
+   *
+   * @param game the game to instrument
+   * @return the instrumented game, or the game itself
+   */
+  public TicTacToe wrap(TicTacToe game) {
+    return ENABLED ? new InstrumentedTicTacToe(game, this) : game;
+  }
+
+  /**
+   * Returns the given controller instrumented to record into these metrics, or the controller
+   * itself if instrumentation is off.
+   *
+   * @param controller the controller to instrument
+   * @return the instrumented controller, or the controller itself
+   */
+  public TicTacToeController wrap(TicTacToeController controller) {
+    return ENABLED ? new InstrumentedController(controller, this) : controller;
+  }
+
+  /**
+   * Publishes these metrics to the platform MBean server under
+   * {@code tictactoe:type=GameMetrics,name=}<i>name</i>.
+   *
+   * @param name the name distinguishing this set of metrics
+   * @throws IllegalStateException if the metrics cannot be registered, for instance because the
+   *                               name is taken
+   */
+  public void register(String name) throws IllegalStateException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(this, new ObjectName("tictactoe:type=GameMetrics,name=" + name));
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register metrics " + name, e);
+    }
+  }
+
+  /**
+   * Prints the report to the given stream at a fixed period, on a daemon thread.
+   *
+   * @param out           the stream to print to
+   * @param periodSeconds the time between reports, in seconds
+   * @return the scheduled dump, which can be cancelled to stop it
+   */
+  public ScheduledFuture<?> startDump(PrintStream out, long periodSeconds) {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "game-metrics-dump");
+      thread.setDaemon(true);
+      return thread;
+    });
+    ScheduledFuture<?> dump = executor.scheduleAtFixedRate(() -> out.print(getReport()),
+        periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    executor.shutdown(); // the periodic task keeps the thread alive until cancelled
+    return dump;
+  }
+
+  @Override
+  public long getMoves() {
+    return moves.sum();
+  }
+
+  @Override
+  public long getIllegalMoves() {
+    return illegalMoves.sum();
+  }
+
+  @Override
+  public long getUndos() {
+    return undos.sum();
+  }
+
+  @Override
+  public long getGamesStarted() {
+    return gamesStarted.sum();
+  }
+
+  @Override
+  public long getXWins() {
+    return xWins.sum();
+  }
+
+  @Override
+  public long getOWins() {
+    return oWins.sum();
+  }
+
+  @Override
+  public long getDraws() {
+    return draws.sum();
+  }
+
+  @Override
+  public long getMoveLatencyP99Nanos() {
+    return moveLatency.getPercentile(99);
+  }
+
+  @Override
+  public long getIsGameOverLatencyP99Nanos() {
+    return isGameOverLatency.getPercentile(99);
+  }
+
+  @Override
+  public long getGetWinnerLatencyP99Nanos() {
+    return getWinnerLatency.getPercentile(99);
+  }
+
+  @Override
+  public double getGameDurationP50Millis() {
+    return gameDuration.getPercentile(50) / 1e6;
+  }
+
+  /**
+   * Returns the histogram of the time to apply or reject a move.
+   *
+   * @return the move latency histogram
+   */
+  public LatencyHistogram getMoveLatency() {
+    return moveLatency;
+  }
+
+  /**
+   * Returns the histogram of the time from a game's first move to its end.
+   *
+   * @return the game duration histogram
+   */
+  public LatencyHistogram getGameDuration() {
+    return gameDuration;
+  }
+
+  /**
+   * Returns the histogram of the time controllers spend running a game.
+   *
+   * @return the controller latency histogram
+   */
+  public LatencyHistogram getControllerLatency() {
+    return controllerLatency;
+  }
+
+  @Override
+  public String getReport() {
+    return String.format("games: %d started, X %d, O %d, draws %d%n"
+            + "moves: %d applied, %d illegal, %d undone%n"
+            + "move: %s%nisGameOver: %s%ngetWinner: %s%ngame duration: %s%n"
+            + "controller: %d sessions, %s%n",
+        getGamesStarted(), getXWins(), getOWins(), getDraws(), getMoves(), getIllegalMoves(),
+        getUndos(), moveLatency, isGameOverLatency, getWinnerLatency, gameDuration,
+        controllerSessions.sum(), controllerLatency);
+  }
+
+  @Override
+  public void reset() {
+    for (LongAdder counter : new LongAdder[] {moves, illegalMoves, undos, gamesStarted, xWins,
+        oWins, draws, controllerSessions}) {
+      counter.reset();
+    }
+    for (LatencyHistogram histogram : new LatencyHistogram[] {moveLatency, isGameOverLatency,
+        getWinnerLatency, gameDuration, controllerLatency}) {
+      histogram.reset();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getReport();
+  }
+}
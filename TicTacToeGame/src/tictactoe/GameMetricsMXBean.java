@@ -0,0 +1,97 @@
+package tictactoe;
+
+/**
+ * The management interface of {@link GameMetrics}, through which JMX clients such as JConsole
+ * read the game counters and latencies of a running JVM.
+ */
+public interface GameMetricsMXBean {
+
+  /**
+   * Returns the number of moves applied, including redone moves.
+   *
+   * @return the move count
+   */
+  long getMoves();
+
+  /**
+   * Returns the number of moves rejected as illegal.
+   *
+   * @return the illegal move count
+   */
+  long getIllegalMoves();
+
+  /**
+   * Returns the number of moves taken back.
+   *
+   * @return the undo count
+   */
+  long getUndos();
+
+  /**
+   * Returns the number of games in which a first move was played.
+   *
+   * @return the started game count
+   */
+  long getGamesStarted();
+
+  /**
+   * Returns the number of games won by X.
+   *
+   * @return the game count
+   */
+  long getXWins();
+
+  /**
+   * Returns the number of games won by O.
+   *
+   * @return the game count
+   */
+  long getOWins();
+
+  /**
+   * Returns the number of games that ended in a tie.
+   *
+   * @return the game count
+   */
+  long getDraws();
+
+  /**
+   * Returns the 99th percentile time to apply or reject a move.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getMoveLatencyP99Nanos();
+
+  /**
+   * Returns the 99th percentile time of {@link TicTacToe#isGameOver()}.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getIsGameOverLatencyP99Nanos();
+
+  /**
+   * Returns the 99th percentile time of {@link TicTacToe#getWinner()}.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getGetWinnerLatencyP99Nanos();
+
+  /**
+   * Returns the median time from a game's first move to its end.
+   *
+   * @return the duration in milliseconds
+   */
+  double getGameDurationP50Millis();
+
+  /**
+   * Returns the full text report, as printed by the periodic dump.
+   *
+   * @return the report
+   */
+  String getReport();
+
+  /**
+   * Clears every counter and histogram.
+   */
+  void reset();
+}
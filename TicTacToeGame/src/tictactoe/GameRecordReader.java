@@ -0,0 +1,353 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the games in a file written by {@link GameRecordWriter}, one at a time. The file is read
+ * a block at a time through a {@link FileChannel} into buffers that are reused from block to
+ * block, so a file of any length is read in constant memory, and reading a game allocates
+ * nothing.
+ *
+ * <p>Call {@link #next()} to advance to each game, then read its rules and moves or replay it
+ * into a {@link TicTacToe}. The offset of the block holding the current game can be saved with
+ * {@link #getBlockOffset()} and passed to {@link #seek(long)} later, to resume reading from that
+ * block.
+ *
+ * <p>A last block cut short, because the writer crashed or is still writing it, is treated as
+ * the end of the file: {@link #next()} returns false, and once the block is complete a later
+ * call reads it.
+ */
+public class GameRecordReader implements Closeable {
+  private final FileChannel channel;
+  private final Inflater inflater = new Inflater();
+  private final ByteBuffer blockHeader = ByteBuffer.allocate(GameRecordWriter.BLOCK_HEADER_BYTES);
+  private ByteBuffer compressed = ByteBuffer.allocate(GameRecordWriter.BLOCK_BYTES);
+  private byte[] block = new byte[GameRecordWriter.BLOCK_BYTES + 1024];
+
+  private long nextBlockOffset = GameRecordWriter.HEADER_BYTES;
+  private long blockOffset = -1;
+  private int blockRecords;
+  private int blockLength;
+  private int recordsRead;
+  private int position;
+
+  private int size;
+  private int winLength;
+  private int[] moves = new int[9];
+  private int moveCount;
+
+  /**
+   * Opens a game-record file for reading.
+   *
+   * @param file the file to read
+   * @throws IOException if the file cannot be opened or is not a game-record file
+   */
+  public GameRecordReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      checkHeader(channel);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Checks that the channel holds a game-record file of a supported version.
+   */
+  static void checkHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(GameRecordWriter.HEADER_BYTES);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        break;
+      }
+    }
+    if (header.hasRemaining() || header.getInt(0) != GameRecordWriter.MAGIC) {
+      throw new IOException("Not a game-record file");
+    } else if (header.getInt(4) != GameRecordWriter.VERSION) {
+      throw new IOException("Unsupported game-record version " + header.getInt(4));
+    }
+  }
+
+  /**
+   * Returns the offset just past the last complete block of a game-record file, which is the
+   * file's size unless its last block was cut short.
+   *
+   * @throws IOException if the file cannot be read or a block header is corrupt
+   */
+  static long endOfBlocks(FileChannel channel) throws IOException {
+    ByteBuffer blockHeader = ByteBuffer.allocate(GameRecordWriter.BLOCK_HEADER_BYTES);
+    long size = channel.size();
+    long offset = GameRecordWriter.HEADER_BYTES;
+    while (offset + GameRecordWriter.BLOCK_HEADER_BYTES <= size) {
+      blockHeader.clear();
+      while (blockHeader.hasRemaining()
+          && channel.read(blockHeader, offset + blockHeader.position()) >= 0) {
+        // read until the header is full
+      }
+      int records = blockHeader.getInt(0);
+      int rawLength = blockHeader.getInt(4);
+      int compressedLength = blockHeader.getInt(8);
+      if (records < 0 || rawLength < 0 || compressedLength < 0) {
+        throw new IOException("Corrupt block at " + offset);
+      }
+      long next = offset + GameRecordWriter.BLOCK_HEADER_BYTES + compressedLength;
+      if (next > size) {
+        break;
+      }
+      offset = next;
+    }
+    return offset;
+  }
+
+  /**
+   * Advances to the next game in the file.
+   *
+   * @return true if there is another game, false at the end of the file or of its last complete
+   *         block
+   * @throws IOException if the file cannot be read or is corrupt
+   */
+  public boolean next() throws IOException {
+    while (recordsRead == blockRecords) {
+      if (!readBlock()) {
+        return false;
+      }
+    }
+    size = getVarint();
+    winLength = getVarint();
+    moveCount = getVarint();
+    if (size < 1 || size > GameRecordWriter.MAX_SIZE || winLength < 1 || winLength > size
+        || moveCount < 0 || moveCount > (long) size * size) {
+      throw new IOException("Corrupt game record at block " + blockOffset);
+    }
+    if (moves.length < moveCount) {
+      moves = new int[moveCount];
+    }
+    int bits = GameRecordWriter.bitsPerMove(size);
+    long mask = (1L << bits) - 1;
+    long acc = 0;
+    int accBits = 0;
+    for (int i = 0; i < moveCount; i++) {
+      while (accBits < bits) {
+        acc = acc << 8 | (nextByte() & 0xFF);
+        accBits += 8;
+      }
+      accBits -= bits;
+      moves[i] = (int) (acc >>> accBits & mask);
+    }
+    recordsRead++;
+    return true;
+  }
+
+  /**
+   * Returns the board size of the current game.
+   *
+   * @return the board size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the win length of the current game.
+   *
+   * @return the win length
+   */
+  public int getWinLength() {
+    return winLength;
+  }
+
+  /**
+   * Returns the number of moves in the current game.
+   *
+   * @return the move count
+   */
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  /**
+   * Returns a move of the current game.
+   *
+   * @param index the index of the move, from zero
+   * @return the cell index of the move, {@code r * size + c}
+   * @throws IndexOutOfBoundsException if there is no such move
+   */
+  public int getMove(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= moveCount) {
+      throw new IndexOutOfBoundsException("No move " + index);
+    }
+    return moves[index];
+  }
+
+  /**
+   * Returns the file offset of the block holding the current game.
+   *
+   * @return the block offset, or -1 before the first game is read
+   */
+  public long getBlockOffset() {
+    return blockOffset;
+  }
+
+  /**
+   * Returns the file offset of the first block not yet read. Once {@link #next()} has returned
+   * false, this is the end of the data read, where a later reader can {@link #seek(long)} to
+   * read only games appended since.
+   *
+   * @return the offset of the next block
+   */
+  public long getNextBlockOffset() {
+    return nextBlockOffset;
+  }
+
+  /**
+   * Moves to the start of the block at the given offset, so that the next call to
+   * {@link #next()} reads its first game.
+   *
+   * @param offset an offset returned by {@link #getBlockOffset()}
+   * @throws IllegalArgumentException if the offset is before the first block
+   */
+  public void seek(long offset) throws IllegalArgumentException {
+    if (offset < GameRecordWriter.HEADER_BYTES) {
+      throw new IllegalArgumentException("Offset is before the first block!");
+    }
+    nextBlockOffset = offset;
+    blockRecords = 0;
+    recordsRead = 0;
+  }
+
+  /**
+   * Plays the moves of the current game into the given new game, in one batch. A record holding
+   * an illegal move is reported in the result rather than by throwing, so replaying an archive
+   * with bad records costs no exceptions.
+   *
+   * @param game a game with the same rules as the current game, and no moves played
+   * @return the number of moves applied and a status code, packed as described in
+   *         {@link MoveStatus}
+   * @throws IllegalArgumentException if the game's rules differ or it has moves already
+   */
+  public int replay(TicTacToe game) throws IllegalArgumentException {
+    if (game.getSize() != size || game.getWinLength() != winLength) {
+      throw new IllegalArgumentException("Game rules do not match the record!");
+    } else if (game.getMoveCount() != 0) {
+      throw new IllegalArgumentException("Game has already started!");
+    }
+    return game.applyMoves(moves, 0, moveCount);
+  }
+
+  /**
+   * Returns a new game with the current game's moves played.
+   *
+   * @return the replayed game
+   * @throws IllegalArgumentException if the record holds an illegal move
+   * @throws IllegalStateException    if the record continues after the game is over
+   */
+  public TicTacToe replay() throws IllegalArgumentException, IllegalStateException {
+    TicTacToe game = new TicTacToeModel(size, winLength);
+    MoveStatus.check(MoveStatus.code(this.replay(game)));
+    return game;
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    channel.close();
+  }
+
+  /**
+   * Reads and inflates the block at the next block offset.
+   *
+   * @return false, leaving the offset where it is, if the file ends before the block does
+   */
+  private boolean readBlock() throws IOException {
+    long offset = nextBlockOffset;
+    blockHeader.clear();
+    if (!readFully(blockHeader, offset)) {
+      return false;
+    }
+    blockHeader.flip();
+    int records = blockHeader.getInt();
+    int rawLength = blockHeader.getInt();
+    int compressedLength = blockHeader.getInt();
+    if (records < 0 || rawLength < 0 || compressedLength < 0) {
+      throw new IOException("Corrupt block at " + offset);
+    } else if (offset + GameRecordWriter.BLOCK_HEADER_BYTES + compressedLength
+        > channel.size()) {
+      return false; // checked before allocating, as the header may be all that was written
+    }
+    if (compressed.capacity() < compressedLength) {
+      compressed = ByteBuffer.allocate(compressedLength);
+    }
+    compressed.clear().limit(compressedLength);
+    if (!readFully(compressed, offset + GameRecordWriter.BLOCK_HEADER_BYTES)) {
+      return false;
+    }
+    if (block.length < rawLength) {
+      block = new byte[rawLength];
+    }
+    inflater.reset();
+    inflater.setInput(compressed.array(), 0, compressedLength);
+    try {
+      int n = 0;
+      while (n < rawLength && !inflater.finished()) {
+        int inflated = inflater.inflate(block, n, rawLength - n);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        n += inflated;
+      }
+      if (n != rawLength) {
+        throw new IOException("Corrupt block at " + offset);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt block at " + offset, e);
+    }
+    blockOffset = offset;
+    nextBlockOffset = offset + GameRecordWriter.BLOCK_HEADER_BYTES + compressedLength;
+    blockRecords = records;
+    blockLength = rawLength;
+    recordsRead = 0;
+    position = 0;
+    return true;
+  }
+
+  /**
+   * Fills the buffer from the given file offset.
+   *
+   * @return false if the file ends first
+   */
+  private boolean readFully(ByteBuffer buffer, long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int nextByte() throws IOException {
+    if (position >= blockLength) {
+      throw new IOException("Corrupt game record at block " + blockOffset);
+    }
+    return block[position++];
+  }
+
+  private int getVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = nextByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Corrupt game record at block " + blockOffset);
+  }
+}
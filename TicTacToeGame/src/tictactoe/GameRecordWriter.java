@@ -0,0 +1,220 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * Writes games to a compact binary game-record file, to be read back with
+ * {@link GameRecordReader}.
+ *
+ * <p>A file starts with a header: {@link #MAGIC} and the format version, as big-endian ints. The
+ * rest of the file is a sequence of blocks. Each block has three big-endian ints (the number of
+ * records in the block, the uncompressed length and the compressed length) followed by the
+ * records, compressed with {@link Deflater}. Every record is a run of unsigned varints (the board
+ * size, the win length and the number of moves) followed by the moves, each the cell index
+ * {@code r * size + c} in the fewest bits that can hold any cell of the board, packed most
+ * significant bit first and padded to a whole byte. A three-by-three game needs four bits a
+ * move, so a full game takes eight bytes before compression.
+ *
+ * <p>Records are buffered until a block is full, so a writer must be flushed or closed for its
+ * last games to reach the file. Opening an existing file appends new blocks after the old ones;
+ * a last block cut short by a crash is cut off first, so the new blocks follow the last complete
+ * one.
+ */
+public class GameRecordWriter implements Closeable, Flushable {
+  /** The magic number at the start of a game-record file, "TTTG" in ASCII. */
+  public static final int MAGIC = 0x54545447;
+
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 8;
+  static final int BLOCK_HEADER_BYTES = 12;
+  /** The uncompressed size at which a block is written out. */
+  static final int BLOCK_BYTES = 64 * 1024;
+  /** The largest board size whose cell indices fit in an int. */
+  static final int MAX_SIZE = 46340;
+
+  private final FileChannel channel;
+  private final Deflater deflater = new Deflater();
+  private final ByteBuffer blockHeader =
+      ByteBuffer.allocate(BLOCK_HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+  private byte[] block = new byte[BLOCK_BYTES + 1024];
+  private byte[] compressed = new byte[block.length];
+  private int length;
+  private int records;
+
+  /**
+   * Opens a game-record file for writing, creating it if it does not exist and appending to it
+   * if it does.
+   *
+   * @param file the file to write
+   * @throws IOException if the file cannot be opened, or exists and is not a game-record file
+   *                     or has a corrupt block
+   */
+  public GameRecordWriter(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      if (channel.size() == 0) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+          channel.write(header);
+        }
+      } else {
+        GameRecordReader.checkHeader(channel);
+        long end = GameRecordReader.endOfBlocks(channel);
+        if (end < channel.size()) {
+          channel.truncate(end);
+        }
+      }
+      channel.position(channel.size());
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Writes the moves played so far in the given game.
+   *
+   * @param game the game to record
+   * @throws IOException if a full block cannot be written
+   */
+  public void write(TicTacToe game) throws IOException {
+    int[] moves = game.getMoveHistory();
+    this.write(game.getSize(), game.getWinLength(), moves, 0, moves.length);
+  }
+
+  /**
+   * Writes a game given as a sequence of moves.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @param moves     an array holding the cell index {@code r * size + c} of each move
+   * @param off       the index of the first move
+   * @param len       the number of moves
+   * @throws IllegalArgumentException  if the rules are invalid, there are more moves than
+   *                                   cells, or a move is not a cell of the board
+   * @throws IndexOutOfBoundsException if the moves are not all within the array
+   * @throws IOException               if a full block cannot be written
+   */
+  public void write(int size, int winLength, int[] moves, int off, int len)
+      throws IllegalArgumentException, IndexOutOfBoundsException, IOException {
+    if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+      throw new IllegalArgumentException("Invalid board size or win length!");
+    } else if (len < 0 || len > size * size) {
+      throw new IllegalArgumentException("Too many moves for the board!");
+    }
+    Objects.checkFromIndexSize(off, len, moves.length);
+    int cells = size * size;
+    // checked before anything is buffered, so a rejected record leaves no bytes in the block
+    for (int i = off; i < off + len; i++) {
+      if (moves[i] < 0 || moves[i] >= cells) {
+        throw new IllegalArgumentException("Position is out of bounds!");
+      }
+    }
+    int bits = bitsPerMove(size);
+    ensureCapacity(15 + (int) (((long) len * bits + 7) / 8));
+    putVarint(size);
+    putVarint(winLength);
+    putVarint(len);
+    // a long holds the up to seven bits left over plus a whole move of up to 31 bits
+    long acc = 0;
+    int accBits = 0;
+    for (int i = off; i < off + len; i++) {
+      acc = acc << bits | moves[i];
+      accBits += bits;
+      while (accBits >= 8) {
+        accBits -= 8;
+        block[length++] = (byte) (acc >>> accBits);
+      }
+    }
+    if (accBits > 0) {
+      block[length++] = (byte) (acc << (8 - accBits));
+    }
+    records++;
+    if (length >= BLOCK_BYTES) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Compresses and writes the games buffered so far as a block, so they reach the file.
+   *
+   * @throws IOException if the block cannot be written
+   */
+  @Override
+  public void flush() throws IOException {
+    if (records > 0) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Flushes the buffered games and closes the file.
+   *
+   * @throws IOException if the last block cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      deflater.end();
+      channel.close();
+    }
+  }
+
+  /**
+   * Returns the number of bits used to store each move on a board of the given size.
+   */
+  static int bitsPerMove(int size) {
+    return Math.max(1, 32 - Integer.numberOfLeadingZeros(size * size - 1));
+  }
+
+  private void writeBlock() throws IOException {
+    deflater.reset();
+    deflater.setInput(block, 0, length);
+    deflater.finish();
+    int compressedLength = 0;
+    while (!deflater.finished()) {
+      if (compressedLength == compressed.length) {
+        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+      }
+      compressedLength += deflater.deflate(compressed, compressedLength,
+          compressed.length - compressedLength);
+    }
+    blockHeader.clear();
+    blockHeader.putInt(records).putInt(length).putInt(compressedLength).flip();
+    ByteBuffer body = ByteBuffer.wrap(compressed, 0, compressedLength);
+    ByteBuffer[] buffers = {blockHeader, body};
+    while (body.hasRemaining()) {
+      channel.write(buffers);
+    }
+    length = 0;
+    records = 0;
+  }
+
+  private void ensureCapacity(int needed) {
+    if (length + needed > block.length) {
+      block = Arrays.copyOf(block, Math.max(block.length * 2, length + needed));
+    }
+  }
+
+  private void putVarint(int value) {
+    while ((value & ~0x7F) != 0) {
+      block[length++] = (byte) (value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+    block[length++] = (byte) value;
+  }
+}
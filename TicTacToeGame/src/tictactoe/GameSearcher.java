@@ -0,0 +1,504 @@
+package tictactoe;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The search engine behind the computer players. Holds a compact copy of a game's board that can
+ * make and unmake moves in place, and searches it with negamax and alpha-beta pruning over a
+ * Zobrist-hashed {@link TranspositionTable}, deepening iteratively until the position is solved
+ * or a node or time budget runs out. On boards large enough for the heuristic evaluation to be
+ * costly, evaluations are also memoized in an {@link EvaluationCache}, which may be shared with
+ * other searchers. Not thread-safe; each searching thread needs its own instance.
+ */
+final class GameSearcher {
+  /** The score of winning on the next move; faster wins score higher. */
+  static final int WIN = 1_000_000;
+  /** Scores beyond this magnitude are forced wins or losses rather than heuristic estimates. */
+  static final int WIN_THRESHOLD = WIN - 100_000;
+  static final int INFINITY = WIN + 1;
+
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+  // boards up to this many cells consider every empty cell; larger ones only cells near marks
+  static final int FULL_WIDTH_CELLS = 16;
+  private static final int TIME_CHECK_INTERVAL = 256;
+
+  private final int size;
+  private final int winLength;
+  private final int cellCount;
+  private final byte[] cells;
+  private final long[] keys;
+  private final long configKey;
+  private final int[] centerOrder;
+  private final int[] windowWeights;
+  private final int[][] moveBuffers;
+  private final TranspositionTable table;
+  private final EvaluationCache evaluations;
+
+  private int moveCount;
+  private byte toMove;
+  private long hash;
+
+  private long nodes;
+  private long nodeLimit;
+  private long deadline;
+  private boolean abortable;
+  private boolean aborted;
+  private AtomicBoolean stop;
+  private int rootRotation;
+  private int rootBest;
+  private int bestScore;
+  private int completedDepth;
+  private boolean solved;
+
+  /**
+   * Creates a searcher for games with the given rules, using the given transposition table.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @param table     the transposition table to read and fill
+   */
+  GameSearcher(int size, int winLength, TranspositionTable table) {
+    this(size, winLength, table, null);
+  }
+
+  /**
+   * Creates a searcher for games with the given rules, using the given transposition table and
+   * evaluation cache.
+   *
+   * @param size        the board size
+   * @param winLength   the win length
+   * @param table       the transposition table to read and fill
+   * @param evaluations the cache of heuristic evaluations, or null for none; small boards
+   *                    evaluate faster than they could look the result up, so never use it
+   */
+  GameSearcher(int size, int winLength, TranspositionTable table,
+               EvaluationCache evaluations) {
+    this.size = size;
+    this.winLength = winLength;
+    this.cellCount = size * size;
+    this.cells = new byte[cellCount];
+    this.keys = Zobrist.keys(size);
+    this.configKey = Zobrist.configKey(size, winLength);
+    this.moveBuffers = new int[cellCount + 1][];
+    this.table = table;
+    this.evaluations = cellCount > FULL_WIDTH_CELLS ? evaluations : null;
+    this.centerOrder = new int[cellCount];
+    Integer[] order = new Integer[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(distanceToCenter(a),
+        distanceToCenter(b)));
+    for (int i = 0; i < cellCount; i++) {
+      centerOrder[i] = order[i];
+    }
+    this.windowWeights = new int[winLength + 1];
+    for (int i = 1; i <= winLength; i++) {
+      windowWeights[i] = 1 << Math.min(2 * (i - 1), 24);
+    }
+  }
+
+  int getSize() {
+    return size;
+  }
+
+  int getWinLength() {
+    return winLength;
+  }
+
+  /**
+   * Copies the position of the given game into this searcher.
+   *
+   * @param game the game to copy
+   * @throws IllegalArgumentException if the game's rules differ from this searcher's
+   */
+  void load(TicTacToe game) throws IllegalArgumentException {
+    if (game.getSize() != size || game.getWinLength() != winLength) {
+      throw new IllegalArgumentException("Game rules do not match the searcher!");
+    }
+    moveCount = 0;
+    hash = 0;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        Player p = game.getMarkAt(r, c);
+        int cell = r * size + c;
+        if (p == null) {
+          cells[cell] = 0;
+        } else {
+          cells[cell] = (byte) (p.ordinal() + 1);
+          hash ^= keys[p.ordinal() * cellCount + cell];
+          moveCount++;
+        }
+      }
+    }
+    toMove = (byte) (game.getTurn().ordinal() + 1);
+  }
+
+  /**
+   * Searches the loaded position with iterative deepening until it is solved, or until the node
+   * limit or the time limit is reached. The first iteration always completes.
+   *
+   * @param nodeLimit      the maximum number of nodes to visit
+   * @param timeLimitNanos the maximum time to search, in nanoseconds
+   * @return the best cell index found, {@code r * size + c}
+   * @throws IllegalStateException if the loaded position has no legal moves
+   */
+  int search(long nodeLimit, long timeLimitNanos) throws IllegalStateException {
+    return this.search(nodeLimit, timeLimitNanos, 1, 0, null);
+  }
+
+  /**
+   * Searches the loaded position with iterative deepening, as one of several threads searching
+   * it at once over a shared transposition table. Threads starting at different depths and
+   * trying the root moves in different orders fill the table with different parts of the tree,
+   * which the others then reuse.
+   *
+   * @param nodeLimit      the maximum number of nodes to visit
+   * @param timeLimitNanos the maximum time to search, in nanoseconds
+   * @param startDepth     the depth of the first iteration; only a first iteration at depth 1
+   *                       is sure to complete
+   * @param rootRotation   how many places to rotate the root moves after the first
+   * @param stop           a flag that stops the search when set, or null
+   * @return the best cell index found, or -1 if no iteration completed
+   * @throws IllegalStateException if the loaded position has no legal moves
+   */
+  int search(long nodeLimit, long timeLimitNanos, int startDepth, int rootRotation,
+             AtomicBoolean stop) throws IllegalStateException {
+    if (moveCount == cellCount) {
+      throw new IllegalStateException("Game is over!");
+    }
+    long now = System.nanoTime();
+    this.nodes = 0;
+    this.nodeLimit = nodeLimit;
+    this.deadline = timeLimitNanos >= Long.MAX_VALUE - now
+        ? Long.MAX_VALUE : now + timeLimitNanos;
+    this.aborted = false;
+    this.stop = stop;
+    this.rootRotation = rootRotation;
+    this.completedDepth = 0;
+    this.solved = false;
+    int best = -1;
+    int empties = cellCount - moveCount;
+    for (int depth = Math.min(startDepth, empties); depth <= empties; depth++) {
+      abortable = depth > 1;
+      rootBest = -1;
+      int score = negamax(depth, -INFINITY, INFINITY, 0);
+      if (aborted) {
+        break;
+      }
+      best = rootBest;
+      bestScore = score;
+      completedDepth = depth;
+      if (Math.abs(score) > WIN_THRESHOLD) {
+        break;
+      }
+    }
+    solved = !aborted;
+    return best;
+  }
+
+  /**
+   * Returns the score of the last completed search iteration, from the point of view of the
+   * player to move.
+   *
+   * @return the score
+   */
+  int getBestScore() {
+    return bestScore;
+  }
+
+  /**
+   * Returns the depth of the last completed search iteration.
+   *
+   * @return the depth, in plies
+   */
+  int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns whether the last search ended with the position solved, a forced result found or
+   * every move searched to the end of the game, rather than at a limit or on being stopped.
+   *
+   * @return true if the last search solved the position
+   */
+  boolean isSolved() {
+    return solved;
+  }
+
+  /**
+   * Returns the number of nodes visited by the last search.
+   *
+   * @return the node count
+   */
+  long getNodes() {
+    return nodes;
+  }
+
+  private int negamax(int depth, int alpha, int beta, int ply) {
+    nodes++;
+    if (abortable && (nodes >= nodeLimit || (nodes % TIME_CHECK_INTERVAL == 0
+        && (System.nanoTime() >= deadline || (stop != null && stop.get()))))) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+    if (moveCount == cellCount) {
+      return 0;
+    }
+
+    long key = hash ^ configKey;
+    long entry = table.probe(key);
+    int ttMove = -1;
+    if (entry != TranspositionTable.MISS) {
+      ttMove = TranspositionTable.move(entry);
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        int score = fromTable(TranspositionTable.score(entry), ply);
+        int flag = TranspositionTable.flag(entry);
+        if (flag == TranspositionTable.EXACT) {
+          return score;
+        } else if (flag == TranspositionTable.LOWER) {
+          alpha = Math.max(alpha, score);
+        } else {
+          beta = Math.min(beta, score);
+        }
+        if (alpha >= beta) {
+          return score;
+        }
+      }
+    }
+
+    int[] moves = moveBuffer(ply);
+    int count = generateMoves(moves, ttMove);
+    if (ply == 0 && rootRotation > 0 && count > 2) {
+      rotate(moves, 1, count, rootRotation % (count - 1));
+    }
+    for (int i = 0; i < count; i++) {
+      if (isWinningMove(moves[i], toMove)) {
+        if (ply == 0) {
+          rootBest = moves[i];
+        }
+        int score = WIN - ply - 1;
+        table.store(key, toTable(score, ply), 255, TranspositionTable.EXACT, moves[i]);
+        return score;
+      }
+    }
+    if (depth == 0) {
+      return evaluate();
+    }
+
+    int alphaOrig = alpha;
+    int best = -INFINITY;
+    int bestMove = moves[0];
+    for (int i = 0; i < count; i++) {
+      int m = moves[i];
+      place(m);
+      int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+      unplace(m);
+      if (aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = m;
+        if (ply == 0) {
+          rootBest = m;
+        }
+      }
+      alpha = Math.max(alpha, score);
+      if (alpha >= beta) {
+        break;
+      }
+    }
+
+    int flag;
+    if (best <= alphaOrig) {
+      flag = TranspositionTable.UPPER;
+    } else if (best >= beta) {
+      flag = TranspositionTable.LOWER;
+    } else {
+      flag = TranspositionTable.EXACT;
+    }
+    table.store(key, toTable(best, ply), depth, flag, bestMove);
+    return best;
+  }
+
+  /**
+   * Fills the buffer with candidate moves, the table move first, and returns how many there are.
+   * Small boards consider every empty cell from the center outwards; large boards only consider
+   * empty cells next to an existing mark.
+   */
+  private int generateMoves(int[] moves, int ttMove) {
+    int count = 0;
+    if (ttMove >= 0 && ttMove < cellCount && cells[ttMove] == 0) {
+      moves[count++] = ttMove;
+    }
+    boolean nearOnly = cellCount > FULL_WIDTH_CELLS && moveCount > 0;
+    for (int cell : centerOrder) {
+      if (cells[cell] == 0 && cell != ttMove && (!nearOnly || hasNeighbor(cell))) {
+        moves[count++] = cell;
+      }
+    }
+    if (count == 0) {
+      for (int cell : centerOrder) {
+        if (cells[cell] == 0) {
+          moves[count++] = cell;
+        }
+      }
+    }
+    if (moveCount == 0 && cellCount > FULL_WIDTH_CELLS) {
+      // on an empty large board, only the center is worth considering
+      count = 1;
+    }
+    return count;
+  }
+
+  // rotates moves[from..to) left by distance, by reversing both parts and then the whole
+  private static void rotate(int[] moves, int from, int to, int distance) {
+    reverse(moves, from, from + distance);
+    reverse(moves, from + distance, to);
+    reverse(moves, from, to);
+  }
+
+  private static void reverse(int[] moves, int from, int to) {
+    for (int i = from, j = to - 1; i < j; i++, j--) {
+      int t = moves[i];
+      moves[i] = moves[j];
+      moves[j] = t;
+    }
+  }
+
+  private boolean hasNeighbor(int cell) {
+    int r = cell / size;
+    int c = cell % size;
+    for (int i = Math.max(0, r - 1); i <= Math.min(size - 1, r + 1); i++) {
+      for (int j = Math.max(0, c - 1); j <= Math.min(size - 1, c + 1); j++) {
+        if (cells[i * size + j] != 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Estimates the position for the player to move by counting, over every window of winLength
+   * cells, the marks of whichever player alone occupies it.
+   */
+  private int evaluate() {
+    // cached from X's point of view, so both sides share an entry
+    long key = hash ^ configKey;
+    if (evaluations != null) {
+      long cached = evaluations.get(key);
+      if (cached != EvaluationCache.MISS) {
+        return toMove == 1 ? (int) cached : (int) -cached;
+      }
+    }
+    long score = 0;
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        for (int[] dir : DIRECTIONS) {
+          int endR = r + dir[0] * (winLength - 1);
+          int endC = c + dir[1] * (winLength - 1);
+          if (endR >= size || endC < 0 || endC >= size) {
+            continue;
+          }
+          int x = 0;
+          int o = 0;
+          for (int k = 0; k < winLength; k++) {
+            byte v = cells[(r + dir[0] * k) * size + c + dir[1] * k];
+            if (v == 1) {
+              x++;
+            } else if (v == 2) {
+              o++;
+            }
+          }
+          if (o == 0) {
+            score += windowWeights[x];
+          } else if (x == 0) {
+            score -= windowWeights[o];
+          }
+        }
+      }
+    }
+    score = Math.max(-WIN_THRESHOLD + 1, Math.min(WIN_THRESHOLD - 1, score));
+    if (evaluations != null) {
+      evaluations.put(key, (int) score);
+    }
+    return toMove == 1 ? (int) score : (int) -score;
+  }
+
+  private boolean isWinningMove(int cell, byte player) {
+    int r = cell / size;
+    int c = cell % size;
+    for (int[] dir : DIRECTIONS) {
+      int count = 1 + countFrom(r, c, dir[0], dir[1], player)
+          + countFrom(r, c, -dir[0], -dir[1], player);
+      if (count >= winLength) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int countFrom(int r, int c, int dr, int dc, byte player) {
+    int count = 0;
+    int i = r + dr;
+    int j = c + dc;
+    while (count < winLength - 1 && i >= 0 && i < size && j >= 0 && j < size
+        && cells[i * size + j] == player) {
+      count++;
+      i += dr;
+      j += dc;
+    }
+    return count;
+  }
+
+  private void place(int cell) {
+    cells[cell] = toMove;
+    hash ^= keys[(toMove - 1) * cellCount + cell];
+    moveCount++;
+    toMove = (byte) (3 - toMove);
+  }
+
+  private void unplace(int cell) {
+    toMove = (byte) (3 - toMove);
+    moveCount--;
+    hash ^= keys[(toMove - 1) * cellCount + cell];
+    cells[cell] = 0;
+  }
+
+  private int[] moveBuffer(int ply) {
+    if (moveBuffers[ply] == null) {
+      moveBuffers[ply] = new int[cellCount];
+    }
+    return moveBuffers[ply];
+  }
+
+  private int distanceToCenter(int cell) {
+    int r2 = 2 * (cell / size) - (size - 1);
+    int c2 = 2 * (cell % size) - (size - 1);
+    return r2 * r2 + c2 * c2;
+  }
+
+  // forced-win scores are stored relative to the node, not the root
+  private static int toTable(int score, int ply) {
+    if (score > WIN_THRESHOLD) {
+      return score + ply;
+    } else if (score < -WIN_THRESHOLD) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTable(int score, int ply) {
+    if (score > WIN_THRESHOLD) {
+      return score - ply;
+    } else if (score < -WIN_THRESHOLD) {
+      return score + ply;
+    }
+    return score;
+  }
+}
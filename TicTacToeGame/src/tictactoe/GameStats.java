@@ -0,0 +1,398 @@
+package tictactoe;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Outcome counts over a set of games with the same rules: results by opening move, a histogram of
+ * game lengths, and results by position class. The position class of a game is its first two
+ * moves up to board symmetry, numbered {@code first * cells + second} using the symmetric
+ * variant with the smallest number, so that games reaching equivalent positions by equivalent
+ * openings are counted together.
+ *
+ * <p>Counts are kept in flat primitive arrays, so recording a game allocates nothing once its
+ * position class has been seen. The position-class counts are split into one row per first move,
+ * allocated when a game first opens with that move, so only the openings actually played take
+ * memory. Stats are not thread-safe: each thread accumulates its own, and the results are combined
+ * with {@link #add(GameStats)}.
+ */
+public final class GameStats {
+  /** The largest board size whose position classes can be numbered with an int. */
+  public static final int MAX_SIZE = 215;
+
+  private static final int X_WINS = 0;
+  private static final int O_WINS = 1;
+  private static final int DRAWS = 2;
+  private static final int UNFINISHED = 3;
+  private static final int OUTCOMES = 4;
+
+  private final int size;
+  private final int winLength;
+  private final int cells;
+  private final int[][] transforms;
+
+  private long games;
+  private long skipped;
+  private final long[] outcomes = new long[OUTCOMES];
+  // indexed [cell * OUTCOMES + outcome]
+  private final long[] openings;
+  // indexed by number of moves
+  private final long[] lengths;
+  // indexed [first][second * 2]: games, then draws; a row is null until a game opens with it
+  private final long[][] classes;
+
+  /**
+   * Creates empty stats for games with the given rules.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @throws IllegalArgumentException if the rules are invalid or the board is larger than
+   *                                  {@link #MAX_SIZE}
+   */
+  public GameStats(int size, int winLength) throws IllegalArgumentException {
+    if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+      throw new IllegalArgumentException("Invalid board size or win length!");
+    }
+    this.size = size;
+    this.winLength = winLength;
+    this.cells = size * size;
+    this.transforms = BoardSymmetry.transforms(size);
+    this.openings = new long[cells * OUTCOMES];
+    this.lengths = new long[cells + 1];
+    this.classes = new long[cells][];
+  }
+
+  /**
+   * Counts one game.
+   *
+   * @param moves    the cell index {@code r * size + c} of each move
+   * @param len      the number of moves
+   * @param gameOver whether the game ended
+   * @param winner   the winner, or null if there is none
+   */
+  void record(int[] moves, int len, boolean gameOver, Player winner) {
+    int outcome = !gameOver ? UNFINISHED
+        : winner == Player.X ? X_WINS : winner == Player.O ? O_WINS : DRAWS;
+    games++;
+    outcomes[outcome]++;
+    lengths[len]++;
+    if (len > 0) {
+      openings[moves[0] * OUTCOMES + outcome]++;
+    }
+    if (len > 1) {
+      int positionClass = positionClass(moves[0], moves[1]);
+      long[] row = classRow(positionClass / cells);
+      int second = positionClass % cells;
+      row[second * 2]++;
+      if (outcome == DRAWS) {
+        row[second * 2 + 1]++;
+      }
+    }
+  }
+
+  /**
+   * Counts a game that was not counted because its rules differ or its record is invalid.
+   */
+  void recordSkipped() {
+    skipped++;
+  }
+
+  private long[] classRow(int first) {
+    if (classes[first] == null) {
+      classes[first] = new long[cells * 2];
+    }
+    return classes[first];
+  }
+
+  private int positionClass(int first, int second) {
+    int best = Integer.MAX_VALUE;
+    for (int[] transform : transforms) {
+      best = Math.min(best, transform[first] * cells + transform[second]);
+    }
+    return best;
+  }
+
+  /**
+   * Adds the counts of other stats to these.
+   *
+   * @param other stats for games with the same rules
+   * @throws IllegalArgumentException if the rules differ
+   */
+  public void add(GameStats other) throws IllegalArgumentException {
+    if (other.size != size || other.winLength != winLength) {
+      throw new IllegalArgumentException("Game rules do not match!");
+    }
+    games += other.games;
+    skipped += other.skipped;
+    addAll(outcomes, other.outcomes);
+    addAll(openings, other.openings);
+    addAll(lengths, other.lengths);
+    for (int first = 0; first < cells; first++) {
+      if (other.classes[first] != null) {
+        addAll(classRow(first), other.classes[first]);
+      }
+    }
+  }
+
+  private static void addAll(long[] into, long[] from) {
+    for (int i = 0; i < into.length; i++) {
+      into[i] += from[i];
+    }
+  }
+
+  /**
+   * Returns the board size of the games counted.
+   *
+   * @return the board size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the win length of the games counted.
+   *
+   * @return the win length
+   */
+  public int getWinLength() {
+    return winLength;
+  }
+
+  /**
+   * Returns the number of games counted.
+   *
+   * @return the game count
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Returns the number of games that were not counted because their rules differ or their
+   * records are invalid.
+   *
+   * @return the skipped game count
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Returns the number of games won by the given player, or drawn.
+   *
+   * @param winner the winner, or null for draws
+   * @return the game count
+   */
+  public long getResults(Player winner) {
+    return outcomes[outcome(winner)];
+  }
+
+  /**
+   * Returns the number of games that opened with the given move.
+   *
+   * @param r the row of the opening move
+   * @param c the column of the opening move
+   * @return the game count
+   */
+  public long getOpeningGames(int r, int c) {
+    int cell = r * size + c;
+    long total = 0;
+    for (int outcome = 0; outcome < OUTCOMES; outcome++) {
+      total += openings[cell * OUTCOMES + outcome];
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of games that opened with the given move and were won by the given
+   * player, or drawn.
+   *
+   * @param r      the row of the opening move
+   * @param c      the column of the opening move
+   * @param winner the winner, or null for draws
+   * @return the game count
+   */
+  public long getOpeningResults(int r, int c, Player winner) {
+    return openings[(r * size + c) * OUTCOMES + outcome(winner)];
+  }
+
+  /**
+   * Returns the opening move with the best win rate for the given player, among openings
+   * played at least once.
+   *
+   * @param player the player
+   * @return a two-element array holding the row and column of the move, or null if no game
+   *         had a move
+   */
+  public int[] getBestOpening(Player player) {
+    int best = -1;
+    double bestRate = -1;
+    for (int cell = 0; cell < cells; cell++) {
+      long played = getOpeningGames(cell / size, cell % size);
+      if (played > 0) {
+        double rate = (double) openings[cell * OUTCOMES + outcome(player)] / played;
+        if (rate > bestRate) {
+          bestRate = rate;
+          best = cell;
+        }
+      }
+    }
+    return best < 0 ? null : new int[] {best / size, best % size};
+  }
+
+  /**
+   * Returns the number of games that lasted the given number of moves.
+   *
+   * @param moves the number of moves
+   * @return the game count
+   */
+  public long getLengthCount(int moves) {
+    return moves < 0 || moves >= lengths.length ? 0 : lengths[moves];
+  }
+
+  /**
+   * Returns the position class of games opening with the given two moves.
+   *
+   * @param first  the cell index of the first move
+   * @param second the cell index of the second move
+   * @return the position class
+   */
+  public int getPositionClass(int first, int second) {
+    return positionClass(first, second);
+  }
+
+  /**
+   * Returns the number of games in the given position class.
+   *
+   * @param positionClass the position class
+   * @return the game count
+   */
+  public long getClassGames(int positionClass) {
+    long[] row = classes[positionClass / cells];
+    return row == null ? 0 : row[positionClass % cells * 2];
+  }
+
+  /**
+   * Returns the number of drawn games in the given position class.
+   *
+   * @param positionClass the position class
+   * @return the game count
+   */
+  public long getClassDraws(int positionClass) {
+    long[] row = classes[positionClass / cells];
+    return row == null ? 0 : row[positionClass % cells * 2 + 1];
+  }
+
+  private static int outcome(Player winner) {
+    return winner == Player.X ? X_WINS : winner == Player.O ? O_WINS : DRAWS;
+  }
+
+  /**
+   * Writes the counts, to be read back by {@link #read(DataInputStream)}. Only the position-class
+   * rows that have been allocated are written, each after its first move.
+   */
+  void write(DataOutputStream out) throws IOException {
+    out.writeInt(size);
+    out.writeInt(winLength);
+    out.writeLong(games);
+    out.writeLong(skipped);
+    for (long[] counts : new long[][] {outcomes, openings, lengths}) {
+      writeAll(out, counts);
+    }
+    int rows = 0;
+    for (long[] row : classes) {
+      rows += row == null ? 0 : 1;
+    }
+    out.writeInt(rows);
+    for (int first = 0; first < cells; first++) {
+      if (classes[first] != null) {
+        out.writeInt(first);
+        writeAll(out, classes[first]);
+      }
+    }
+  }
+
+  private static void writeAll(DataOutputStream out, long[] counts) throws IOException {
+    for (long count : counts) {
+      out.writeLong(count);
+    }
+  }
+
+  private static void readAll(DataInputStream in, long[] counts) throws IOException {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = in.readLong();
+    }
+  }
+
+  /**
+   * Reads counts written by {@link #write(DataOutputStream)}.
+   */
+  static GameStats read(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    int winLength = in.readInt();
+    GameStats stats;
+    try {
+      stats = new GameStats(size, winLength);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt game stats", e);
+    }
+    stats.games = in.readLong();
+    stats.skipped = in.readLong();
+    for (long[] counts : new long[][] {stats.outcomes, stats.openings, stats.lengths}) {
+      readAll(in, counts);
+    }
+    int rows = in.readInt();
+    if (rows < 0 || rows > stats.cells) {
+      throw new IOException("Corrupt game stats");
+    }
+    for (int i = 0; i < rows; i++) {
+      int first = in.readInt();
+      if (first < 0 || first >= stats.cells || stats.classes[first] != null) {
+        throw new IOException("Corrupt game stats");
+      }
+      readAll(in, stats.classRow(first));
+    }
+    return stats;
+  }
+
+  /**
+   * Returns a report of the results overall, by opening move, by game length, and for the
+   * position classes with the most games.
+   *
+   * @return a multi-line report
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%d games (%d skipped): X %d, O %d, draws %d%n", games, skipped,
+        outcomes[X_WINS], outcomes[O_WINS], outcomes[DRAWS]));
+    sb.append("Opening move: games, X win rate, O win rate, draw rate\n");
+    for (int cell = 0; cell < cells; cell++) {
+      long played = getOpeningGames(cell / size, cell % size);
+      if (played > 0) {
+        sb.append(String.format("  (%d, %d): %d, %.3f, %.3f, %.3f%n", cell / size, cell % size,
+            played, (double) openings[cell * OUTCOMES + X_WINS] / played,
+            (double) openings[cell * OUTCOMES + O_WINS] / played,
+            (double) openings[cell * OUTCOMES + DRAWS] / played));
+      }
+    }
+    sb.append("Game length: games\n");
+    for (int len = 0; len < lengths.length; len++) {
+      if (lengths[len] > 0) {
+        sb.append(String.format("  %d: %d%n", len, lengths[len]));
+      }
+    }
+    sb.append("Position class (first, second move): games, draws\n");
+    for (int first = 0; first < cells; first++) {
+      long[] row = classes[first];
+      for (int second = 0; row != null && second < cells; second++) {
+        if (row[second * 2] > 0) {
+          sb.append(String.format("  %d, %d: %d, %d%n", first, second, row[second * 2],
+              row[second * 2 + 1]));
+        }
+      }
+    }
+    return sb.toString();
+  }
+}
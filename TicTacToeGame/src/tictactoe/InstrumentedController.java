@@ -0,0 +1,41 @@
+package tictactoe;
+
+/**
+ * A controller that runs another controller and records in {@link GameMetrics} how many times it
+ * was run and how long each run took. For a controller that plays a whole game before
+ * returning, such as a console controller, that is the length of the session; for one that only
+ * sets up an event-driven view, it is the time to show the game. Usually created through
+ * {@link GameMetrics#wrap(TicTacToeController)}, which skips the wrapper when instrumentation is
+ * off.
+ */
+public class InstrumentedController implements TicTacToeController {
+  private final TicTacToeController controller;
+  private final GameMetrics metrics;
+
+  /**
+   * Creates a wrapper recording the given controller's runs into the given metrics.
+   *
+   * @param controller the controller to run
+   * @param metrics    the metrics to record into
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public InstrumentedController(TicTacToeController controller, GameMetrics metrics)
+      throws IllegalArgumentException {
+    if (controller == null || metrics == null) {
+      throw new IllegalArgumentException("Controller and metrics cannot be null!");
+    }
+    this.controller = controller;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void playGame() {
+    long start = System.nanoTime();
+    try {
+      controller.playGame();
+    } finally {
+      metrics.controllerLatency.record(System.nanoTime() - start);
+      metrics.controllerSessions.increment();
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A game that forwards every call to another game and records what happens in
+ * {@link GameMetrics}: moves applied and rejected, undos, games started and their results, the
+ * time from a game's first move to its end, and the latency of moves, {@link #isGameOver()} and
+ * {@link #getWinner()}. Other queries are forwarded untimed. Usually created through
+ * {@link GameMetrics#wrap(TicTacToe)}, which skips the wrapper when instrumentation is off.
+ *
+ * <p>A game's result and duration are recorded once, when it first ends. Undoing the last move
+ * and redoing it, or finishing the game differently, does not count it again; a game counts anew
+ * once it has been reset or undone back to its first move and started over.
+ *
+ * <p>The wrapper is as thread-safe as the game it wraps.
+ */
+public class InstrumentedTicTacToe implements TicTacToe {
+  private final TicTacToe game;
+  private final GameMetrics metrics;
+  private volatile long startNanos;
+  private final AtomicBoolean ended = new AtomicBoolean();
+
+  /**
+   * Creates a wrapper recording the given game's activity into the given metrics.
+   *
+   * @param game    the game to forward to
+   * @param metrics the metrics to record into
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public InstrumentedTicTacToe(TicTacToe game, GameMetrics metrics)
+      throws IllegalArgumentException {
+    if (game == null || metrics == null) {
+      throw new IllegalArgumentException("Game and metrics cannot be null!");
+    }
+    this.game = game;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
+    MoveStatus.check(this.tryMove(r, c));
+  }
+
+  @Override
+  public int tryMove(int r, int c) {
+    long start = System.nanoTime();
+    boolean fresh = game.getMoveCount() == 0;
+    int status = game.tryMove(r, c);
+    metrics.moveLatency.record(System.nanoTime() - start);
+    if (status == MoveStatus.OK) {
+      moved(1, fresh, start);
+    } else {
+      metrics.illegalMoves.increment();
+    }
+    return status;
+  }
+
+  @Override
+  public int applyMoves(int[] moves, int off, int len) {
+    long start = System.nanoTime();
+    boolean fresh = game.getMoveCount() == 0;
+    int result = game.applyMoves(moves, off, len);
+    metrics.moveLatency.record(System.nanoTime() - start);
+    int applied = MoveStatus.applied(result);
+    if (applied > 0) {
+      moved(applied, fresh, start);
+    }
+    if (MoveStatus.code(result) != MoveStatus.OK) {
+      metrics.illegalMoves.increment();
+    }
+    return result;
+  }
+
+  /**
+   * Counts applied moves, the start of a game, and its result if it has just ended.
+   */
+  private void moved(int count, boolean fresh, long start) {
+    metrics.moves.add(count);
+    if (fresh) {
+      metrics.gamesStarted.increment();
+      startNanos = start;
+      ended.set(false);
+    }
+    // the flag also keeps racing movers from both counting the move that ended the game
+    if (game.isGameOver() && ended.compareAndSet(false, true)) {
+      metrics.gameDuration.record(System.nanoTime() - startNanos);
+      Player winner = game.getWinner();
+      (winner == Player.X ? metrics.xWins : winner == Player.O ? metrics.oWins : metrics.draws)
+          .increment();
+    }
+  }
+
+  @Override
+  public void undo() throws IllegalStateException {
+    game.undo();
+    metrics.undos.increment();
+  }
+
+  @Override
+  public void redo() throws IllegalStateException {
+    long start = System.nanoTime();
+    game.redo();
+    metrics.moveLatency.record(System.nanoTime() - start);
+    moved(1, false, start);
+  }
+
+  @Override
+  public boolean canRedo() {
+    return game.canRedo();
+  }
+
+  @Override
+  public void reset() {
+    game.reset();
+    ended.set(false);
+  }
+
+  @Override
+  public int getMoveCount() {
+    return game.getMoveCount();
+  }
+
+  @Override
+  public int[] getMoveHistory() {
+    return game.getMoveHistory();
+  }
+
+  @Override
+  public Player getTurn() {
+    return game.getTurn();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    long start = System.nanoTime();
+    boolean over = game.isGameOver();
+    metrics.isGameOverLatency.record(System.nanoTime() - start);
+    return over;
+  }
+
+  @Override
+  public Player getWinner() {
+    long start = System.nanoTime();
+    Player winner = game.getWinner();
+    metrics.getWinnerLatency.record(System.nanoTime() - start);
+    return winner;
+  }
+
+  @Override
+  public Player[][] getBoard() {
+    return game.getBoard();
+  }
+
+  @Override
+  public Player getMarkAt(int r, int c) throws IllegalArgumentException {
+    return game.getMarkAt(r, c);
+  }
+
+  @Override
+  public int getSize() {
+    return game.getSize();
+  }
+
+  @Override
+  public int getWinLength() {
+    return game.getWinLength();
+  }
+
+  @Override
+  public long getHash() {
+    return game.getHash();
+  }
+
+  @Override
+  public long getCanonicalHash() {
+    return game.getCanonicalHash();
+  }
+
+  @Override
+  public int getCanonicalSymmetry() {
+    return game.getCanonicalSymmetry();
+  }
+
+  @Override
+  public void addListener(TicTacToeListener listener) {
+    game.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(TicTacToeListener listener) {
+    game.removeListener(listener);
+  }
+
+  @Override
+  public void removeAllListeners() {
+    game.removeAllListeners();
+  }
+
+  @Override
+  public void forEachCell(CellVisitor visitor) {
+    game.forEachCell(visitor);
+  }
+
+  @Override
+  public void appendTo(Appendable out) throws IOException {
+    game.appendTo(out);
+  }
+
+  @Override
+  public String toString() {
+    return game.toString();
+  }
+}
@@ -1,18 +1,113 @@
 package tictactoe;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+
 /**
  * Play the Tic Tac Toe game.
  */
 public class Main {
+  private static final String USAGE =
+      "Usage: Main [--console] [--computer X|O]\n       Main --server [port [loops [journalDir]]]";
+
+  /**
+   * Launches the Tic Tac Toe game. With {@code --computer X} or {@code --computer O}, the
+   * computer plays that side and the user plays the other, looking its moves up in the solved
+   * position table when one is shipped in {@code res/}; any other side prints the usage. With
+   * {@code --console}, the game is played in the terminal, typing each move's row and column,
+   * and AWT and Swing are never loaded; otherwise the window is built lazily on the event
+   * dispatch thread. With {@code --server [port]}, runs the headless multi-game
+   * {@link TicTacToeServer} instead.
+   *
+   * <p>With {@code -Dtictactoe.metrics=true}, the game and controller are instrumented, and the
+   * {@link GameMetrics} are published over JMX and printed to standard error every ten seconds.
+   * With {@code -Dtictactoe.startupTiming=true}, the time from startup to the first move is
+   * printed to standard error.
+   *
+   * @param args Command-line arguments.
+   * @throws IOException if the server cannot start
+   */
+  public static void main(String[] args) throws IOException {
+    long start = System.nanoTime();
+    if (args.length >= 1 && args[0].equals("--server")) {
+      TicTacToeServer.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+    boolean console = false;
+    Player computerPlayer = null;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--console")) {
+        console = true;
+      } else if (args[i].equals("--computer")) {
+        computerPlayer = i + 1 < args.length ? parsePlayer(args[++i]) : null;
+        if (computerPlayer == null) {
+          System.err.println(USAGE);
+          return;
+        }
+      }
+    }
+    GameMetrics metrics = GameMetrics.global();
+    if (GameMetrics.isEnabled()) {
+      metrics.register("global");
+      metrics.startDump(System.err, 10);
+    }
+    TicTacToe m = metrics.wrap(new TicTacToeModel());
+    StartupTimer.attachIfEnabled(m, start);
+    Strategy computer = computerPlayer == null ? null : computerStrategy();
+    if (!console) {
+      SwingLauncher.launch(m, computer, computerPlayer, metrics);
+      return;
+    }
+    ConsoleTicTacToeView v = new ConsoleTicTacToeView(
+        new InputStreamReader(System.in, Charset.defaultCharset()), System.out, m.getSize());
+    TicTacToeController c = computer == null
+        ? new ConsoleTicTacToeController(v, m)
+        : new ConsoleTicTacToeController(v, m, computer, computerPlayer);
+    metrics.wrap(c).playGame();
+  }
+
+  /**
+   * Parses the side the computer plays, ignoring case.
+   *
+   * @param name the name typed on the command line
+   * @return the player, or null if the name is neither X nor O
+   */
+  private static Player parsePlayer(String name) {
+    for (Player player : Player.values()) {
+      if (player.name().equalsIgnoreCase(name)) {
+        return player;
+      }
+    }
+    return null;
+  }
+
   /**
-   * Launches the Tic Tac Toe game.
+   * Returns the strategy for the computer player: the solved position table if it can be
+   * loaded, otherwise a game-tree search, which first consults the position book if one is
+   * shipped in {@code res/}.
    *
-   * @param args Command-line arguments (not used).
+   * @return the computer's strategy
    */
-  public static void main(String[] args) {
-    TicTacToe m = new TicTacToeModel();
-    TicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe");
-    TicTacToeController c = new SwingTicTacToeController(v, m);
-    c.playGame();
+  private static Strategy computerStrategy() {
+    Strategy search = new NegamaxStrategy();
+    if (Files.isReadable(PositionBook.DEFAULT_PATH)) {
+      try {
+        search = new BookStrategy(PositionBook.load(PositionBook.DEFAULT_PATH), search);
+      } catch (IOException e) {
+        System.err.println("Could not load the position book: " + e.getMessage());
+      }
+    }
+    if (Files.isReadable(SolvedPositionTable.DEFAULT_PATH)) {
+      try {
+        return new SolvedTableStrategy(SolvedPositionTable.load(SolvedPositionTable.DEFAULT_PATH),
+            search);
+      } catch (IOException e) {
+        System.err.println("Could not load the solved position table: " + e.getMessage());
+      }
+    }
+    return search;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,667 @@
+package tictactoe;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of hosted games, so that games in progress survive the JVM dying. Each
+ * game is journaled under a session id: once {@linkplain #attach(long, TicTacToe) attached}, the
+ * journal listens to the game and appends a record for every accepted move and undo, an undo
+ * of every move when the game is reset, and one record when the game is
+ * {@linkplain #detach(long) detached}. Opening the journal replays it and rebuilds the games that
+ * were still attached, available from {@link #getRecoveredGames()}.
+ *
+ * <p>The journal is a directory of numbered generations. Generation n is a snapshot file, the
+ * move histories of every live session when the generation began, and a log file of the
+ * records appended since. Records have a fixed size of 17 bytes: a type byte, the session id
+ * as a long, an int argument (the cell of a move, or the rules of a new session) and a CRC-32 of
+ * the rest, all big-endian, so replay stops cleanly at a record torn by a crash. A new
+ * generation starts every {@code snapshotEveryRecords} records, and when the journal is opened;
+ * older generations are deleted once the new snapshot is safely on disk, so replay never reads
+ * more than one snapshot and one log.
+ *
+ * <p>Appending only encodes the record into a buffer, so the game thread never waits for the
+ * disk. A background thread writes the buffered records with one {@link FileChannel} write and
+ * then forces them to disk, committing every record appended by every thread since the last
+ * commit together. It commits once {@code syncEveryRecords} records are waiting or the oldest
+ * has waited {@code syncIntervalMillis}, whichever comes first; a crash loses at most that
+ * window of moves. Callers that need a move to be durable before going on call {@link #sync()}.
+ */
+public final class MoveJournal implements Closeable {
+  /** The magic number at the start of a journal log, "TTTJ" in ASCII. */
+  public static final int LOG_MAGIC = 0x5454544A;
+  /** The magic number at the start of a journal snapshot, "TTTS" in ASCII. */
+  public static final int SNAPSHOT_MAGIC = 0x54545453;
+
+  static final int VERSION = 1;
+  static final int RECORD_BYTES = 17;
+
+  private static final byte OPEN = 'O';
+  private static final byte MOVE = 'M';
+  private static final byte UNDO = 'U';
+  private static final byte CLOSE = 'C';
+
+  private final Path dir;
+  private final int syncEveryRecords;
+  private final long syncIntervalNanos;
+  private final long snapshotEveryRecords;
+  private final Map<Long, TicTacToe> recovered;
+  private final Thread writer;
+
+  // guarded by this journal's lock: the live sessions and the records not yet committed
+  private final Map<Long, Session> sessions = new HashMap<>();
+  private final CRC32 crc = new CRC32();
+  private ByteBuffer pending = ByteBuffer.allocate(RECORD_BYTES * 1024);
+  private ByteBuffer writing = ByteBuffer.allocate(RECORD_BYTES * 1024);
+  private long pendingSince;
+  private long appended;
+  private long durable;
+  private long sinceSnapshot;
+  private long syncs;
+  private boolean syncRequested;
+  private boolean closed;
+  private IOException failure;
+
+  // changed only by the writer thread, once the constructor is done
+  private long generation;
+  private FileChannel log;
+
+  /**
+   * Opens the journal in the given directory, creating it if needed, and recovers the sessions
+   * that were live when it was last written. The recovered state is written as the snapshot of
+   * a new generation before this returns.
+   *
+   * @param dir                  the journal directory
+   * @param syncEveryRecords     the number of waiting records that triggers a commit
+   * @param syncIntervalMillis   the longest a record waits to be committed, in milliseconds
+   * @param snapshotEveryRecords the number of records after which a new generation starts
+   * @throws IOException              if the journal cannot be read or the new generation
+   *                                  written
+   * @throws IllegalArgumentException if a count or the interval is not positive
+   */
+  public MoveJournal(Path dir, int syncEveryRecords, long syncIntervalMillis,
+                     long snapshotEveryRecords) throws IOException, IllegalArgumentException {
+    if (syncEveryRecords < 1 || syncIntervalMillis < 1 || snapshotEveryRecords < 1) {
+      throw new IllegalArgumentException("Batch sizes and interval must be positive!");
+    }
+    this.dir = dir;
+    this.syncEveryRecords = syncEveryRecords;
+    this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+    this.snapshotEveryRecords = snapshotEveryRecords;
+    Files.createDirectories(dir);
+    this.generation = recover();
+    Map<Long, TicTacToe> games = new TreeMap<>();
+    for (Map.Entry<Long, Session> entry : sessions.entrySet()) {
+      games.put(entry.getKey(), entry.getValue().replay(entry.getKey()));
+    }
+    this.recovered = Collections.unmodifiableMap(games);
+    startGeneration(++generation, snapshot());
+    this.writer = new Thread(this::writeLoop, "tictactoe-journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Returns the games that were live when the journal was last written, rebuilt by replaying
+   * their moves. They are already attached under their session ids, without listeners: a host
+   * resuming them must {@linkplain #attach(long, TicTacToe) attach} each one it keeps, or
+   * {@linkplain #detach(long) detach} its id.
+   *
+   * @return an unmodifiable map from session id to game, in id order
+   */
+  public Map<Long, TicTacToe> getRecoveredGames() {
+    return recovered;
+  }
+
+  /**
+   * Starts journaling a game. A new session records the game's rules and the moves it has
+   * already made. If the id is a recovered session, the game must be the recovered one, or one
+   * with the same moves, and nothing is recorded.
+   *
+   * @param id   the session id
+   * @param game the game
+   * @throws IllegalArgumentException if the game is null or another game is attached under the
+   *                                  id
+   * @throws IllegalStateException    if the journal is closed or has failed
+   */
+  public void attach(long id, TicTacToe game) throws IllegalArgumentException,
+      IllegalStateException {
+    if (game == null) {
+      throw new IllegalArgumentException("Game cannot be null!");
+    }
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Journal is closed!");
+      }
+      Session session = sessions.get(id);
+      if (session != null && session.game != null) {
+        throw new IllegalArgumentException("Session " + id + " is already attached!");
+      }
+      if (session == null) {
+        append(OPEN, id, game.getSize() << 16 | game.getWinLength());
+        for (int cell : game.getMoveHistory()) {
+          append(MOVE, id, cell);
+        }
+        session = sessions.get(id);
+      }
+      session.game = game;
+      session.listener = new TicTacToeListener() {
+        @Override
+        public void moveMade(int r, int c, Player player) {
+          record(MOVE, id, r * game.getSize() + c);
+        }
+
+        @Override
+        public void moveUndone(int r, int c) {
+          record(UNDO, id, 0);
+        }
+
+        @Override
+        public void gameReset() {
+          recordReset(id);
+        }
+      };
+      game.addListener(session.listener);
+    }
+  }
+
+  /**
+   * Stops journaling a session, recording that it ended so it is not recovered. Does nothing if
+   * there is no such session.
+   *
+   * @param id the session id
+   * @throws IllegalStateException if the journal is closed or has failed
+   */
+  public synchronized void detach(long id) throws IllegalStateException {
+    Session session = sessions.get(id);
+    if (session == null) {
+      return;
+    }
+    if (session.game != null) {
+      session.game.removeListener(session.listener);
+    }
+    append(CLOSE, id, 0);
+  }
+
+  /**
+   * Returns the number of live sessions.
+   *
+   * @return the session count
+   */
+  public synchronized int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Returns whether writing the journal has failed. A failed journal records nothing more:
+   * {@link #attach} and {@link #detach} throw, events from attached games are dropped, and
+   * {@link #sync()} and {@link #close()} report the failure.
+   *
+   * @return true if the journal has failed
+   */
+  public synchronized boolean isFailed() {
+    return failure != null;
+  }
+
+  /**
+   * Returns whether the journal has been closed.
+   *
+   * @return true if the journal is closed
+   */
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Returns the number of records appended since the journal was opened.
+   *
+   * @return the record count
+   */
+  public synchronized long getAppended() {
+    return appended;
+  }
+
+  /**
+   * Returns the number of records forced to disk since the journal was opened.
+   *
+   * @return the durable record count
+   */
+  public synchronized long getDurable() {
+    return durable;
+  }
+
+  /**
+   * Returns the number of commits, each one write and one force of every record waiting.
+   *
+   * @return the commit count
+   */
+  public synchronized long getSyncs() {
+    return syncs;
+  }
+
+  /**
+   * Returns the current generation, which increases by one with every snapshot.
+   *
+   * @return the generation number
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Commits every record appended so far without waiting for the batch to fill, and waits until
+   * they are on disk.
+   *
+   * @throws IOException if writing the journal failed
+   */
+  public synchronized void sync() throws IOException {
+    long target = appended;
+    syncRequested = true;
+    notifyAll();
+    boolean interrupted = false;
+    while (durable < target && failure == null) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Commits every record appended so far, stops listening to the attached games and closes the
+   * journal. Sessions still attached stay live, and are recovered when the journal is next
+   * opened.
+   *
+   * @throws IOException if writing the journal failed
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      for (Session session : sessions.values()) {
+        if (session.game != null) {
+          session.game.removeListener(session.listener);
+        }
+      }
+      closed = true;
+      notifyAll();
+    }
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Appends a record for an attached game's event. Once the journal has failed, events are not
+   * recorded, rather than failing the move that raised them; {@link #sync()} and
+   * {@link #close()} report the failure.
+   */
+  private synchronized void record(byte type, long id, int arg) {
+    if (!closed && failure == null) {
+      append(type, id, arg);
+    }
+  }
+
+  /**
+   * Records a reset game as an undo of each of its moves, so it replays to an empty board.
+   */
+  private synchronized void recordReset(long id) {
+    Session session = sessions.get(id);
+    while (session != null && session.count > 0 && !closed && failure == null) {
+      append(UNDO, id, 0);
+    }
+  }
+
+  /**
+   * Encodes a record into the pending buffer and applies it to the live sessions. Wakes the
+   * writer when the buffer stops being empty, and when it holds a full batch.
+   */
+  private synchronized void append(byte type, long id, int arg)
+      throws IllegalStateException {
+    if (closed) {
+      throw new IllegalStateException("Journal is closed!");
+    } else if (failure != null) {
+      throw new IllegalStateException("Journal failed!", failure);
+    }
+    if (pending.remaining() < RECORD_BYTES) {
+      ByteBuffer bigger = ByteBuffer.allocate(pending.capacity() * 2);
+      pending.flip();
+      pending = bigger.put(pending);
+    }
+    int start = pending.position();
+    pending.put(type).putLong(id).putInt(arg);
+    crc.reset();
+    crc.update(pending.array(), start, RECORD_BYTES - 4);
+    pending.putInt((int) crc.getValue());
+    apply(type, id, arg);
+    appended++;
+    sinceSnapshot++;
+    long waiting = appended - durable;
+    if (pending.position() == RECORD_BYTES) {
+      pendingSince = System.nanoTime();
+      notifyAll();
+    } else if (waiting == syncEveryRecords || sinceSnapshot == snapshotEveryRecords) {
+      notifyAll();
+    }
+  }
+
+  private void apply(byte type, long id, int arg) {
+    if (type == OPEN) {
+      sessions.put(id, new Session(arg >>> 16, arg & 0xFFFF));
+      return;
+    }
+    Session session = sessions.get(id);
+    if (session == null) {
+      return;
+    } else if (type == MOVE) {
+      session.add(arg);
+    } else if (type == UNDO) {
+      session.count = Math.max(0, session.count - 1);
+    } else if (type == CLOSE) {
+      sessions.remove(id);
+    }
+  }
+
+  /**
+   * Commits batches until the journal is closed: waits for a batch to fill, for its oldest
+   * record to have waited the sync interval, or for a sync request, then writes and forces it.
+   */
+  private void writeLoop() {
+    try {
+      while (true) {
+        long upTo;
+        byte[] snapshot = null;
+        synchronized (this) {
+          while (true) {
+            boolean empty = pending.position() == 0;
+            if (closed && empty) {
+              log.close();
+              return;
+            }
+            long waited = System.nanoTime() - pendingSince;
+            if (!empty && (closed || syncRequested || appended - durable >= syncEveryRecords
+                || sinceSnapshot >= snapshotEveryRecords || waited >= syncIntervalNanos)) {
+              break;
+            }
+            long timeout = empty ? 0 : TimeUnit.NANOSECONDS.toMillis(syncIntervalNanos - waited);
+            wait(Math.max(timeout, empty ? 0 : 1));
+          }
+          ByteBuffer full = pending;
+          pending = writing;
+          writing = full;
+          upTo = appended;
+          syncRequested = false;
+          if (sinceSnapshot >= snapshotEveryRecords) {
+            snapshot = snapshot();
+            sinceSnapshot = 0;
+          }
+        }
+        writing.flip();
+        while (writing.hasRemaining()) {
+          log.write(writing);
+        }
+        writing.clear();
+        log.force(false);
+        if (snapshot != null) {
+          long next = generation + 1;
+          log.close();
+          startGeneration(next, snapshot);
+          synchronized (this) {
+            generation = next;
+          }
+        }
+        synchronized (this) {
+          durable = upTo;
+          syncs++;
+          notifyAll();
+        }
+      }
+    } catch (IOException e) {
+      fail(e);
+    } catch (InterruptedException e) {
+      fail(new InterruptedIOException("Journal writer was interrupted"));
+    } catch (RuntimeException | Error e) {
+      fail(new IOException("Journal writer failed", e));
+      throw e;
+    }
+  }
+
+  /**
+   * Records why the writer stopped, so that appending fails from now on and threads waiting in
+   * {@link #sync()} wake up and report it rather than waiting for commits that never come.
+   */
+  private synchronized void fail(IOException e) {
+    if (failure == null) {
+      failure = e;
+    }
+    notifyAll();
+  }
+
+  /**
+   * Writes the move histories of the live sessions, with a trailing CRC-32.
+   */
+  private byte[] snapshot() {
+    int bytes = 16;
+    for (Session session : sessions.values()) {
+      bytes += 16 + 4 * session.count;
+    }
+    ByteBuffer out = ByteBuffer.allocate(bytes);
+    out.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putInt(sessions.size());
+    for (Map.Entry<Long, Session> entry : sessions.entrySet()) {
+      Session session = entry.getValue();
+      out.putLong(entry.getKey()).putShort((short) session.size)
+          .putShort((short) session.winLength).putInt(session.count);
+      for (int i = 0; i < session.count; i++) {
+        out.putInt(session.moves[i]);
+      }
+    }
+    CRC32 check = new CRC32();
+    check.update(out.array(), 0, out.position());
+    out.putInt((int) check.getValue());
+    return out.array();
+  }
+
+  /**
+   * Installs the snapshot of a new generation, opens its empty log, and deletes the files of
+   * older generations. The snapshot is written to a temporary file, forced and renamed into
+   * place, so a crash leaves either the old generations or the new snapshot.
+   */
+  private void startGeneration(long next, byte[] snapshot) throws IOException {
+    Path temp = dir.resolve("snapshot.tmp");
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+      while (buffer.hasRemaining()) {
+        out.write(buffer);
+      }
+      out.force(true);
+    }
+    Files.move(temp, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE);
+    try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+      directory.force(true);
+    } catch (IOException e) {
+      // not every platform can force a directory; the rename is still atomic
+    }
+    log = FileChannel.open(logFile(next), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    ByteBuffer header = ByteBuffer.allocate(8).putInt(LOG_MAGIC).putInt(VERSION);
+    header.flip();
+    while (header.hasRemaining()) {
+      log.write(header);
+    }
+    log.force(true);
+    for (long old : generations()) {
+      if (old < next) {
+        Files.deleteIfExists(snapshotFile(old));
+        Files.deleteIfExists(logFile(old));
+      }
+    }
+  }
+
+  /**
+   * Loads the newest complete snapshot into the live sessions and replays the logs from its
+   * generation on.
+   *
+   * @return the newest generation found, or 0 if the journal is empty
+   */
+  private long recover() throws IOException {
+    TreeSet<Long> found = generations();
+    long start = 0;
+    for (long g : found.descendingSet()) {
+      if (Files.exists(snapshotFile(g)) && readSnapshot(snapshotFile(g))) {
+        start = g;
+        break;
+      }
+    }
+    for (long g : found) {
+      if (g >= start && Files.exists(logFile(g))) {
+        replay(logFile(g));
+      }
+    }
+    return found.isEmpty() ? 0 : found.last();
+  }
+
+  private boolean readSnapshot(Path file) throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    if (bytes.length < 16) {
+      return false;
+    }
+    CRC32 check = new CRC32();
+    check.update(bytes, 0, bytes.length - 4);
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    if (in.getInt(bytes.length - 4) != (int) check.getValue() || in.getInt() != SNAPSHOT_MAGIC
+        || in.getInt() != VERSION) {
+      return false;
+    }
+    sessions.clear();
+    for (int n = in.getInt(); n > 0; n--) {
+      long id = in.getLong();
+      Session session = new Session(in.getShort(), in.getShort());
+      for (int count = in.getInt(); count > 0; count--) {
+        session.add(in.getInt());
+      }
+      sessions.put(id, session);
+    }
+    return true;
+  }
+
+  /**
+   * Applies the records of a log to the live sessions, stopping at the first record that is
+   * incomplete or fails its check, which a crash during a write can leave at the end.
+   */
+  private void replay(Path file) throws IOException {
+    try (InputStream stream = Files.newInputStream(file)) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+      if (in.readInt() != LOG_MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a journal log: " + file);
+      }
+      byte[] record = new byte[RECORD_BYTES];
+      CRC32 check = new CRC32();
+      while (true) {
+        in.readFully(record);
+        check.reset();
+        check.update(record, 0, RECORD_BYTES - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        if (buffer.getInt(RECORD_BYTES - 4) != (int) check.getValue()) {
+          return;
+        }
+        apply(buffer.get(), buffer.getLong(), buffer.getInt());
+      }
+    } catch (EOFException e) {
+      // the end of the log, possibly in the middle of a torn record
+    }
+  }
+
+  private TreeSet<Long> generations() throws IOException {
+    TreeSet<Long> found = new TreeSet<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "{journal,snapshot}-*")) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          found.add(Long.parseLong(name.substring(name.indexOf('-') + 1, name.indexOf('.'))));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+          // not a generation file
+        }
+      }
+    }
+    return found;
+  }
+
+  private Path logFile(long generation) {
+    return dir.resolve(String.format("journal-%010d.log", generation));
+  }
+
+  private Path snapshotFile(long generation) {
+    return dir.resolve(String.format("snapshot-%010d.bin", generation));
+  }
+
+  /**
+   * A live session: its rules, its move history, and the game it is attached to, if any.
+   */
+  private static final class Session {
+    private final int size;
+    private final int winLength;
+    private int[] moves = new int[16];
+    private int count;
+    private TicTacToe game;
+    private TicTacToeListener listener;
+
+    Session(int size, int winLength) {
+      this.size = size;
+      this.winLength = winLength;
+    }
+
+    void add(int cell) {
+      if (count == moves.length) {
+        moves = Arrays.copyOf(moves, count * 2);
+      }
+      moves[count++] = cell;
+    }
+
+    TicTacToe replay(long id) throws IOException {
+      try {
+        TicTacToe game = new TicTacToeModel(size, winLength);
+        for (int i = 0; i < count; i++) {
+          game.move(moves[i] / size, moves[i] % size);
+        }
+        return game;
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        throw new IOException("Journal of session " + id + " does not replay!", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package tictactoe;
+
+/**
+ * The status codes returned by {@link TicTacToe#tryMove(int, int)} and
+ * {@link TicTacToe#applyMoves(int[], int, int)}, which report an illegal move without the cost
+ * of throwing an exception.
+ *
+ * <p>{@code applyMoves} packs its result into one int: the number of moves applied, shifted left
+ * by three, ORed with the code of the move that stopped the batch, or {@link #OK} if every move
+ * was applied. Use {@link #applied(int)} and {@link #code(int)} to take a result apart.
+ */
+public final class MoveStatus {
+  /** The move was made. */
+  public static final int OK = 0;
+  /** The position is not on the board. */
+  public static final int OUT_OF_BOUNDS = 1;
+  /** The position is already marked. */
+  public static final int OCCUPIED = 2;
+  /** The game is already over. */
+  public static final int GAME_OVER = 3;
+  /** The move was made for a player whose turn it is not. */
+  public static final int WRONG_TURN = 4;
+
+  private static final int CODE_BITS = 3;
+  private static final String[] MESSAGES = {
+      "OK", "Position is out of bounds!", "Position occupied", "Game is over!",
+      "It is not that player's turn!"
+  };
+
+  private MoveStatus() {
+  }
+
+  /**
+   * Packs the result of a batch of moves.
+   *
+   * @param applied the number of moves applied
+   * @param code    the status of the move that stopped the batch, or {@link #OK}
+   * @return the packed result
+   */
+  static int of(int applied, int code) {
+    return applied << CODE_BITS | code;
+  }
+
+  /**
+   * Returns the status code of a packed batch result: {@link #OK} if every move was applied,
+   * otherwise why the first move not applied was illegal.
+   *
+   * @param result a result returned by {@link TicTacToe#applyMoves(int[], int, int)}
+   * @return the status code
+   */
+  public static int code(int result) {
+    return result & ((1 << CODE_BITS) - 1);
+  }
+
+  /**
+   * Returns the number of moves applied by a batch, which is also the index, relative to the
+   * start of the batch, of the illegal move that stopped it, if any.
+   *
+   * @param result a result returned by {@link TicTacToe#applyMoves(int[], int, int)}
+   * @return the number of moves applied
+   */
+  public static int applied(int result) {
+    return result >>> CODE_BITS;
+  }
+
+  /**
+   * Returns a description of a status code, matching the message of the exception that
+   * {@link TicTacToe#move(int, int)} throws for it.
+   *
+   * @param code the status code
+   * @return the description
+   * @throws IllegalArgumentException if the code is not a status code
+   */
+  public static String message(int code) throws IllegalArgumentException {
+    if (code < 0 || code >= MESSAGES.length) {
+      throw new IllegalArgumentException("Unknown move status " + code);
+    }
+    return MESSAGES[code];
+  }
+
+  /**
+   * Throws the exception that {@link TicTacToe#move(int, int)} throws for the given status, if
+   * it is not {@link #OK}.
+   *
+   * @param code the status code
+   * @throws IllegalArgumentException if the position is out of bounds or occupied
+   * @throws IllegalStateException    if the game is over or it is the wrong player's turn
+   */
+  static void check(int code) throws IllegalArgumentException, IllegalStateException {
+    if (code == OUT_OF_BOUNDS || code == OCCUPIED) {
+      throw new IllegalArgumentException(MESSAGES[code]);
+    } else if (code != OK) {
+      throw new IllegalStateException(message(code));
+    }
+  }
+}
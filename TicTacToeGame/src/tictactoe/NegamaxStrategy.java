@@ -0,0 +1,98 @@
+package tictactoe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A computer player that searches the game tree with negamax and alpha-beta pruning, caching
+ * positions in a Zobrist-hashed transposition table that is kept between moves. On the
+ * three-by-three board it searches to the end of the game and plays perfectly; on larger boards
+ * it deepens iteratively and plays the best move of the deepest search that fits in its node and
+ * time budget, sharing its heuristic evaluations with other players through an
+ * {@link EvaluationCache}. Instances are not thread-safe.
+ */
+public class NegamaxStrategy implements Strategy {
+  private static final int TABLE_BITS = 18;
+
+  private final long maxNodes;
+  private final long timeLimitMillis;
+  private final TranspositionTable table;
+  private final EvaluationCache evaluations;
+  // resolved on first use, so players of small boards never allocate the shared cache
+  private boolean sharedEvaluations;
+  private GameSearcher searcher;
+
+  /**
+   * Creates a strategy that searches each move for at most one second.
+   */
+  public NegamaxStrategy() {
+    this(Long.MAX_VALUE, 1000);
+  }
+
+  /**
+   * Creates a strategy with the given search budget per move, using the JVM's
+   * {@linkplain EvaluationCache#shared() shared evaluation cache}. The search stops when either
+   * limit is reached.
+   *
+   * @param maxNodes        the maximum number of positions to visit per move
+   * @param timeLimitMillis the maximum time to search per move, in milliseconds
+   * @throws IllegalArgumentException if either limit is not positive
+   */
+  public NegamaxStrategy(long maxNodes, long timeLimitMillis) throws IllegalArgumentException {
+    this(maxNodes, timeLimitMillis, null);
+    this.sharedEvaluations = true;
+  }
+
+  /**
+   * Creates a strategy with the given search budget per move and evaluation cache. The search
+   * stops when either limit is reached.
+   *
+   * @param maxNodes        the maximum number of positions to visit per move
+   * @param timeLimitMillis the maximum time to search per move, in milliseconds
+   * @param evaluations     the cache of position evaluations, or null to cache none
+   * @throws IllegalArgumentException if either limit is not positive
+   */
+  public NegamaxStrategy(long maxNodes, long timeLimitMillis, EvaluationCache evaluations)
+      throws IllegalArgumentException {
+    if (maxNodes <= 0 || timeLimitMillis <= 0) {
+      throw new IllegalArgumentException("Search limits must be positive!");
+    }
+    this.maxNodes = maxNodes;
+    this.timeLimitMillis = timeLimitMillis;
+    this.table = new TranspositionTable(TABLE_BITS);
+    this.evaluations = evaluations;
+  }
+
+  @Override
+  public int[] chooseMove(TicTacToe game) throws IllegalStateException {
+    if (game.isGameOver()) {
+      throw new IllegalStateException("Game is over!");
+    }
+    if (searcher == null || searcher.getSize() != game.getSize()
+        || searcher.getWinLength() != game.getWinLength()) {
+      boolean large = game.getSize() * game.getSize() > GameSearcher.FULL_WIDTH_CELLS;
+      EvaluationCache cache = sharedEvaluations && large ? EvaluationCache.shared() : evaluations;
+      searcher = new GameSearcher(game.getSize(), game.getWinLength(), table, cache);
+    }
+    searcher.load(game);
+    int cell = searcher.search(maxNodes, TimeUnit.MILLISECONDS.toNanos(timeLimitMillis));
+    return new int[] {cell / game.getSize(), cell % game.getSize()};
+  }
+
+  /**
+   * Returns the number of positions visited while choosing the last move.
+   *
+   * @return the node count, or 0 if no move has been chosen
+   */
+  public long getLastNodeCount() {
+    return searcher == null ? 0 : searcher.getNodes();
+  }
+
+  /**
+   * Returns the depth of the deepest search completed while choosing the last move.
+   *
+   * @return the depth in plies, or 0 if no move has been chosen
+   */
+  public int getLastDepth() {
+    return searcher == null ? 0 : searcher.getCompletedDepth();
+  }
+}
@@ -0,0 +1,187 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A computer player that searches the game tree on several threads at once, for large boards
+ * where a single thread cannot search deep enough in the time available. It uses lazy SMP: every
+ * thread of a {@link ForkJoinPool} runs its own iterative-deepening negamax search of the same
+ * position, all sharing one lock-free {@link TranspositionTable} and the JVM's
+ * {@link EvaluationCache}. Half the helper threads start a ply deeper than the main one, and each
+ * tries the root moves in a different order, so they explore different subtrees and leave results
+ * in the table that the others pick up instead of searching again.
+ *
+ * <p>The search of each move ends at a wall-clock deadline, or when any thread solves the
+ * position, and the move of the deepest completed iteration is played. A thread that spends its
+ * share of the node budget stops on its own, leaving the others to spend theirs. Instances are not
+ * thread-safe; call {@link #shutdown()} to stop the pool when the player is no longer needed.
+ */
+public class ParallelNegamaxStrategy implements Strategy {
+  private static final int TABLE_BITS = 22;
+
+  private final int parallelism;
+  private final long maxNodes;
+  private final long timeLimitMillis;
+  private final ForkJoinPool pool;
+  private final TranspositionTable table;
+  private GameSearcher[] searchers;
+  private long lastNodes;
+  private int lastDepth;
+
+  /**
+   * Creates a strategy that searches each move on all available cores for at most the given
+   * time.
+   *
+   * @param timeLimitMillis the maximum time to search per move, in milliseconds
+   * @throws IllegalArgumentException if the time limit is not positive
+   */
+  public ParallelNegamaxStrategy(long timeLimitMillis) throws IllegalArgumentException {
+    this(Runtime.getRuntime().availableProcessors(), Long.MAX_VALUE, timeLimitMillis);
+  }
+
+  /**
+   * Creates a strategy with the given number of threads and search budget per move. The search
+   * stops when either limit is reached.
+   *
+   * @param parallelism     the number of threads to search with
+   * @param maxNodes        the maximum number of positions to visit per move, over all threads
+   * @param timeLimitMillis the maximum time to search per move, in milliseconds
+   * @throws IllegalArgumentException if any argument is not positive
+   */
+  public ParallelNegamaxStrategy(int parallelism, long maxNodes, long timeLimitMillis)
+      throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive!");
+    } else if (maxNodes <= 0 || timeLimitMillis <= 0) {
+      throw new IllegalArgumentException("Search limits must be positive!");
+    }
+    this.parallelism = parallelism;
+    this.maxNodes = maxNodes;
+    this.timeLimitMillis = timeLimitMillis;
+    this.pool = new ForkJoinPool(parallelism);
+    this.table = new TranspositionTable(TABLE_BITS);
+  }
+
+  @Override
+  public int[] chooseMove(TicTacToe game) throws IllegalStateException {
+    if (game.isGameOver()) {
+      throw new IllegalStateException("Game is over!");
+    }
+    int size = game.getSize();
+    if (searchers == null || searchers[0].getSize() != size
+        || searchers[0].getWinLength() != game.getWinLength()) {
+      EvaluationCache cache = size * size > GameSearcher.FULL_WIDTH_CELLS
+          ? EvaluationCache.shared() : null;
+      searchers = new GameSearcher[parallelism];
+      for (int i = 0; i < parallelism; i++) {
+        searchers[i] = new GameSearcher(size, game.getWinLength(), table, cache);
+      }
+    }
+
+    long nodesPerThread = Math.max(1, maxNodes / parallelism);
+    long timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+    AtomicBoolean stop = new AtomicBoolean();
+    List<Callable<Integer>> tasks = new ArrayList<>(parallelism);
+    for (int i = 0; i < parallelism; i++) {
+      GameSearcher searcher = searchers[i];
+      searcher.load(game);
+      int startDepth = 1 + (i & 1);
+      int rootRotation = i;
+      tasks.add(() -> {
+        int cell = searcher.search(nodesPerThread, timeLimitNanos, startDepth, rootRotation,
+            stop);
+        if (searcher.isSolved()) {
+          // a proven result cannot be improved on, so the other threads need not go on
+          stop.set(true);
+        }
+        return cell;
+      });
+    }
+    int[] cells = new int[parallelism];
+    List<Future<Integer>> results = pool.invokeAll(tasks);
+    for (int i = 0; i < parallelism; i++) {
+      try {
+        cells[i] = results.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while searching", e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+
+    // the main thread always completes depth 1, so some thread has a move
+    int best = 0;
+    lastNodes = 0;
+    for (int i = 0; i < parallelism; i++) {
+      lastNodes += searchers[i].getNodes();
+      if (cells[i] >= 0
+          && searchers[i].getCompletedDepth() > searchers[best].getCompletedDepth()) {
+        best = i;
+      }
+    }
+    lastDepth = searchers[best].getCompletedDepth();
+    return new int[] {cells[best] / size, cells[best] % size};
+  }
+
+  /**
+   * Returns the number of positions visited by all threads while choosing the last move.
+   *
+   * @return the node count, or 0 if no move has been chosen
+   */
+  public long getLastNodeCount() {
+    return lastNodes;
+  }
+
+  /**
+   * Returns the depth of the deepest search completed while choosing the last move.
+   *
+   * @return the depth in plies, or 0 if no move has been chosen
+   */
+  public int getLastDepth() {
+    return lastDepth;
+  }
+
+  /**
+   * Stops the search threads. The strategy cannot be used afterwards.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Searches an opening position on a 15-by-15, five-in-a-row board with one thread and then
+   * with every available core, and prints the search speed and depth reached by each.
+   *
+   * @param args Command-line arguments: the time per move in milliseconds (default 2000).
+   */
+  public static void main(String[] args) {
+    long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads : cores > 1 ? new int[] {1, cores} : new int[] {1}) {
+      ParallelNegamaxStrategy strategy =
+          new ParallelNegamaxStrategy(threads, Long.MAX_VALUE, millis);
+      try {
+        TicTacToe game = new TicTacToeModel(15, 5);
+        game.move(7, 7);
+        game.move(7, 8);
+        game.move(8, 8);
+        long start = System.nanoTime();
+        int[] move = strategy.chooseMove(game);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d threads: move (%d, %d), depth %d, %.0f nodes/s, %.0f ms%n",
+            threads, move[0], move[1], strategy.getLastDepth(),
+            strategy.getLastNodeCount() / seconds, seconds * 1000);
+      } finally {
+        strategy.shutdown();
+      }
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Precomputed moves for games of any size: an opening book of the positions of the first few
+ * moves, and an endgame tablebase of positions with few empty cells left, both written offline by
+ * {@link PositionBookGenerator}. The book is a sorted binary file that is memory-mapped when
+ * loaded, so a query costs one binary search, and positions the book does not hold are left to a
+ * search.
+ *
+ * <p>Positions are keyed by their {@linkplain TicTacToe#getCanonicalHash() canonical hash}
+ * XORed with a key for the board size and win length, so one file can hold books for several
+ * rules, and each entry answers all eight symmetric variants of its position. The file holds a
+ * header ({@link #MAGIC}, the format version and the record count) followed by one twelve-byte
+ * record per position, sorted by key as a signed long: the key, then an int packing the value
+ * (see {@link #getValue}) in bits 16 to 23 and the best move, in the canonical frame, in the low
+ * sixteen bits.
+ */
+public final class PositionBook {
+  /** The magic number at the start of a book file, "TTTB" in ASCII. */
+  public static final int MAGIC = 0x54545442;
+  /** The default location of the book, next to the game jar. */
+  public static final Path DEFAULT_PATH = Paths.get("res", "book.bin");
+
+  /** The value of a position the player to move will lose. */
+  public static final int LOSS = -1;
+  /** The value of a position that will be drawn. */
+  public static final int DRAW = 0;
+  /** The value of a position the player to move will win. */
+  public static final int WIN = 1;
+  /** The value of a position whose move comes from a limited search rather than a solution. */
+  public static final int UNKNOWN = 2;
+
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 12;
+  static final int RECORD_BYTES = 12;
+  /** The most cells a board in the book can have, as moves are stored in sixteen bits. */
+  static final int MAX_CELLS = 1 << 16;
+
+  private final ByteBuffer records;
+  private final int count;
+
+  private PositionBook(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a position book");
+    } else if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported book version " + buffer.getInt(4));
+    }
+    this.count = buffer.getInt(8);
+    if (count < 0 || buffer.remaining() < HEADER_BYTES + (long) count * RECORD_BYTES) {
+      throw new IOException("Truncated position book");
+    }
+    this.records = buffer.position(HEADER_BYTES).slice();
+  }
+
+  /**
+   * Loads a book by memory-mapping the given file.
+   *
+   * @param file the book file
+   * @return the loaded book
+   * @throws IOException if the file cannot be read, is not a valid book, or is too large to map
+   */
+  public static PositionBook load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Position book is too large to map");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new PositionBook(buffer);
+    }
+  }
+
+  /**
+   * Returns the number of positions in the book, over all the rules it covers.
+   *
+   * @return the position count
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the book move for the player to move in the given game.
+   *
+   * @param game the game in progress
+   * @return a two-element array holding the row and column of the move, or null if the book
+   *         does not hold the position or the game is over
+   */
+  public int[] getMove(TicTacToe game) {
+    if (game.isGameOver()) {
+      return null;
+    }
+    int index = find(key(game));
+    if (index < 0) {
+      return null;
+    }
+    int size = game.getSize();
+    int canonicalMove = records.getInt(index * RECORD_BYTES + 8) & 0xFFFF;
+    int symmetry = BoardSymmetry.inverse(game.getCanonicalSymmetry());
+    int cell = BoardSymmetry.transforms(size)[symmetry][canonicalMove];
+    if (game.getMarkAt(cell / size, cell % size) != null) {
+      // two positions sharing a 64-bit key is vanishingly rare, but must not yield a bad move
+      return null;
+    }
+    return new int[] {cell / size, cell % size};
+  }
+
+  /**
+   * Returns the game-theoretic value of the given game for the player to move, if the book knows
+   * it. Endgame positions are solved exactly; opening positions usually are not.
+   *
+   * @param game the game
+   * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}, or {@link #UNKNOWN} if the book does
+   *         not hold the position or does not know its value
+   */
+  public int getValue(TicTacToe game) {
+    int index = find(key(game));
+    return index < 0 ? UNKNOWN : (records.getInt(index * RECORD_BYTES + 8) >>> 16 & 0xFF) - 1;
+  }
+
+  private int find(long key) {
+    int lo = 0;
+    int hi = count - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      long midKey = records.getLong(mid * RECORD_BYTES);
+      if (midKey < key) {
+        lo = mid + 1;
+      } else if (midKey > key) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the book key of the given game's position.
+   */
+  static long key(TicTacToe game) {
+    return game.getCanonicalHash() ^ Zobrist.configKey(game.getSize(), game.getWinLength());
+  }
+
+  /**
+   * Packs a position's value and its best move in the canonical frame into a record's int.
+   */
+  static int pack(int value, int canonicalMove) {
+    return (value + 1) << 16 | canonicalMove;
+  }
+}
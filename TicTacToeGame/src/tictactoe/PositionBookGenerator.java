@@ -0,0 +1,282 @@
+package tictactoe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link PositionBook} files offline. For each configured board size and win length, the
+ * generator adds two kinds of positions:
+ *
+ * <ul>
+ *   <li>an opening book: every position of the first few moves, up to symmetry, in which each
+ *   move is a reply next to an existing mark (any cell, for the first move), each with the move
+ *   found by a long search;</li>
+ *   <li>an endgame tablebase: positions are sampled by playing random games until only a few
+ *   empty cells are left, and every position reachable from each sample is solved exactly, so
+ *   once a game enters a sampled region, every later position is in the book.</li>
+ * </ul>
+ *
+ * <p>On large boards random games are usually won long before the board fills up, so the
+ * tablebase mostly helps rules that are often drawn.
+ */
+public class PositionBookGenerator {
+  private static final int TABLE_BITS = 20;
+
+  private final int openingPlies;
+  private final long searchMillis;
+  private final int endgameEmpties;
+  private final int endgameGames;
+  private final SplittableRandom random;
+  private final Map<Long, Integer> entries = new TreeMap<>();
+
+  /**
+   * Creates a generator with the given depths and budgets.
+   *
+   * @param openingPlies   the number of moves the opening book covers; 0 for no book
+   * @param searchMillis   the time to search each opening position, in milliseconds
+   * @param endgameEmpties the number of empty cells at which endgames are solved; 0 for no
+   *                       tablebase
+   * @param endgameGames   the number of random games to sample endgames from
+   * @param seed           the seed of the random games, so a book can be regenerated exactly
+   * @throws IllegalArgumentException if a count is negative or the search time is not positive
+   */
+  public PositionBookGenerator(int openingPlies, long searchMillis, int endgameEmpties,
+                               int endgameGames, long seed) throws IllegalArgumentException {
+    if (openingPlies < 0 || endgameEmpties < 0 || endgameGames < 0) {
+      throw new IllegalArgumentException("Depths and counts cannot be negative!");
+    } else if (searchMillis < 1) {
+      throw new IllegalArgumentException("Search time must be positive!");
+    }
+    this.openingPlies = openingPlies;
+    this.searchMillis = searchMillis;
+    this.endgameEmpties = endgameEmpties;
+    this.endgameGames = endgameGames;
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Adds the endgame tablebase and opening book for games with the given rules. Endgames are
+   * added first, so where the two meet, the book keeps the exact solution.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @throws IllegalArgumentException if the rules are invalid, or the board has more than 65536
+   *                                  cells, too many for a book move
+   */
+  public void add(int size, int winLength) throws IllegalArgumentException {
+    if ((long) size * size > PositionBook.MAX_CELLS) {
+      throw new IllegalArgumentException("Board is too large for a position book!");
+    }
+    long configKey = Zobrist.configKey(size, winLength);
+    int cells = size * size;
+    if (endgameEmpties > 0) {
+      Map<Long, Integer> scores = new HashMap<>();
+      Map<Long, Integer> solved = new HashMap<>();
+      for (int i = 0; i < endgameGames; i++) {
+        TicTacToe game = new TicTacToeModel(size, winLength);
+        while (!game.isGameOver() && cells - game.getMoveCount() > endgameEmpties) {
+          int cell = randomEmptyCell(game);
+          game.move(cell / size, cell % size);
+        }
+        if (!game.isGameOver()) {
+          solve(game, scores, solved);
+        }
+      }
+      for (Map.Entry<Long, Integer> entry : solved.entrySet()) {
+        entries.put(entry.getKey() ^ configKey, entry.getValue());
+      }
+    }
+    if (openingPlies > 0) {
+      TicTacToe game = new TicTacToeModel(size, winLength);
+      GameSearcher searcher = new GameSearcher(size, winLength,
+          new TranspositionTable(TABLE_BITS));
+      expand(game, searcher, configKey, new HashSet<>());
+    }
+  }
+
+  /**
+   * Returns the number of positions added so far.
+   *
+   * @return the position count
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Writes the positions added so far as a book.
+   *
+   * @param out the stream to write the book to
+   * @throws IOException if writing fails
+   */
+  public void write(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(PositionBook.MAGIC);
+    data.writeInt(PositionBook.VERSION);
+    data.writeInt(entries.size());
+    for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+      data.writeLong(entry.getKey());
+      data.writeInt(entry.getValue());
+    }
+    data.flush();
+  }
+
+  /**
+   * Adds the given opening position and the positions after it, up to the opening depth.
+   */
+  private void expand(TicTacToe game, GameSearcher searcher, long configKey, Set<Long> seen) {
+    int moves = game.getMoveCount();
+    if (moves >= openingPlies || game.isGameOver() || !seen.add(game.getCanonicalHash())) {
+      return;
+    }
+    long key = game.getCanonicalHash() ^ configKey;
+    if (!entries.containsKey(key)) {
+      searcher.load(game);
+      int best = searcher.search(Long.MAX_VALUE, TimeUnit.MILLISECONDS.toNanos(searchMillis));
+      entries.put(key, PositionBook.pack(PositionBook.UNKNOWN, canonicalMove(game, best)));
+    }
+    int size = game.getSize();
+    for (int cell = 0; cell < size * size; cell++) {
+      boolean candidate = moves == 0 || nearMark(game, cell);
+      if (candidate && game.getMarkAt(cell / size, cell % size) == null) {
+        game.move(cell / size, cell % size);
+        expand(game, searcher, configKey, seen);
+        game.undo();
+      }
+    }
+  }
+
+  /**
+   * Solves the given position exactly, recording it and every position after it that is not
+   * over. A position's score only depends on the position, since its move count is fixed, so
+   * scores are memoized by canonical hash.
+   *
+   * @return the score for the player to move: positive for a win, larger when it comes sooner;
+   *         negative for a loss; zero for a draw
+   */
+  private static int solve(TicTacToe game, Map<Long, Integer> scores,
+                           Map<Long, Integer> solved) {
+    int cells = game.getSize() * game.getSize();
+    if (game.isGameOver()) {
+      // a player who has just lost cannot move; a full board without a winner is a draw
+      return game.getWinner() == null ? 0 : -(cells + 1 - game.getMoveCount());
+    }
+    Integer known = scores.get(game.getCanonicalHash());
+    if (known != null) {
+      return known;
+    }
+    int size = game.getSize();
+    int score = Integer.MIN_VALUE;
+    int bestMove = -1;
+    for (int cell = 0; cell < cells; cell++) {
+      if (game.getMarkAt(cell / size, cell % size) != null) {
+        continue;
+      }
+      game.move(cell / size, cell % size);
+      int childScore = -solve(game, scores, solved);
+      game.undo();
+      if (childScore > score) {
+        score = childScore;
+        bestMove = cell;
+      }
+    }
+    scores.put(game.getCanonicalHash(), score);
+    solved.put(game.getCanonicalHash(),
+        PositionBook.pack(Integer.signum(score), canonicalMove(game, bestMove)));
+    return score;
+  }
+
+  private static int canonicalMove(TicTacToe game, int cell) {
+    return BoardSymmetry.transforms(game.getSize())[game.getCanonicalSymmetry()][cell];
+  }
+
+  private int randomEmptyCell(TicTacToe game) {
+    int size = game.getSize();
+    int cell;
+    do {
+      cell = random.nextInt(size * size);
+    } while (game.getMarkAt(cell / size, cell % size) != null);
+    return cell;
+  }
+
+  private static boolean nearMark(TicTacToe game, int cell) {
+    int size = game.getSize();
+    if (size * size <= GameSearcher.FULL_WIDTH_CELLS) {
+      return true;
+    }
+    int r = cell / size;
+    int c = cell % size;
+    for (int i = Math.max(0, r - 1); i <= Math.min(size - 1, r + 1); i++) {
+      for (int j = Math.max(0, c - 1); j <= Math.min(size - 1, c + 1); j++) {
+        if (game.getMarkAt(i, j) != null) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Generates a book for the given rules and writes it to {@link PositionBook#DEFAULT_PATH} or
+   * the given file.
+   *
+   * @param args Command-line arguments: {@code [--out file] [--plies n] [--millis n]
+   *             [--empties n] [--games n] size:winLength...}; by default, four opening moves
+   *             searched for a second each, and endgames of eight empty cells sampled from a
+   *             thousand games.
+   * @throws IOException if the book cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Path file = PositionBook.DEFAULT_PATH;
+    int plies = 4;
+    long millis = 1000;
+    int empties = 8;
+    int games = 1000;
+    List<int[]> rules = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      boolean hasValue = i + 1 < args.length;
+      if (arg.equals("--out") && hasValue) {
+        file = Paths.get(args[++i]);
+      } else if (arg.equals("--plies") && hasValue) {
+        plies = Integer.parseInt(args[++i]);
+      } else if (arg.equals("--millis") && hasValue) {
+        millis = Long.parseLong(args[++i]);
+      } else if (arg.equals("--empties") && hasValue) {
+        empties = Integer.parseInt(args[++i]);
+      } else if (arg.equals("--games") && hasValue) {
+        games = Integer.parseInt(args[++i]);
+      } else {
+        String[] parts = arg.split(":");
+        rules.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+      }
+    }
+    PositionBookGenerator generator = new PositionBookGenerator(plies, millis, empties, games,
+        0);
+    for (int[] rule : rules) {
+      long start = System.nanoTime();
+      int before = generator.size();
+      generator.add(rule[0], rule[1]);
+      System.out.printf("%dx%d, %d in a row: %d positions in %.1f s%n", rule[0], rule[0],
+          rule[1], generator.size() - before, (System.nanoTime() - start) / 1e9);
+    }
+    try (OutputStream out = Files.newOutputStream(file)) {
+      generator.write(out);
+    }
+    System.out.println("Wrote " + generator.size() + " positions to " + file);
+  }
+}
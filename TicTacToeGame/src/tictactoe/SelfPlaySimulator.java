@@ -0,0 +1,192 @@
+package tictactoe;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * A headless engine that plays large batches of games against itself across all cores. The
+ * batch is split recursively over a {@link ForkJoinPool}; each worker thread keeps one reusable
+ * game and its own strategies, and each chunk of games draws from its own
+ * {@link SplittableRandom} split from the batch seed, so a batch plays the same games however
+ * many threads run it. A side without a strategy plays uniformly random moves.
+ */
+public class SelfPlaySimulator {
+  // games per leaf task: large enough to amortize task overhead, small enough to balance load
+  private static final long CHUNK = 4096;
+
+  private final Supplier<? extends TicTacToe> games;
+  private final Supplier<? extends Strategy> xStrategies;
+  private final Supplier<? extends Strategy> oStrategies;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<Worker> workers;
+
+  /**
+   * Creates a simulator in which both sides play random moves, on all available cores.
+   *
+   * @param games creates the game each worker thread reuses
+   */
+  public SelfPlaySimulator(Supplier<? extends TicTacToe> games) {
+    this(games, null, null, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a simulator.
+   *
+   * @param games       creates the game each worker thread reuses
+   * @param xStrategies creates the strategy each worker thread uses for X, or null for random
+   *                    moves
+   * @param oStrategies creates the strategy each worker thread uses for O, or null for random
+   *                    moves
+   * @param parallelism the number of worker threads
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public SelfPlaySimulator(Supplier<? extends TicTacToe> games,
+                           Supplier<? extends Strategy> xStrategies,
+                           Supplier<? extends Strategy> oStrategies, int parallelism)
+      throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive!");
+    }
+    this.games = games;
+    this.xStrategies = xStrategies;
+    this.oStrategies = oStrategies;
+    this.pool = new ForkJoinPool(parallelism);
+    this.workers = ThreadLocal.withInitial(Worker::new);
+  }
+
+  /**
+   * Plays the given number of games and reports their outcomes.
+   *
+   * @param count the number of games to play
+   * @param seed  the seed for the random moves
+   * @return the outcome counts and throughput
+   * @throws IllegalArgumentException if count is negative
+   * @throws IllegalStateException    if a strategy chooses a cell that is off the board or
+   *                                  already marked
+   */
+  public SimulationResult run(long count, long seed) throws IllegalArgumentException,
+      IllegalStateException {
+    if (count < 0) {
+      throw new IllegalArgumentException("Game count must not be negative!");
+    }
+    long start = System.nanoTime();
+    long[] totals = pool.invoke(new Batch(count, new SplittableRandom(seed)));
+    return new SimulationResult(totals[0], totals[1], totals[2], totals[3],
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the worker threads. The simulator cannot be used afterwards.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * A range of games to play, split in half until it is small enough to play on one thread.
+   * Produces {X wins, O wins, draws, moves}.
+   */
+  private final class Batch extends RecursiveTask<long[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final long count;
+    private final SplittableRandom random;
+
+    Batch(long count, SplittableRandom random) {
+      this.count = count;
+      this.random = random;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (count <= CHUNK) {
+        return workers.get().play(count, random);
+      }
+      Batch left = new Batch(count / 2, random.split());
+      Batch right = new Batch(count - count / 2, random);
+      left.fork();
+      long[] totals = right.compute();
+      long[] other = left.join();
+      for (int i = 0; i < totals.length; i++) {
+        totals[i] += other[i];
+      }
+      return totals;
+    }
+  }
+
+  /**
+   * The per-thread state: a reusable game, the strategies, and the list of empty cells.
+   */
+  private final class Worker {
+    private final TicTacToe game = games.get();
+    private final Strategy x = xStrategies == null ? null : xStrategies.get();
+    private final Strategy o = oStrategies == null ? null : oStrategies.get();
+    private final int size = game.getSize();
+    private final int[] empty = new int[size * size];
+
+    long[] play(long count, SplittableRandom random) {
+      long[] totals = new long[4];
+      for (long i = 0; i < count; i++) {
+        game.reset();
+        for (int cell = 0; cell < empty.length; cell++) {
+          empty[cell] = cell;
+        }
+        int remaining = empty.length;
+        while (!game.isGameOver()) {
+          Strategy strategy = game.getTurn() == Player.X ? x : o;
+          int pick;
+          if (strategy == null) {
+            pick = random.nextInt(remaining);
+          } else {
+            pick = indexOf(strategy.chooseMove(game), remaining);
+          }
+          int cell = empty[pick];
+          empty[pick] = empty[--remaining];
+          game.move(cell / size, cell % size);
+        }
+        Player winner = game.getWinner();
+        totals[winner == null ? 2 : winner.ordinal()]++;
+        totals[3] += game.getMoveCount();
+      }
+      return totals;
+    }
+
+    // the index among the first remaining empty cells of the chosen move
+    private int indexOf(int[] move, int remaining) {
+      if (move[0] >= 0 && move[0] < size && move[1] >= 0 && move[1] < size) {
+        int chosen = move[0] * size + move[1];
+        for (int pick = 0; pick < remaining; pick++) {
+          if (empty[pick] == chosen) {
+            return pick;
+          }
+        }
+      }
+      throw new IllegalStateException("Strategy chose an illegal move at " + move[0] + ", "
+          + move[1] + "!");
+    }
+  }
+
+  /**
+   * Plays random three-by-three games and prints the outcomes and throughput for 1, 2, 4, ...
+   * threads up to the number of cores, to show how throughput scales.
+   *
+   * @param args Command-line arguments: the number of games per run (default 10,000,000).
+   */
+  public static void main(String[] args) {
+    long count = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+      SelfPlaySimulator simulator = new SelfPlaySimulator(BitboardTicTacToe::new, null, null,
+          threads);
+      simulator.run(count / 10, 1); // warm up
+      SimulationResult result = simulator.run(count, 42);
+      simulator.shutdown();
+      System.out.println(threads + " threads: " + result);
+      if (threads == cores) {
+        break;
+      }
+    }
+  }
+}
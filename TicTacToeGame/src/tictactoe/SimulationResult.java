@@ -0,0 +1,94 @@
+package tictactoe;
+
+/**
+ * The outcome counts of a batch of simulated games, and how long the batch took to play.
+ * Results of separate batches combine with {@link #merge(SimulationResult)}.
+ */
+public final class SimulationResult {
+  private final long xWins;
+  private final long oWins;
+  private final long draws;
+  private final long moves;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a result.
+   *
+   * @param xWins        the number of games won by X
+   * @param oWins        the number of games won by O
+   * @param draws        the number of drawn games
+   * @param moves        the total number of moves played
+   * @param elapsedNanos the wall-clock time taken, in nanoseconds
+   */
+  public SimulationResult(long xWins, long oWins, long draws, long moves, long elapsedNanos) {
+    this.xWins = xWins;
+    this.oWins = oWins;
+    this.draws = draws;
+    this.moves = moves;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getXWins() {
+    return xWins;
+  }
+
+  public long getOWins() {
+    return oWins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  /**
+   * Returns the total number of games played.
+   *
+   * @return the game count
+   */
+  public long getGames() {
+    return xWins + oWins + draws;
+  }
+
+  /**
+   * Returns the total number of moves played across all games.
+   *
+   * @return the move count
+   */
+  public long getMoves() {
+    return moves;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the throughput of the batch.
+   *
+   * @return games played per second of wall-clock time
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Combines the counts of this result with another played in sequence; the elapsed times add.
+   *
+   * @param other the other result
+   * @return the combined result
+   */
+  public SimulationResult merge(SimulationResult other) {
+    return new SimulationResult(xWins + other.xWins, oWins + other.oWins, draws + other.draws,
+        moves + other.moves, elapsedNanos + other.elapsedNanos);
+  }
+
+  @Override
+  public String toString() {
+    long games = getGames();
+    double g = Math.max(games, 1);
+    return String.format("%d games: X wins %.2f%%, O wins %.2f%%, draws %.2f%%, "
+            + "%.2f moves/game, %.0f games/s",
+        games, 100 * xWins / g, 100 * oWins / g, 100 * draws / g, moves / g,
+        getGamesPerSecond());
+  }
+}
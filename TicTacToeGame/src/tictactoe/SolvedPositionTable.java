@@ -0,0 +1,274 @@
+package tictactoe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The solved three-by-three game: the game-theoretic value and a best move for every position
+ * reachable in play, up to symmetry. The table is generated once by playing out every game
+ * through {@link TicTacToeModel#move(int, int)}, and stored as a sorted binary file that is
+ * memory-mapped when loaded, so answering a query costs one canonicalization and one lookup.
+ *
+ * <p>A position is encoded as a base-three number with one digit per cell (0 for empty, 1 for X,
+ * 2 for O, cell {@code r * 3 + c} being the digit of weight 3^(r * 3 + c)). Its canonical code is
+ * the smallest such number over the eight board symmetries. The file holds a header
+ * ({@link #MAGIC}, the format version and the record count) followed by one three-byte record per
+ * canonical position, sorted by code: the code as an unsigned short, then a byte packing the
+ * value in the high nibble and the best move, in the canonical frame, in the low nibble.
+ */
+public final class SolvedPositionTable {
+  /** The magic number at the start of a table file, "TTT3" in ASCII. */
+  public static final int MAGIC = 0x54545433;
+  /** The default location of the table, next to the game jar. */
+  public static final Path DEFAULT_PATH = Paths.get("res", "solved3x3.bin");
+
+  /** The value of a position the player to move will lose. */
+  public static final int LOSS = -1;
+  /** The value of a position that will be drawn. */
+  public static final int DRAW = 0;
+  /** The value of a position the player to move will win. */
+  public static final int WIN = 1;
+
+  private static final int VERSION = 1;
+  private static final int SIZE = 3;
+  private static final int CELLS = SIZE * SIZE;
+  private static final int HEADER_BYTES = 12;
+  private static final int RECORD_BYTES = 3;
+  private static final int NO_MOVE = 0xF;
+  private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+  private final ByteBuffer records;
+  private final int count;
+
+  private SolvedPositionTable(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a solved position table");
+    } else if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported table version " + buffer.getInt(4));
+    }
+    this.count = buffer.getInt(8);
+    if (count < 0 || buffer.remaining() < HEADER_BYTES + (long) count * RECORD_BYTES) {
+      throw new IOException("Truncated solved position table");
+    }
+    this.records = buffer.position(HEADER_BYTES).slice();
+  }
+
+  /**
+   * Loads a table by memory-mapping the given file.
+   *
+   * @param file the table file
+   * @return the loaded table
+   * @throws IOException if the file cannot be read or is not a valid table
+   */
+  public static SolvedPositionTable load(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new SolvedPositionTable(buffer);
+    }
+  }
+
+  /**
+   * Returns the number of canonical positions in the table.
+   *
+   * @return the position count
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the game-theoretic value of the given game for the player to move.
+   *
+   * @param game a three-by-three, three-in-a-row game
+   * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS}
+   * @throws IllegalArgumentException if the game is not a standard game, or the position is not
+   *                                  in the table
+   */
+  public int getValue(TicTacToe game) throws IllegalArgumentException {
+    return (find(game, null) >> 4) - 1;
+  }
+
+  /**
+   * Returns a best move for the player to move in the given game: a fastest win if the position
+   * is won, otherwise a move that keeps the draw, otherwise a slowest loss.
+   *
+   * @param game a three-by-three, three-in-a-row game that is not over
+   * @return a two-element array holding the row and column of the move
+   * @throws IllegalArgumentException if the game is not a standard game, or the position is not
+   *                                  in the table
+   * @throws IllegalStateException    if the game is over
+   */
+  public int[] getBestMove(TicTacToe game) throws IllegalArgumentException,
+      IllegalStateException {
+    int[] symmetry = new int[1];
+    int move = find(game, symmetry) & 0xF;
+    if (move == NO_MOVE) {
+      throw new IllegalStateException("Game is over!");
+    }
+    int cell = BoardSymmetry.inverse(BoardSymmetry.transforms(SIZE)[symmetry[0]], move);
+    return new int[] {cell / SIZE, cell % SIZE};
+  }
+
+  /**
+   * Finds the record byte of the given game's position.
+   *
+   * @param game     the game
+   * @param symmetry if not null, receives the index of the symmetry mapping the position to its
+   *                 canonical form
+   * @return the packed value and move
+   */
+  private int find(TicTacToe game, int[] symmetry) {
+    if (game.getSize() != SIZE || game.getWinLength() != SIZE) {
+      throw new IllegalArgumentException("Only the standard 3x3 game is solved!");
+    }
+    int[] cells = new int[CELLS];
+    for (int i = 0; i < CELLS; i++) {
+      Player p = game.getMarkAt(i / SIZE, i % SIZE);
+      cells[i] = p == null ? 0 : p.ordinal() + 1;
+    }
+    int best = Integer.MAX_VALUE;
+    int[][] transforms = BoardSymmetry.transforms(SIZE);
+    for (int t = 0; t < transforms.length; t++) {
+      int code = encode(cells, transforms[t]);
+      if (code < best) {
+        best = code;
+        if (symmetry != null) {
+          symmetry[0] = t;
+        }
+      }
+    }
+    int lo = 0;
+    int hi = count - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int code = records.getShort(mid * RECORD_BYTES) & 0xFFFF;
+      if (code < best) {
+        lo = mid + 1;
+      } else if (code > best) {
+        hi = mid - 1;
+      } else {
+        return records.get(mid * RECORD_BYTES + 2) & 0xFF;
+      }
+    }
+    throw new IllegalArgumentException("Position is not reachable!");
+  }
+
+  private static int encode(int[] cells, int[] transform) {
+    int code = 0;
+    for (int i = 0; i < CELLS; i++) {
+      code += cells[i] * POWERS[transform[i]];
+    }
+    return code;
+  }
+
+  private static int canonical(int[] cells) {
+    int best = Integer.MAX_VALUE;
+    for (int[] transform : BoardSymmetry.transforms(SIZE)) {
+      best = Math.min(best, encode(cells, transform));
+    }
+    return best;
+  }
+
+  /**
+   * Solves the game by playing out every game from the empty board, and writes the table.
+   *
+   * @param out the stream to write the table to
+   * @return the number of distinct positions reached, before symmetry reduction
+   * @throws IOException if writing fails
+   */
+  public static int generate(OutputStream out) throws IOException {
+    Map<Integer, Integer> solved = new TreeMap<>();
+    Set<Integer> reached = new HashSet<>();
+    solve(new TicTacToeModel(), new int[CELLS], solved, reached);
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(solved.size());
+    for (Map.Entry<Integer, Integer> entry : solved.entrySet()) {
+      data.writeShort(entry.getKey());
+      data.writeByte(entry.getValue());
+    }
+    data.flush();
+    return reached.size();
+  }
+
+  /**
+   * Solves the position of the given game, recording every reachable canonical position's
+   * packed value and best move. Each child position is reached by making its move on the game
+   * and taking it back afterwards, so the whole search plays on a single game.
+   *
+   * @return the score for the player to move: positive for a win, larger when it comes sooner;
+   *         negative for a loss; zero for a draw
+   */
+  private static int solve(TicTacToe game, int[] cells, Map<Integer, Integer> solved,
+                           Set<Integer> reached) {
+    reached.add(encode(cells, BoardSymmetry.transforms(SIZE)[0]));
+    int key = canonical(cells);
+
+    int score;
+    int bestMove = NO_MOVE;
+    if (game.isGameOver()) {
+      // a player who has just lost cannot move; a full board without a winner is a draw
+      score = game.getWinner() == null ? 0 : -(CELLS + 1 - game.getMoveCount());
+    } else {
+      score = Integer.MIN_VALUE;
+      int mark = game.getTurn().ordinal() + 1;
+      for (int cell = 0; cell < CELLS; cell++) {
+        if (cells[cell] != 0) {
+          continue;
+        }
+        cells[cell] = mark;
+        game.move(cell / SIZE, cell % SIZE);
+        int childScore = -solve(game, cells, solved, reached);
+        game.undo();
+        cells[cell] = 0;
+        if (childScore > score) {
+          score = childScore;
+          bestMove = cell;
+        }
+      }
+    }
+    if (!solved.containsKey(key)) {
+      int value = Integer.signum(score) + 1;
+      int canonicalMove = NO_MOVE;
+      if (bestMove != NO_MOVE) {
+        for (int[] transform : BoardSymmetry.transforms(SIZE)) {
+          if (encode(cells, transform) == key) {
+            canonicalMove = transform[bestMove];
+            break;
+          }
+        }
+      }
+      solved.put(key, value << 4 | canonicalMove);
+    }
+    return score;
+  }
+
+  /**
+   * Generates the solved position table and writes it to the file named by the first argument,
+   * or to {@link #DEFAULT_PATH}.
+   *
+   * @param args Command-line arguments: an optional output file.
+   * @throws IOException if the table cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    Path file = args.length > 0 ? Paths.get(args[0]) : DEFAULT_PATH;
+    try (OutputStream out = Files.newOutputStream(file)) {
+      int reached = generate(out);
+      System.out.println("Solved " + reached + " positions into " + file);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package tictactoe;
+
+/**
+ * A computer player that answers three-by-three positions from a {@link SolvedPositionTable}
+ * with a single lookup and no search, and hands any other game to a fallback strategy.
+ */
+public class SolvedTableStrategy implements Strategy {
+  private final SolvedPositionTable table;
+  private final Strategy fallback;
+
+  /**
+   * Creates a strategy that looks moves up in the given table, and asks the fallback strategy
+   * for games the table does not cover.
+   *
+   * @param table    the solved three-by-three positions
+   * @param fallback the strategy for other board sizes and win lengths
+   */
+  public SolvedTableStrategy(SolvedPositionTable table, Strategy fallback) {
+    this.table = table;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public int[] chooseMove(TicTacToe game) throws IllegalStateException {
+    if (game.isGameOver()) {
+      throw new IllegalStateException("Game is over!");
+    } else if (game.getSize() == 3 && game.getWinLength() == 3) {
+      return table.getBestMove(game);
+    }
+    return fallback.chooseMove(game);
+  }
+}
@@ -0,0 +1,381 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts one game to any number of spectators as a stream of compact binary frames, so
+ * watchers receive each move as a few bytes instead of the whole board. The hub listens to the
+ * game and encodes every event as a frame in a ring buffer; {@link #pump()} then copies the
+ * frames written since the last pump out of the ring once and writes each subscriber the part
+ * it has not yet received, in one non-blocking write.
+ *
+ * <p>Every frame starts with a type byte and a four-byte sequence number that increases by one
+ * per frame; numbers are big-endian:
+ * <ul>
+ *   <li>{@code 'K'} keyframe: the board size (two bytes), the state ({@link #IN_PROGRESS},
+ *       {@link #X_WON}, {@link #O_WON} or {@link #DRAW}), and the marks of every cell in
+ *       row-major order, two bits each, four to a byte starting from the low bits: 0 for empty,
+ *       1 for X, 2 for O</li>
+ *   <li>{@code 'M'} move: the cell, {@code r * size + c} (four bytes), and the mark (one byte)
+ *   </li>
+ *   <li>{@code 'U'} undo: the cell cleared (four bytes); the game is in progress again</li>
+ *   <li>{@code 'E'} end: the winner (one byte: 0 for a draw, 1 for X, 2 for O)</li>
+ * </ul>
+ * A keyframe follows every {@code keyframeInterval} moves. A new subscriber starts at the most
+ * recent keyframe, so applying the frames after it gives the current board.
+ *
+ * <p>The game thread only appends to the ring: it takes no lock and never waits for a
+ * spectator. A subscriber so slow that the frames it still needs have been overwritten is
+ * coalesced: it skips to the latest keyframe, losing only intermediate moves. If it is in the
+ * middle of a partly written batch, it cannot skip without corrupting its stream, so it is
+ * dropped and its channel closed instead.
+ *
+ * <p>Subscribing hands the channel to the hub, which closes it when the subscriber is dropped
+ * or unsubscribed, or the hub is closed. Channels should be in non-blocking mode: a blocking
+ * channel stalls the pump, though never the game. When the game is reset, the hub broadcasts a
+ * keyframe of the empty board, so spectators follow the new game on the same stream.
+ */
+public final class SpectatorHub implements Closeable {
+  /** The keyframe state of a game in progress. */
+  public static final int IN_PROGRESS = 0;
+  /** The keyframe state of a game won by X. */
+  public static final int X_WON = 1;
+  /** The keyframe state of a game won by O. */
+  public static final int O_WON = 2;
+  /** The keyframe state of a game that ended in a draw. */
+  public static final int DRAW = 3;
+
+  private static final int HEADER_BYTES = 5;
+  private static final int MOVE_BYTES = HEADER_BYTES + 5;
+
+  private final TicTacToe game;
+  private final int keyframeInterval;
+  private final int keyframeBytes;
+  private final TicTacToeListener listener;
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder resyncs = new LongAdder();
+
+  // the ring, written only by the game thread: byte offset n is stored at log[n & mask]
+  private final byte[] log;
+  private final int mask;
+  private final ByteBuffer frame;
+  private volatile long head;
+  // the offset of the latest keyframe, always published after the head passes its end
+  private volatile long keyframe;
+  private volatile int sequence;
+  private int movesSinceKeyframe;
+
+  // the pump's state, guarded by this hub's lock
+  private final List<Subscriber> subscribers = new ArrayList<>();
+  private final ByteBuffer batch;
+  private boolean closed;
+
+  /**
+   * Creates a hub broadcasting the given game, starting with a keyframe of its current board.
+   *
+   * @param game             the game to broadcast
+   * @param capacityBytes    the size of the ring of recent frames; rounded up to a power of two
+   *                         that holds at least four keyframes
+   * @param keyframeInterval the number of moves between keyframes
+   * @throws IllegalArgumentException if the game is null or the interval is not positive
+   */
+  public SpectatorHub(TicTacToe game, int capacityBytes, int keyframeInterval)
+      throws IllegalArgumentException {
+    if (game == null) {
+      throw new IllegalArgumentException("Game cannot be null!");
+    } else if (keyframeInterval < 1) {
+      throw new IllegalArgumentException("Keyframe interval must be positive!");
+    }
+    int cells = game.getSize() * game.getSize();
+    this.game = game;
+    this.keyframeInterval = keyframeInterval;
+    this.keyframeBytes = HEADER_BYTES + 3 + (cells + 3) / 4;
+    int capacity = Integer.highestOneBit(Math.max(Math.max(capacityBytes, 4 * keyframeBytes),
+        2 * keyframeInterval * MOVE_BYTES) - 1) << 1;
+    this.log = new byte[capacity];
+    this.mask = capacity - 1;
+    this.frame = ByteBuffer.allocate(Math.max(keyframeBytes, MOVE_BYTES));
+    this.batch = ByteBuffer.allocate(capacity);
+    this.listener = new TicTacToeListener() {
+      @Override
+      public void moveMade(int r, int c, Player player) {
+        beginFrame('M');
+        frame.putInt(r * game.getSize() + c).put((byte) (player == Player.X ? 1 : 2));
+        publish(false);
+        movesSinceKeyframe++;
+        keyframeIfDue();
+      }
+
+      @Override
+      public void moveUndone(int r, int c) {
+        beginFrame('U');
+        frame.putInt(r * game.getSize() + c);
+        publish(false);
+        keyframeIfDue();
+      }
+
+      @Override
+      public void gameOver(Player winner) {
+        beginFrame('E');
+        frame.put((byte) (winner == null ? 0 : winner == Player.X ? 1 : 2));
+        publish(false);
+      }
+
+      @Override
+      public void gameReset() {
+        publishKeyframe();
+      }
+    };
+    publishKeyframe();
+    game.addListener(listener);
+  }
+
+  /**
+   * Returns the capacity of the ring of recent frames.
+   *
+   * @return the capacity in bytes
+   */
+  public int getCapacity() {
+    return log.length;
+  }
+
+  /**
+   * Returns the sequence number the next frame will carry, which is also the number of frames
+   * published so far.
+   *
+   * @return the next sequence number
+   */
+  public int getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the number of frame bytes published so far.
+   *
+   * @return the byte count
+   */
+  public long getPublishedBytes() {
+    return head;
+  }
+
+  /**
+   * Adds a subscriber, which receives frames from the latest keyframe on at the next pump.
+   *
+   * @param channel the channel to write the subscriber's frames to
+   * @throws IllegalArgumentException if the channel is null
+   * @throws IllegalStateException    if the hub is closed
+   */
+  public synchronized void subscribe(WritableByteChannel channel)
+      throws IllegalArgumentException, IllegalStateException {
+    if (channel == null) {
+      throw new IllegalArgumentException("Channel cannot be null!");
+    } else if (closed) {
+      throw new IllegalStateException("Hub is closed!");
+    }
+    subscribers.add(new Subscriber(channel, keyframe));
+  }
+
+  /**
+   * Removes a subscriber and closes its channel. Does nothing if the channel is not subscribed.
+   *
+   * @param channel the subscriber's channel
+   */
+  public synchronized void unsubscribe(WritableByteChannel channel) {
+    for (int i = 0; i < subscribers.size(); i++) {
+      if (subscribers.get(i).channel == channel) {
+        closeQuietly(subscribers.remove(i).channel);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of subscribers.
+   *
+   * @return the subscriber count
+   */
+  public synchronized int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * Returns the number of subscribers dropped for falling too far behind, or because writing to
+   * them failed.
+   *
+   * @return the drop count
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the number of times a slow subscriber skipped ahead to the latest keyframe.
+   *
+   * @return the resync count
+   */
+  public long getResyncs() {
+    return resyncs.sum();
+  }
+
+  /**
+   * Writes every subscriber the frames published since it was last written to, as far as its
+   * channel accepts them without blocking. The frames are copied out of the ring once per pump,
+   * however many subscribers there are. Call this periodically, or after each move, from one
+   * thread other than the game's.
+   *
+   * @return the total number of bytes written
+   */
+  public synchronized long pump() {
+    long k = keyframe;
+    long end = head;
+    // the game may already be copying its next frame, of up to a frame buffer, over the oldest
+    // bytes of the ring before it advances the head, so those bytes are not trusted either
+    long oldest = end - log.length + frame.capacity();
+    long low = end;
+    for (int i = subscribers.size() - 1; i >= 0; i--) {
+      Subscriber s = subscribers.get(i);
+      if (s.cursor < oldest) {
+        if (s.partial) {
+          drop(i);
+          continue;
+        }
+        s.cursor = k;
+        resyncs.increment();
+      }
+      low = Math.min(low, s.cursor);
+    }
+    if (low == end) {
+      return 0;
+    }
+    batch.clear();
+    int from = (int) (low & mask);
+    int len = (int) (end - low);
+    int first = Math.min(len, log.length - from);
+    batch.put(log, from, first).put(log, 0, len - first);
+    // frames the game wrote over while they were being copied are resent after a resync
+    long valid = head - log.length + frame.capacity();
+    long written = 0;
+    for (int i = subscribers.size() - 1; i >= 0; i--) {
+      Subscriber s = subscribers.get(i);
+      if (s.cursor == end || s.cursor < valid) {
+        continue;
+      }
+      batch.limit(len).position((int) (s.cursor - low));
+      try {
+        int n = s.channel.write(batch);
+        if (n > 0) {
+          s.cursor += n;
+          s.partial = s.cursor != end;
+          written += n;
+        }
+      } catch (IOException e) {
+        drop(i);
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Stops broadcasting the game, and removes every subscriber and closes its channel.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    game.removeListener(listener);
+    for (Subscriber s : subscribers) {
+      closeQuietly(s.channel);
+    }
+    subscribers.clear();
+  }
+
+  private void drop(int index) {
+    closeQuietly(subscribers.remove(index).channel);
+    dropped.increment();
+  }
+
+  private static void closeQuietly(WritableByteChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // the subscriber is gone either way
+    }
+  }
+
+  private void beginFrame(char type) {
+    frame.clear();
+    frame.put((byte) type).putInt(sequence++);
+  }
+
+  /**
+   * Publishes a keyframe after every keyframeInterval moves, and whenever the latest one is half
+   * a ring behind, so that a resyncing subscriber always finds it still in the ring.
+   */
+  private void keyframeIfDue() {
+    if (movesSinceKeyframe >= keyframeInterval || head - keyframe > log.length / 2) {
+      publishKeyframe();
+    }
+  }
+
+  private void publishKeyframe() {
+    beginFrame('K');
+    Player winner = game.getWinner();
+    int state = winner == Player.X ? X_WON : winner == Player.O ? O_WON
+        : game.isGameOver() ? DRAW : IN_PROGRESS;
+    frame.putShort((short) game.getSize()).put((byte) state);
+    int start = frame.position();
+    for (int i = start; i < keyframeBytes; i++) {
+      frame.put(i, (byte) 0);
+    }
+    int size = game.getSize();
+    game.forEachCell((r, c, mark) -> {
+      if (mark != null) {
+        int cell = r * size + c;
+        int at = start + cell / 4;
+        frame.put(at, (byte) (frame.get(at) | (mark == Player.X ? 1 : 2) << (cell % 4 * 2)));
+      }
+    });
+    frame.position(keyframeBytes);
+    movesSinceKeyframe = 0;
+    publish(true);
+  }
+
+  /**
+   * Appends the frame being built to the ring and makes it visible to the pump.
+   */
+  private void publish(boolean isKeyframe) {
+    long start = head;
+    int len = frame.position();
+    int from = (int) (start & mask);
+    int first = Math.min(len, log.length - from);
+    System.arraycopy(frame.array(), 0, log, from, first);
+    System.arraycopy(frame.array(), first, log, 0, len - first);
+    head = start + len;
+    if (isKeyframe) {
+      keyframe = start;
+    }
+  }
+
+  /**
+   * One spectator: its channel and the offset of the next byte it needs.
+   */
+  private static final class Subscriber {
+    private final WritableByteChannel channel;
+    private long cursor;
+    // whether the last write stopped short of the end of the batch, possibly inside a frame
+    private boolean partial;
+
+    Subscriber(WritableByteChannel channel, long cursor) {
+      this.channel = channel;
+      this.cursor = cursor;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package tictactoe;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports how long after startup the first move of a game was made, once, then stops
+ * listening. The time is measured both from the start of the JVM, which includes loading and
+ * initializing classes, and from entering {@code main}.
+ */
+final class StartupTimer implements TicTacToeListener {
+  /** The system property that turns the report on. */
+  static final String ENABLED_PROPERTY = "tictactoe.startupTiming";
+
+  private final TicTacToe game;
+  private final long mainNanos;
+  private final PrintStream out;
+
+  /**
+   * Creates a timer that reports the first move of the given game.
+   *
+   * @param game      the game to watch
+   * @param mainNanos the {@link System#nanoTime()} at which {@code main} was entered
+   * @param out       the stream to report to
+   */
+  StartupTimer(TicTacToe game, long mainNanos, PrintStream out) {
+    this.game = game;
+    this.mainNanos = mainNanos;
+    this.out = out;
+  }
+
+  /**
+   * Starts timing the given game if the {@value #ENABLED_PROPERTY} property is true.
+   *
+   * @param game      the game to watch
+   * @param mainNanos the {@link System#nanoTime()} at which {@code main} was entered
+   */
+  static void attachIfEnabled(TicTacToe game, long mainNanos) {
+    if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+      game.addListener(new StartupTimer(game, mainNanos, System.err));
+    }
+  }
+
+  @Override
+  public void moveMade(int r, int c, Player player) {
+    long now = System.currentTimeMillis();
+    double sinceMain = (System.nanoTime() - mainNanos) / 1e6;
+    // read after taking the time, so loading the management classes is not counted
+    long sinceStart = now - ManagementFactory.getRuntimeMXBean().getStartTime();
+    out.printf("Time to first move: %d ms since JVM start, %.1f ms since main%n", sinceStart,
+        sinceMain);
+    game.removeListener(this);
+  }
+}
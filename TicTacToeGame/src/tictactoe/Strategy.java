@@ -0,0 +1,18 @@
+package tictactoe;
+
+/**
+ * A move-selection strategy for a Tic Tac Toe game: given a game in progress, chooses where the
+ * player whose turn it is should mark next. Strategies only read the game; the caller is
+ * responsible for applying the chosen move.
+ */
+public interface Strategy {
+
+  /**
+   * Choose a move for the player whose turn it is in the given game.
+   *
+   * @param game the game in progress
+   * @return a two-element array holding the row and column of the chosen move
+   * @throws IllegalStateException if the game is over
+   */
+  int[] chooseMove(TicTacToe game);
+}
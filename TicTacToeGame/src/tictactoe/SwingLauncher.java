@@ -0,0 +1,33 @@
+package tictactoe;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Starts the Swing user interface on the event dispatch thread. Kept apart from {@link Main} so
+ * that the JVM only loads AWT and Swing when this class is first used, and a game played in the
+ * console never pays for them.
+ */
+final class SwingLauncher {
+  private SwingLauncher() {
+  }
+
+  /**
+   * Builds the window and its controller on the event dispatch thread, and shows the game.
+   * Returns immediately; the game is then driven by the user's clicks.
+   *
+   * @param model          the game to show
+   * @param computer       the strategy choosing the computer's moves, or null if two users play
+   * @param computerPlayer the player the computer plays as, ignored if there is no computer
+   * @param metrics        the metrics recording the controller's session
+   */
+  static void launch(TicTacToe model, Strategy computer, Player computerPlayer,
+                     GameMetrics metrics) {
+    SwingUtilities.invokeLater(() -> {
+      TicTacToeView v = new SwingTicTacToeView("Tic-Tac-Toe", model.getSize());
+      TicTacToeController c = computer == null
+          ? new SwingTicTacToeController(v, model)
+          : new SwingTicTacToeController(v, model, computer, computerPlayer);
+      metrics.wrap(c).playGame();
+    });
+  }
+}
@@ -1,18 +1,28 @@
 package tictactoe;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
 
 /**
  * Implements the game controller for a Tic Tac Toe game
  * Using a Swing-based graphical user interface (GUI).
  * It manages the game logic and user interactions,
  * coordinating actions between the model and the view.
+ *
+ * <p>The controller listens to the model rather than querying it after each move: the model
+ * reports every move, turn change and result once, and the controller forwards each to the view.
+ *
+ * <p>The controller is used on the event dispatch thread. The computer chooses its moves on a
+ * background worker, so a long search does not freeze the window, and each move is made back on
+ * the event dispatch thread once it is chosen.
  */
-public class SwingTicTacToeController implements TicTacToeController, ActionListener {
-  private TicTacToe model;
-  private TicTacToeView view;
-  private Player currentPlayer = Player.X;
+public class SwingTicTacToeController implements TicTacToeController, TicTacToeListener {
+  private final TicTacToe model;
+  private final TicTacToeView view;
+  private Strategy computer;
+  private Player computerPlayer;
+  private boolean gameOver;
+  private boolean thinking;
 
   /**
    * Constructs a Tic Tac Toe controller instance with the provided view and model.
@@ -23,38 +33,112 @@ public class SwingTicTacToeController implements TicTacToeController, ActionList
   public SwingTicTacToeController(TicTacToeView view, TicTacToe model) {
     this.model = model;
     this.view = view;
-    view.addActionListener(this);
+    this.gameOver = model.isGameOver();
+    model.addListener(this);
+    view.addClickListener(this::cellClicked);
+  }
+
+  /**
+   * Constructs a Tic Tac Toe controller in which the computer plays one side using the given
+   * strategy, and the user plays the other.
+   *
+   * @param view           The view component responsible for displaying the game board.
+   * @param model          The model component representing the Tic Tac Toe game logic.
+   * @param computer       The strategy choosing the computer's moves.
+   * @param computerPlayer The player the computer plays as.
+   */
+  public SwingTicTacToeController(TicTacToeView view, TicTacToe model, Strategy computer,
+                                  Player computerPlayer) {
+    this(view, model);
+    this.computer = computer;
+    this.computerPlayer = computerPlayer;
   }
 
   @Override
   public void playGame() {
     view.display();
+    playComputerMoves();
   }
 
   /**
-   * Handles user actions triggered by the view's components.
-   * This method is invoked when a player makes a move on the game board.
+   * Handles the user selecting a cell of the game board, by making the move there unless the
+   * game is over or it is the computer's turn, then letting the computer reply.
    *
-   * @param e The <code>ActionEvent</code> representing the user's action.
+   * @param row The row of the selected cell.
+   * @param col The column of the selected cell.
    */
+  private void cellClicked(int row, int col) {
+    if (gameOver || isComputersTurn()) {
+      return;
+    }
+    model.move(row, col);
+    playComputerMoves();
+  }
+
   @Override
-  public void actionPerformed(ActionEvent e) {
-    if (!model.isGameOver()) {
-      String data = e.getActionCommand();
-      String[] parts = data.split(",");
-      int row = Integer.parseInt(parts[0].trim());
-      int col = Integer.parseInt(parts[1].trim());
-      model.move(row, col);
-      view.displayMove(row, col, currentPlayer.toString());
-      currentPlayer = model.getTurn();
-      view.updateTurnLabel(currentPlayer.toString());
-      if (model.getWinner() != null) {
-        view.displayMessage("Game is over! " + model.getWinner().toString() + " wins.");
-      } else if (model.getWinner() == null && model.isGameOver()) {
-        view.displayMessage("Game is over! Tie game.");
-      } else {
-        view.displayMessage("");
-      }
+  public void moveMade(int r, int c, Player player) {
+    view.displayMove(r, c, player.toString());
+  }
+
+  @Override
+  public void moveUndone(int r, int c) {
+    view.clearMove(r, c);
+  }
+
+  @Override
+  public void turnChanged(Player turn) {
+    gameOver = false;
+    view.updateTurnLabel(turn.toString());
+    view.displayMessage("");
+  }
+
+  @Override
+  public void gameOver(Player winner) {
+    gameOver = true;
+    if (winner != null) {
+      view.displayMessage("Game is over! " + winner + " wins.");
+    } else {
+      view.displayMessage("Game is over! Tie game.");
+    }
+  }
+
+  private boolean isComputersTurn() {
+    return computer != null && model.getTurn() == computerPlayer;
+  }
+
+  /**
+   * Lets the computer move if it is the computer's turn and the game is not over. The move is
+   * chosen on a background worker and made on the event dispatch thread, after which the
+   * computer moves again if it is still its turn. A move chosen for a position that has since
+   * changed is discarded.
+   */
+  private void playComputerMoves() {
+    if (thinking || gameOver || !isComputersTurn()) {
+      return;
     }
+    thinking = true;
+    int moveCount = model.getMoveCount();
+    new SwingWorker<int[], Void>() {
+      @Override
+      protected int[] doInBackground() {
+        return computer.chooseMove(model);
+      }
+
+      @Override
+      protected void done() {
+        thinking = false;
+        int[] move;
+        try {
+          move = get();
+        } catch (InterruptedException | ExecutionException e) {
+          view.displayMessage("The computer could not choose a move!");
+          return;
+        }
+        if (!gameOver && model.getMoveCount() == moveCount) {
+          model.move(move[0], move[1]);
+        }
+        playComputerMoves();
+      }
+    }.execute();
   }
 }
@@ -1,7 +1,6 @@
 package tictactoe;
 
 import java.awt.*;
-import java.awt.event.ActionListener;
 import javax.swing.*;
 
 
@@ -10,17 +9,36 @@ import javax.swing.*;
  * It displays the game board, player moves, turn information, and game results.
  */
 public class SwingTicTacToeView extends JPanel implements TicTacToeView {
+  // fonts are immutable, so every cell and label shares these instead of creating its own
+  private static final Font CELL_FONT = new Font("Arial", Font.PLAIN, 36);
+  private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 18);
+
   private JFrame frame;
   private JLabel turn;
   private JButton [][] cells;
   private JLabel winResult;
 
   /**
-   * Constructs a SwingTicTacToeView instance with the specified title.
+   * Constructs a SwingTicTacToeView instance of a three-by-three board with the specified title.
    *
    * @param title The title of the game window.
    */
   public SwingTicTacToeView(String title) {
+    this(title, 3);
+  }
+
+  /**
+   * Constructs a SwingTicTacToeView instance of a board of the given size with the specified
+   * title.
+   *
+   * @param title The title of the game window.
+   * @param size  The number of rows and columns of the board.
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public SwingTicTacToeView(String title, int size) throws IllegalArgumentException {
+    if (size < 1) {
+      throw new IllegalArgumentException("Invalid board size!");
+    }
     frame = new JFrame(title);
     frame.setSize(800, 600);
     frame.setLocation(200, 200);
@@ -30,14 +48,18 @@ public class SwingTicTacToeView extends JPanel implements TicTacToeView {
     JPanel gridPanel = new JPanel();
     gridPanel.setSize(800, 600);
     this.turn = new JLabel("Turn: X");
-    turn.setFont(new Font("Arial", Font.BOLD, 18));
+    turn.setFont(LABEL_FONT);
     this.winResult = new JLabel("");
-    this.cells = new JButton[3][3];
-    gridPanel.setLayout(new GridLayout(3, 3));
+    winResult.setFont(LABEL_FONT);
+    this.cells = new JButton[size][size];
+    gridPanel.setLayout(new GridLayout(size, size));
+    // a three-by-three board keeps its 100 pixel cells; larger boards shrink them to fit
+    Dimension cellSize = new Dimension(Math.max(30, 300 / size), Math.max(30, 300 / size));
     for (int i = 0; i < cells.length; i++) {
       for (int j = 0; j < cells[i].length; j++) {
         this.cells[i][j] = new JButton();
-        this.cells[i][j].setPreferredSize(new Dimension(100, 100));
+        this.cells[i][j].setPreferredSize(cellSize);
+        this.cells[i][j].setFont(CELL_FONT);
         gridPanel.add(this.cells[i][j]);
       }
     }
@@ -57,11 +79,12 @@ public class SwingTicTacToeView extends JPanel implements TicTacToeView {
   }
 
   @Override
-  public void addActionListener(ActionListener listener) {
+  public void addClickListener(CellClickListener listener) {
     for (int row = 0; row < cells.length; row++) {
       for (int col = 0; col < cells[row].length; col++) {
-        this.cells[row][col].addActionListener(listener);
-        this.cells[row][col].setActionCommand(String.format("%d, %d", row, col));
+        int r = row;
+        int c = col;
+        this.cells[row][col].addActionListener(e -> listener.cellClicked(r, c));
       }
     }
   }
@@ -69,13 +92,17 @@ public class SwingTicTacToeView extends JPanel implements TicTacToeView {
   @Override
   public void displayMove(int row, int col, String currentPlayer) {
     this.cells[row][col].setText(currentPlayer);
-    this.cells[row][col].setFont(new Font("Arial", Font.PLAIN, 36));
     this.cells[row][col].setEnabled(false);
   }
 
+  @Override
+  public void clearMove(int row, int col) {
+    this.cells[row][col].setText("");
+    this.cells[row][col].setEnabled(true);
+  }
+
   @Override
   public void displayMessage(String result) {
-    winResult.setFont(new Font("Arial", Font.BOLD, 18));
     this.winResult.setText(result);
   }
 
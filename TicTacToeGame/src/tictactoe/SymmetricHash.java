@@ -0,0 +1,72 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * The incrementally maintained position keys of a game: the Zobrist hash of the position and of
+ * each of its seven symmetric variants, and the canonical key, the smallest of the eight, with the
+ * symmetry that gives it. Placing or removing a mark costs eight XORs, after which the keys can be
+ * read in constant time.
+ */
+final class SymmetricHash {
+  private final long[][] keys;
+  private final int cells;
+  private final long[] hashes = new long[BoardSymmetry.COUNT];
+  private long canonical;
+  private int symmetry;
+
+  SymmetricHash(int size) {
+    this.keys = Zobrist.symmetricKeys(size);
+    this.cells = size * size;
+  }
+
+  /**
+   * Places or removes the given player's mark in the given cell.
+   *
+   * @param cell   the cell index, {@code r * size + c}
+   * @param player the player whose mark it is
+   */
+  void toggle(int cell, Player player) {
+    int index = player.ordinal() * cells + cell;
+    int best = 0;
+    for (int t = 0; t < hashes.length; t++) {
+      hashes[t] ^= keys[t][index];
+      if (hashes[t] < hashes[best]) {
+        best = t;
+      }
+    }
+    canonical = hashes[best];
+    symmetry = best;
+  }
+
+  /**
+   * Removes every mark, returning the keys to those of the empty board.
+   */
+  void clear() {
+    Arrays.fill(hashes, 0);
+    canonical = 0;
+    symmetry = 0;
+  }
+
+  /**
+   * Returns the Zobrist hash of the position, the XOR of the {@link Zobrist#keys} of its marks.
+   */
+  long hash() {
+    return hashes[0];
+  }
+
+  /**
+   * Returns the smallest hash among the position's symmetric variants.
+   */
+  long canonical() {
+    return canonical;
+  }
+
+  /**
+   * Returns the index in {@link BoardSymmetry#transforms} of the first symmetry whose variant has
+   * the canonical key.
+   */
+  int symmetry() {
+    return symmetry;
+  }
+}
@@ -1,9 +1,13 @@
 package tictactoe;
 
+import java.io.IOException;
+
 /**
- * A single game of Tic Tac Toe, played on a three-by-three grid with two players,
- * with the object of the game to achieve three markers in a row either vertically,
- * horizontally, or diagonally. {@link Player} X goes first.
+ * A single game of Tic Tac Toe, played on a square grid with two players, with the object of
+ * the game to achieve a given number of markers in a row either vertically, horizontally, or
+ * diagonally. The classic game is a three-by-three grid with three in a row; larger boards
+ * support Gomoku-style variants such as fifteen-by-fifteen with five in a row.
+ * {@link Player} X goes first.
  */
 public interface TicTacToe {
 
@@ -17,6 +21,89 @@ public interface TicTacToe {
    */
   void move(int r, int c);
 
+  /**
+   * Execute a move in the position specified by the given row and column if it is legal, and
+   * report whether it was, without throwing. An illegal move leaves the game unchanged.
+   *
+   * @param r the row of the intended move
+   * @param c the column of the intended move
+   * @return {@link MoveStatus#OK} if the move was made, otherwise the {@link MoveStatus} code
+   *         saying why it is illegal
+   */
+  int tryMove(int r, int c);
+
+  /**
+   * Execute a batch of moves in order, stopping at the first illegal one. Each move is a cell
+   * index, {@code r * getSize() + c}, as returned by {@link #getMoveHistory()}. Nothing is thrown
+   * for an illegal move; the result says how many moves were applied and why the next one was
+   * not.
+   *
+   * @param moves an array of cell indices
+   * @param off   the index of the first move to apply
+   * @param len   the number of moves to apply
+   * @return the number of moves applied and a status code, packed as described in
+   *         {@link MoveStatus}
+   */
+  default int applyMoves(int[] moves, int off, int len) {
+    int size = this.getSize();
+    int cells = size * size;
+    for (int i = 0; i < len; i++) {
+      int cell = moves[off + i];
+      int status = cell < 0 || cell >= cells ? MoveStatus.OUT_OF_BOUNDS
+          : this.tryMove(cell / size, cell % size);
+      if (status != MoveStatus.OK) {
+        return MoveStatus.of(i, status);
+      }
+    }
+    return MoveStatus.of(len, MoveStatus.OK);
+  }
+
+  /**
+   * Take back the last move, restoring the turn, the winner and the board to what they were
+   * before it. The move can be replayed with {@link #redo()} until a new move is made.
+   *
+   * @throws IllegalStateException if no moves have been made
+   */
+  void undo();
+
+  /**
+   * Replay the most recently undone move.
+   *
+   * @throws IllegalStateException if there is no undone move to replay, either because none has
+   *                               been undone or because a new move was made since
+   */
+  void redo();
+
+  /**
+   * Return whether there is an undone move that {@link #redo()} would replay.
+   *
+   * @return true if a move can be redone, false otherwise
+   */
+  boolean canRedo();
+
+  /**
+   * Start a new game with the same rules: clear the board, the move history and the winner, and
+   * give the turn back to X, leaving the game as it was when created. Registered listeners stay
+   * registered and are sent {@link TicTacToeListener#gameReset()}. Lets a finished game be
+   * reused, for instance from a {@link TicTacToePool}, instead of allocating a new one.
+   */
+  void reset();
+
+  /**
+   * Return the number of moves made so far.
+   *
+   * @return the move count
+   */
+  int getMoveCount();
+
+  /**
+   * Return the moves made so far, oldest first. Each move is packed as its cell index,
+   * {@code r * getSize() + c}.
+   *
+   * @return a new array holding the packed moves
+   */
+  int[] getMoveHistory();
+
   /**
    * Get the current turn, i.e., the player who will mark on the next call to move().
    *
@@ -42,7 +129,9 @@ public interface TicTacToe {
 
   /**
    * Return the current game state, as a 2D array of Player. A {@code null} value in the grid
-   * indicates an empty position on the board.
+   * indicates an empty position on the board. The array is a fresh copy on every call; to
+   * inspect the board without allocating, use {@link #forEachCell(CellVisitor)} or
+   * {@link #getMarkAt(int, int)}.
    *
    * @return the current game board
    */
@@ -58,5 +147,132 @@ public interface TicTacToe {
    */
   Player getMarkAt(int r, int c);
 
-}
+  /**
+   * Return the number of rows (and columns) of the square game board.
+   *
+   * @return the board size
+   */
+  int getSize();
+
+  /**
+   * Return the number of markers in a row a player needs to win.
+   *
+   * @return the win length
+   */
+  int getWinLength();
+
+  /**
+   * Return a 64-bit Zobrist hash of the marks on the board. Positions with the same marks have
+   * the same hash, whatever the order the moves were played in, and the hash is the same for
+   * every implementation of this interface with the same board size. Different positions
+   * collide with a probability of about 2^-64. The hash is maintained as moves are made, so
+   * this is a constant-time query.
+   *
+   * @return the position hash
+   */
+  long getHash();
+
+  /**
+   * Return a 64-bit hash that is the same for a position and all its rotations and reflections:
+   * the smallest {@link #getHash()} among the eight symmetric variants of the board. Use it to
+   * key caches that should treat equivalent positions as one. This is a constant-time query.
+   *
+   * @return the canonical position hash
+   */
+  long getCanonicalHash();
+
+  /**
+   * Return which of the eight rotations and reflections of the board maps this position onto
+   * the variant whose hash is {@link #getCanonicalHash()}, numbered from 0 for the identity. When
+   * several variants share that hash, the lowest-numbered symmetry is returned. The default
+   * implementation scans the board; implementations that maintain the canonical hash as moves are
+   * made answer in constant time.
+   *
+   * @return the index of the canonical symmetry, from 0 to 7
+   */
+  default int getCanonicalSymmetry() {
+    int size = getSize();
+    int cells = size * size;
+    long[][] keys = Zobrist.symmetricKeys(size);
+    long[] hashes = new long[BoardSymmetry.COUNT];
+    for (int cell = 0; cell < cells; cell++) {
+      Player p = getMarkAt(cell / size, cell % size);
+      if (p != null) {
+        for (int t = 0; t < hashes.length; t++) {
+          hashes[t] ^= keys[t][p.ordinal() * cells + cell];
+        }
+      }
+    }
+    int best = 0;
+    for (int t = 1; t < hashes.length; t++) {
+      if (hashes[t] < hashes[best]) {
+        best = t;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Register a listener to be notified of every move, undo, turn change and the end of the
+   * game, on the thread that caused the change.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addListener(TicTacToeListener listener);
+
+  /**
+   * Stop notifying a listener. Does nothing if the listener is not registered.
+   *
+   * @param listener the listener to remove
+   */
+  void removeListener(TicTacToeListener listener);
+
+  /**
+   * Stop notifying every registered listener, as a {@link TicTacToePool} does when a game is
+   * released.
+   */
+  void removeAllListeners();
+
+  /**
+   * Visit every cell of the board in row-major order, without copying the board.
+   *
+   * @param visitor the visitor to call once per cell
+   */
+  default void forEachCell(CellVisitor visitor) {
+    int size = getSize();
+    for (int r = 0; r < size; r++) {
+      for (int c = 0; c < size; c++) {
+        visitor.visit(r, c, getMarkAt(r, c));
+      }
+    }
+  }
 
+  /**
+   * Write the board to the given destination in the format of {@code toString()}: one line per
+   * row with the cells separated by {@code " | "}, and a line of dashes between rows. Nothing is
+   * allocated beyond what the destination itself needs.
+   *
+   * @param out the destination, such as a {@link StringBuilder} or a {@link java.io.Writer}
+   * @throws IOException if writing to the destination fails
+   */
+  default void appendTo(Appendable out) throws IOException {
+    int size = getSize();
+    for (int r = 0; r < size; r++) {
+      if (r > 0) {
+        out.append('\n');
+        for (int i = 0; i < 4 * size - 1; i++) {
+          out.append('-');
+        }
+        out.append('\n');
+      }
+      for (int c = 0; c < size; c++) {
+        if (c > 0) {
+          out.append(" |");
+        }
+        Player p = getMarkAt(r, c);
+        out.append(' ').append(p == null ? ' ' : p == Player.X ? 'X' : 'O');
+      }
+    }
+  }
+}
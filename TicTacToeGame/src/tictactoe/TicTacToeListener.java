@@ -0,0 +1,54 @@
+package tictactoe;
+
+/**
+ * Receives the events of a Tic Tac Toe game as they happen, so that views and other observers
+ * can react to each change once instead of polling the game. Every successful move produces a
+ * {@link #moveMade} event followed by either {@link #turnChanged} or, if the move ended the
+ * game, {@link #gameOver}. All methods do nothing by default, so listeners only implement the
+ * events they need.
+ */
+public interface TicTacToeListener {
+
+  /**
+   * Called after a player marks a position, including when a move is redone.
+   *
+   * @param r      the row of the move
+   * @param c      the column of the move
+   * @param player the player who moved
+   */
+  default void moveMade(int r, int c, Player player) {
+  }
+
+  /**
+   * Called after a move is taken back with {@link TicTacToe#undo()}. A {@link #turnChanged}
+   * event follows.
+   *
+   * @param r the row of the position cleared
+   * @param c the column of the position cleared
+   */
+  default void moveUndone(int r, int c) {
+  }
+
+  /**
+   * Called when it becomes a player's turn while the game is in progress.
+   *
+   * @param turn the player who moves next
+   */
+  default void turnChanged(Player turn) {
+  }
+
+  /**
+   * Called when a move ends the game.
+   *
+   * @param winner the winner, or {@code null} if the game is a tie
+   */
+  default void gameOver(Player winner) {
+  }
+
+  /**
+   * Called after the game is {@linkplain TicTacToe#reset() reset}, leaving an empty board with X
+   * to move.
+   */
+  default void gameReset() {
+  }
+}
@@ -0,0 +1,92 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * The listeners registered with a game, and the code that notifies them. Listeners are kept in
+ * an array that is copied on the rare registration changes, so notifying is a plain loop with
+ * no allocation and no locking, and costs a single array-length check when nobody listens.
+ */
+final class TicTacToeListeners {
+  private static final TicTacToeListener[] NONE = new TicTacToeListener[0];
+
+  private volatile TicTacToeListener[] listeners = NONE;
+
+  synchronized void add(TicTacToeListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null!");
+    }
+    TicTacToeListener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+    next[listeners.length] = listener;
+    listeners = next;
+  }
+
+  synchronized void remove(TicTacToeListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        TicTacToeListener[] next = new TicTacToeListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, next, 0, i);
+        System.arraycopy(listeners, i + 1, next, i, next.length - i);
+        listeners = next;
+        return;
+      }
+    }
+  }
+
+  synchronized void clear() {
+    listeners = NONE;
+  }
+
+  /**
+   * Notifies the listeners that the game was reset.
+   */
+  void fireReset() {
+    for (TicTacToeListener listener : listeners) {
+      listener.gameReset();
+    }
+  }
+
+  boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  /**
+   * Notifies the listeners of a move and of what follows it: the next turn, or the end of the
+   * game.
+   *
+   * @param r        the row of the move
+   * @param c        the column of the move
+   * @param mover    the player who moved
+   * @param gameOver whether the move ended the game
+   * @param winner   the winner, if the game is over
+   */
+  void fireMove(int r, int c, Player mover, boolean gameOver, Player winner) {
+    TicTacToeListener[] current = listeners;
+    if (current.length == 0) {
+      return;
+    }
+    Player next = mover == Player.X ? Player.O : Player.X;
+    for (TicTacToeListener listener : current) {
+      listener.moveMade(r, c, mover);
+      if (gameOver) {
+        listener.gameOver(winner);
+      } else {
+        listener.turnChanged(next);
+      }
+    }
+  }
+
+  /**
+   * Notifies the listeners that a move was taken back.
+   *
+   * @param r    the row of the position cleared
+   * @param c    the column of the position cleared
+   * @param turn the player whose turn it is again
+   */
+  void fireUndo(int r, int c, Player turn) {
+    for (TicTacToeListener listener : listeners) {
+      listener.moveUndone(r, c);
+      listener.turnChanged(turn);
+    }
+  }
+}
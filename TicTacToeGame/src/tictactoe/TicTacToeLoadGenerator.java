@@ -0,0 +1,271 @@
+package tictactoe;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * A load generator for {@link TicTacToeServer}: a stand-in client that keeps many games in play
+ * at once over a few connections, each game always having one request in flight, and measures
+ * request throughput and latency. Every game plays random legal moves for both sides until it
+ * ends, then is discarded and replaced by a new one. A game whose move is rejected is discarded
+ * too, so errors do not leave games behind on the server.
+ */
+public class TicTacToeLoadGenerator {
+  private static final int LATENCY_SAMPLES = 1 << 20;
+
+  private final InetSocketAddress server;
+  private final int connections;
+  private final int gamesPerConnection;
+
+  private final long[] latencies = new long[LATENCY_SAMPLES];
+  private int latencyCount;
+  private long requests;
+  private long gamesFinished;
+  private long errors;
+
+  /**
+   * Creates a load generator.
+   *
+   * @param server             the server address
+   * @param connections        the number of connections to open
+   * @param gamesPerConnection the number of games each connection keeps in play
+   * @throws IllegalArgumentException if either count is not positive
+   */
+  public TicTacToeLoadGenerator(InetSocketAddress server, int connections,
+                                int gamesPerConnection) throws IllegalArgumentException {
+    if (connections < 1 || gamesPerConnection < 1) {
+      throw new IllegalArgumentException("Connection and game counts must be positive!");
+    }
+    this.server = server;
+    this.connections = connections;
+    this.gamesPerConnection = gamesPerConnection;
+  }
+
+  /**
+   * Runs the load for the given duration and reports the results.
+   *
+   * @param millis how long to generate load, in milliseconds
+   * @return a one-line summary of throughput and latency percentiles
+   * @throws IOException if a connection fails
+   */
+  public String run(long millis) throws IOException {
+    SplittableRandom random = new SplittableRandom(1);
+    try (Selector selector = Selector.open()) {
+      Client[] clients = new Client[connections];
+      for (int i = 0; i < connections; i++) {
+        SocketChannel channel = SocketChannel.open(server);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        clients[i] = new Client(channel, random.split());
+        clients[i].key = channel.register(selector, SelectionKey.OP_READ, clients[i]);
+        for (int g = 0; g < gamesPerConnection; g++) {
+          clients[i].startGame(new ClientGame());
+        }
+        clients[i].flush();
+      }
+
+      long start = System.nanoTime();
+      long deadline = start + millis * 1_000_000L;
+      while (System.nanoTime() < deadline) {
+        selector.select(10);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Client client = (Client) key.attachment();
+          if (key.isReadable()) {
+            client.read();
+          }
+          client.flush();
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      for (Client client : clients) {
+        client.channel.close();
+      }
+      return summary(elapsed);
+    }
+  }
+
+  private String summary(long elapsedNanos) {
+    long[] sorted = Arrays.copyOf(latencies, latencyCount);
+    Arrays.sort(sorted);
+    return String.format("%d games in play: %.0f requests/s, %.0f games/s, %d errors, "
+            + "latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+        connections * gamesPerConnection, requests * 1e9 / elapsedNanos,
+        gamesFinished * 1e9 / elapsedNanos, errors, percentile(sorted, 0.5),
+        percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+    return sorted[Math.max(index, 0)] / 1000.0;
+  }
+
+  private void recordLatency(long nanos) {
+    // once the buffer is full, keep the most recent samples
+    latencies[(int) (requests++ % LATENCY_SAMPLES)] = nanos;
+    latencyCount = (int) Math.min(requests, LATENCY_SAMPLES);
+  }
+
+  /**
+   * The client's copy of one game: its server id, the cells still empty, and whether it is
+   * being ended.
+   */
+  private static final class ClientGame {
+    private long id = -1;
+    private final int[] empty = new int[9];
+    private int remaining;
+    private boolean ending;
+
+    void reset() {
+      id = -1;
+      ending = false;
+      for (int i = 0; i < empty.length; i++) {
+        empty[i] = i;
+      }
+      remaining = empty.length;
+    }
+  }
+
+  /**
+   * One connection and the games it keeps in play. Requests are pipelined, so the games
+   * awaiting a response are queued in request order. Each game has at most one request in
+   * flight, so the output buffer always has room for the next one.
+   */
+  private final class Client {
+    private final SocketChannel channel;
+    private final SplittableRandom random;
+    private final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer out = ByteBuffer.allocate(Math.max(64, gamesPerConnection) * 1024);
+    private final ArrayDeque<ClientGame> awaiting = new ArrayDeque<>();
+    private final ArrayDeque<Long> sentAt = new ArrayDeque<>();
+    private final StringBuilder line = new StringBuilder();
+    private SelectionKey key;
+
+    Client(SocketChannel channel, SplittableRandom random) {
+      this.channel = channel;
+      this.random = random;
+    }
+
+    void startGame(ClientGame game) {
+      game.reset();
+      send(game, "NEW");
+    }
+
+    void read() throws IOException {
+      if (channel.read(in) < 0) {
+        throw new IOException("Server closed the connection");
+      }
+      in.flip();
+      while (in.hasRemaining()) {
+        char ch = (char) in.get();
+        if (ch != '\n') {
+          line.append(ch);
+          continue;
+        }
+        ClientGame game = awaiting.poll();
+        recordLatency(System.nanoTime() - sentAt.poll());
+        handle(game, line.toString());
+        line.setLength(0);
+      }
+      in.clear();
+    }
+
+    /**
+     * Writes as many waiting requests as the socket takes, and asks to be told when it can take
+     * the rest.
+     */
+    void flush() throws IOException {
+      out.flip();
+      channel.write(out);
+      out.compact();
+      key.interestOps(out.position() > 0
+          ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void handle(ClientGame game, String response) {
+      if (response.startsWith("ERR")) {
+        errors++;
+        if (game.id < 0 || game.ending) {
+          startGame(game);
+        } else {
+          endGame(game);
+        }
+      } else if (game.id < 0) {
+        game.id = Long.parseLong(response.substring(3));
+        playRandomMove(game);
+      } else if (game.ending) {
+        startGame(game);
+      } else if (response.startsWith("OK WIN") || response.equals("OK DRAW")) {
+        gamesFinished++;
+        endGame(game);
+      } else {
+        playRandomMove(game);
+      }
+    }
+
+    private void endGame(ClientGame game) {
+      game.ending = true;
+      send(game, "END " + game.id);
+    }
+
+    private void playRandomMove(ClientGame game) {
+      int pick = random.nextInt(game.remaining);
+      int cell = game.empty[pick];
+      game.empty[pick] = game.empty[--game.remaining];
+      send(game, "MOVE " + game.id + " " + cell / 3 + " " + cell % 3);
+    }
+
+    private void send(ClientGame game, String request) {
+      out.put(request.getBytes(StandardCharsets.US_ASCII)).put((byte) '\n');
+      awaiting.add(game);
+      sentAt.add(System.nanoTime());
+    }
+  }
+
+  /**
+   * Starts a server in this JVM on a free port, unless one is given, and runs load against it.
+   *
+   * @param args Command-line arguments: connections (default 100), games per connection
+   *             (default 100), seconds (default 10), and an optional port of a running server.
+   * @throws IOException if the server or a connection fails
+   */
+  public static void main(String[] args) throws IOException {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    long seconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+    TicTacToeServer local = null;
+    int port;
+    if (args.length > 3) {
+      port = Integer.parseInt(args[3]);
+    } else {
+      local = new TicTacToeServer(0, Runtime.getRuntime().availableProcessors());
+      local.start();
+      port = local.getPort();
+    }
+    try {
+      TicTacToeLoadGenerator generator = new TicTacToeLoadGenerator(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), port), connections, games);
+      System.out.println(generator.run(seconds * 1000));
+    } finally {
+      if (local != null) {
+        local.close();
+      }
+    }
+  }
+}
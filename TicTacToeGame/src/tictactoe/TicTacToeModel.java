@@ -1,84 +1,160 @@
 package tictactoe;
 
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.stream.Collectors;
 
 /**
- * Represents a game of Tic Tac Toe played on a three-by-three grid with two players.
- * The objective of the game is to achieve three markers in a row either vertically,
- * horizontally, or diagonally. Player X goes first.
+ * Represents a game of Tic Tac Toe played on a square grid with two players.
+ * The objective of the game is to achieve a given number of markers in a row either vertically,
+ * horizontally, or diagonally. The default game is three-by-three with three in a row.
+ * Player X goes first.
+ *
+ * <p>The winner is tracked incrementally: each move only inspects the four lines running through
+ * the cell just marked, and a running move count answers whether the board is full, so
+ * {@link #move(int, int)}, {@link #isGameOver()} and {@link #getWinner()} do not depend on the
+ * size of the board.
  */
 public class TicTacToeModel implements tictactoe.TicTacToe {
-  // add your implementation here
+  // row and column steps for the horizontal, vertical, diagonal and anti-diagonal directions
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
   private Player[][] board;
   private Player turn;
+  private final int size;
+  private final int winLength;
+  private int moveCount;
+  private Player winner;
+  // moves[0..moveCount) have been played; moves[moveCount..redoCount) can be redone
+  private final int[] moves;
+  private int redoCount;
+  private final SymmetricHash hash;
+  private final TicTacToeListeners listeners = new TicTacToeListeners();
 
   /**
    * Creates a new instance of the TicTacToeModel class.
    * Initializes the game board with a size of 3x3 and sets the initial player turn to X.
    */
   public TicTacToeModel() {
-    turn = Player.X;
-    board = new Player[3][3];
-    for (int i = 0; i < board.length; i++) {
-      //Arrays.fill(board[i], null);
-      for (int j = 0; j < board[i].length; j++) {
-        board[i][j] = null;
-      }
+    this(3, 3);
+  }
+
+  /**
+   * Creates a new game on a size-by-size board, won by the first player to place winLength
+   * markers in a row. Sets the initial player turn to X.
+   *
+   * @param size      the number of rows and columns of the board
+   * @param winLength the number of markers in a row needed to win
+   * @throws IllegalArgumentException if size is not positive, or winLength is not between 1 and
+   *                                  size
+   */
+  public TicTacToeModel(int size, int winLength) throws IllegalArgumentException {
+    if (size < 1) {
+      throw new IllegalArgumentException("Board size must be positive!");
+    } else if (winLength < 1 || winLength > size) {
+      throw new IllegalArgumentException("Win length must be between 1 and the board size!");
     }
+    this.size = size;
+    this.winLength = winLength;
+    this.moveCount = 0;
+    this.winner = null;
+    this.moves = new int[size * size];
+    this.redoCount = 0;
+    this.hash = new SymmetricHash(size);
+    turn = Player.X;
+    board = new Player[size][size]; // new arrays are already filled with null
   }
 
   /**
    * Returns a string representation of the current state of the tic-tac-toe board.
-   * The board is formatted as a 3x3 grid, with each cell represented by the corresponding
+   * The board is formatted as a grid, with each cell represented by the corresponding
    * player's mark (X, O), or an empty space if the cell is unmarked.
    *
    * @return a string representation of the tic-tac-toe board
    */
   @Override
   public String toString() {
-    // Using Java stream API to save code:
-    return Arrays.stream(getBoard()).map(
-            row -> " " + Arrays.stream(row).map(
-                p -> p == null ? " " : p.toString()).collect(Collectors.joining(" | ")))
-        .collect(Collectors.joining("\n-----------\n"));
-    // This is the equivalent code as above, but using iteration, and still using
-    // the helpful built-in String.join method.
+    StringBuilder sb = new StringBuilder(8 * size * size);
+    try {
+      this.appendTo(sb);
+    } catch (IOException e) {
+      throw new IllegalStateException(e); // a StringBuilder never throws
+    }
+    return sb.toString();
   }
 
   @Override public void move(int r, int c) throws IllegalArgumentException, IllegalStateException {
-    if (r < 0 || r >= board.length || c < 0 || c >= board[0].length) {
-      throw new IllegalArgumentException("Position is out of bounds!");
+    MoveStatus.check(this.tryMove(r, c));
+  }
+
+  @Override public int tryMove(int r, int c) {
+    if (r < 0 || r >= size || c < 0 || c >= size) {
+      return MoveStatus.OUT_OF_BOUNDS;
     } else if (this.isGameOver()) {
-      throw new IllegalStateException("Game is over!");
+      return MoveStatus.GAME_OVER;
     } else if (board[r][c] != null) {
-      throw new IllegalArgumentException("Position occupied");
+      return MoveStatus.OCCUPIED;
     } else {
-      board[r][c] = this.getTurn();
-      this.turn = this.getTurn() == Player.X ? Player.O : Player.X;
+      this.place(r, c);
+      redoCount = moveCount;
+      return MoveStatus.OK;
     }
   }
 
+  @Override public void undo() throws IllegalStateException {
+    if (moveCount == 0) {
+      throw new IllegalStateException("No moves to undo!");
+    }
+    int cell = moves[--moveCount];
+    hash.toggle(cell, board[cell / size][cell % size]);
+    board[cell / size][cell % size] = null;
+    winner = null; // a finished game can only have been won by its last move
+    this.turn = this.turn == Player.X ? Player.O : Player.X;
+    listeners.fireUndo(cell / size, cell % size, turn);
+  }
+
+  @Override public void redo() throws IllegalStateException {
+    if (!this.canRedo()) {
+      throw new IllegalStateException("No moves to redo!");
+    }
+    int cell = moves[moveCount];
+    this.place(cell / size, cell % size);
+  }
+
+  @Override public boolean canRedo() {
+    return moveCount < redoCount;
+  }
+
+  @Override public void reset() {
+    // only the cells of the moves played can be marked, so clear those rather than the board
+    for (int i = 0; i < moveCount; i++) {
+      board[moves[i] / size][moves[i] % size] = null;
+    }
+    moveCount = 0;
+    redoCount = 0;
+    winner = null;
+    turn = Player.X;
+    hash.clear();
+    listeners.fireReset();
+  }
+
+  @Override public int getMoveCount() {
+    return moveCount;
+  }
+
+  @Override public int[] getMoveHistory() {
+    return Arrays.copyOf(moves, moveCount);
+  }
+
   @Override public Player getTurn() {
     return this.turn;
   }
 
   @Override public boolean isGameOver() {
-    if (this.isFull()) {
-      return true;
-    } else if (this.checkRow() || this.checkCol() || this.checkDiag()) {
-      return true;
-    }
-    return false;
+    return winner != null || this.isFull();
   }
 
   @Override public Player getWinner() {
-    if (this.checkRow() || this.checkCol() || this.checkDiag()) {
-      Player winner = this.getTurn() == Player.X ? Player.O : Player.X;
-      return winner;
-    } else {
-      return null;
-    }
+    return winner;
   }
 
   @Override public Player[][] getBoard() {
@@ -95,76 +171,123 @@ public class TicTacToeModel implements tictactoe.TicTacToe {
   }
 
   @Override public Player getMarkAt(int r, int c) throws IllegalArgumentException {
-    if (r < 0 || r >= board.length || c < 0 || c >= board[0].length) {
+    if (r < 0 || r >= size || c < 0 || c >= size) {
       throw new IllegalArgumentException("Position is out of bounds!");
     }
 
     return board[r][c];
   }
 
+  @Override public void forEachCell(CellVisitor visitor) {
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        visitor.visit(i, j, board[i][j]);
+      }
+    }
+  }
+
+  @Override public int getSize() {
+    return size;
+  }
+
+  @Override public int getWinLength() {
+    return winLength;
+  }
+
+  @Override public long getHash() {
+    return hash.hash();
+  }
+
+  @Override public long getCanonicalHash() {
+    return hash.canonical();
+  }
+
+  @Override public int getCanonicalSymmetry() {
+    return hash.symmetry();
+  }
+
+  @Override public void addListener(TicTacToeListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override public void removeListener(TicTacToeListener listener) {
+    listeners.remove(listener);
+  }
+
+  @Override public void removeAllListeners() {
+    listeners.clear();
+  }
+
   /**
    * Checks if the game board is full, i.e., all positions are occupied by players.
    *
    * @return true if the game board is full, false otherwise
    */
   private boolean isFull() {
-    for (int i = 0; i < board.length; i++) {
-      for (int j = 0; j < board[i].length; j++) {
-        if (board[i][j] == null) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return moveCount == size * size;
   }
 
   /**
-   * Checks if there is a winning row on the game board.
+   * Checks whether the mark just placed at the given position completes a winning line.
+   * Only the four lines through that position are inspected, stopping at most winLength - 1
+   * cells away in each direction.
    *
-   * @return true if there is a winning row, false otherwise
+   * @param r      the row of the last move
+   * @param c      the column of the last move
+   * @param player the player who made the last move
+   * @return true if the move wins the game, false otherwise
    */
-  private boolean checkRow() {
-    for (int i = 0; i < 3; i++) {
-      if (board[i][0] != null) {
-        if ((board[i][0].equals(board[i][1])) && (board[i][1].equals(board[i][2]))) {
-          return true;
-        }
+  private boolean isWinningMove(int r, int c, Player player) {
+    for (int[] dir : DIRECTIONS) {
+      int count = 1 + this.countFrom(r, c, dir[0], dir[1], player)
+          + this.countFrom(r, c, -dir[0], -dir[1], player);
+      if (count >= winLength) {
+        return true;
       }
     }
     return false;
   }
 
   /**
-   * Checks if there is a winning column on the game board.
+   * Counts consecutive markers of the given player starting next to (r, c) and stepping by
+   * (dr, dc), up to winLength - 1 cells.
    *
-   * @return true if there is a winning column, false otherwise
+   * @param r      the starting row
+   * @param c      the starting column
+   * @param dr     the row step
+   * @param dc     the column step
+   * @param player the player whose markers are counted
+   * @return the number of consecutive markers found
    */
-  private boolean checkCol() {
-    for (int i = 0; i < 3; i++) {
-      if (board[0][i] != null) {
-        if ((board[0][i].equals(board[1][i])) && (board[1][i].equals(board[2][i]))) {
-          return true;
-        }
-      }
+  private int countFrom(int r, int c, int dr, int dc, Player player) {
+    int count = 0;
+    int i = r + dr;
+    int j = c + dc;
+    while (count < winLength - 1 && i >= 0 && i < size && j >= 0 && j < size
+        && board[i][j] == player) {
+      count++;
+      i += dr;
+      j += dc;
     }
-    return false;
+    return count;
   }
 
   /**
-   * Checks if there is a winning diagonal on the game board.
+   * Marks an empty position for the player whose turn it is, records the move, updates the
+   * winner and the turn, and notifies the listeners.
    *
-   * @return true if there is a winning diagonal, false otherwise
+   * @param r the row of the move
+   * @param c the column of the move
    */
-  private boolean checkDiag() {
-    if (board[0][0] != null && board[0][0].equals(board[1][1]) && board[1][1].equals(board[2][2])) {
-      return true;
-    }
-
-    if (board[0][2] != null && board[0][2].equals(board[1][1]) && board[1][1].equals(board[2][0])) {
-      return true;
+  private void place(int r, int c) {
+    Player mover = this.getTurn();
+    board[r][c] = mover;
+    moves[moveCount++] = r * size + c;
+    hash.toggle(r * size + c, mover);
+    if (this.isWinningMove(r, c, mover)) {
+      winner = mover;
     }
-
-    return false;
+    this.turn = mover == Player.X ? Player.O : Player.X;
+    listeners.fireMove(r, c, mover, this.isGameOver(), winner);
   }
 }
-
@@ -0,0 +1,162 @@
+package tictactoe;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A pool of reusable games, so hosts that start and finish many games, such as
+ * {@link TicTacToeServer}, recycle them instead of allocating a new board for every game. A
+ * released game loses its listeners, is {@linkplain TicTacToe#reset() reset} and is kept for the
+ * next {@link #acquire()}; a game is only created when none is available.
+ *
+ * <p>Each thread keeps its own bounded stack of free games, so acquiring and releasing take no
+ * lock and share no memory between threads. A game released on another thread than the one
+ * that acquired it joins the releasing thread's stack. The pool holds at most
+ * {@code capacityPerThread} free games per thread that has released one; games released beyond
+ * that are left to the garbage collector.
+ */
+public final class TicTacToePool {
+  private final Supplier<? extends TicTacToe> factory;
+  private final int capacityPerThread;
+  private final ThreadLocal<FreeGames> free;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder discards = new LongAdder();
+
+  /**
+   * Creates an empty pool.
+   *
+   * @param factory           creates a game when none is free; every game it creates must have
+   *                          the same rules
+   * @param capacityPerThread the maximum number of free games each thread keeps
+   * @throws IllegalArgumentException if the factory is null or the capacity is not positive
+   */
+  public TicTacToePool(Supplier<? extends TicTacToe> factory, int capacityPerThread)
+      throws IllegalArgumentException {
+    if (factory == null) {
+      throw new IllegalArgumentException("Factory cannot be null!");
+    } else if (capacityPerThread < 1) {
+      throw new IllegalArgumentException("Capacity must be positive!");
+    }
+    this.factory = factory;
+    this.capacityPerThread = capacityPerThread;
+    this.free = ThreadLocal.withInitial(() -> new FreeGames(capacityPerThread));
+  }
+
+  /**
+   * Returns a new game: a free one from this thread's stack if there is one, otherwise one
+   * created by the factory.
+   *
+   * @return a game with no moves made and no listeners
+   */
+  public TicTacToe acquire() {
+    TicTacToe game = free.get().pop();
+    if (game != null) {
+      hits.increment();
+      return game;
+    }
+    misses.increment();
+    return factory.get();
+  }
+
+  /**
+   * Removes the given game's listeners, resets it and keeps it for a later {@link #acquire()},
+   * unless this thread's stack is full. The caller must not use the game afterwards.
+   *
+   * @param game a game created by this pool's factory
+   * @throws IllegalArgumentException if the game is null
+   */
+  public void release(TicTacToe game) throws IllegalArgumentException {
+    if (game == null) {
+      throw new IllegalArgumentException("Game cannot be null!");
+    }
+    // removed first, so the last owner's listeners do not hear the reset
+    game.removeAllListeners();
+    game.reset();
+    if (!free.get().push(game)) {
+      discards.increment();
+    }
+  }
+
+  /**
+   * Returns the maximum number of free games each thread keeps.
+   *
+   * @return the capacity per thread
+   */
+  public int getCapacityPerThread() {
+    return capacityPerThread;
+  }
+
+  /**
+   * Returns the number of acquisitions served by a free game.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of acquisitions that had to create a game.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of released games dropped because the releasing thread's stack was full.
+   *
+   * @return the discard count
+   */
+  public long getDiscards() {
+    return discards.sum();
+  }
+
+  /**
+   * Returns the fraction of acquisitions served by a free game.
+   *
+   * @return the hit rate, or 0 if nothing was acquired yet
+   */
+  public double getHitRate() {
+    long h = hits.sum();
+    long total = h + misses.sum();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d hits, %d misses (%.1f%% hit rate), %d discards", getHits(),
+        getMisses(), 100 * getHitRate(), getDiscards());
+  }
+
+  /**
+   * One thread's stack of free games.
+   */
+  private static final class FreeGames {
+    private final TicTacToe[] games;
+    private int count;
+
+    FreeGames(int capacity) {
+      this.games = new TicTacToe[capacity];
+    }
+
+    TicTacToe pop() {
+      if (count == 0) {
+        return null;
+      }
+      TicTacToe game = games[--count];
+      games[count] = null;
+      return game;
+    }
+
+    boolean push(TicTacToe game) {
+      if (count == games.length) {
+        return false;
+      }
+      games[count++] = game;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,633 @@
+package tictactoe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A headless server hosting many concurrent games over a line-based text protocol on a local
+ * socket. Connections are spread over a few NIO event loops, each multiplexing its connections
+ * on one {@link Selector}, so tens of thousands of games need no more threads than cores. A
+ * connection may run any number of games at once, and requests may be pipelined; responses come
+ * back in request order.
+ *
+ * <p>Each request is one line of ASCII, answered by one line starting with {@code OK} or
+ * {@code ERR}:
+ * <ul>
+ *   <li>{@code NEW} or {@code NEW size winLength} starts a game: {@code OK id}</li>
+ *   <li>{@code MOVE id row col} marks a cell for the player whose turn it is:
+ *       {@code OK X} or {@code OK O} naming the next player, {@code OK WIN X} or
+ *       {@code OK WIN O}, or {@code OK DRAW}</li>
+ *   <li>{@code BOARD id} shows the board in row-major order: {@code OK X.O......}</li>
+ *   <li>{@code END id} discards a game: {@code OK}</li>
+ * </ul>
+ * Game ids are shared: any connection that knows an id may move in or show the game, so two
+ * clients can play each other, but only the connection that started a game may end it, and
+ * {@code END} from any other answers {@code ERR Not your game}. Games a connection started are
+ * discarded when it closes. A request longer than 4096 bytes is answered with
+ * {@code ERR Request too long}, and the rest of it is skipped up to its end of line.
+ *
+ * <p>A client that pipelines requests without reading the responses is throttled: once more
+ * than 64 KB of responses are waiting to be written, the server stops reading and answering the
+ * connection's requests until the client has read them. The responses buffered for a connection
+ * are therefore bounded by 64 KB plus the largest single response, a {@code BOARD} of the largest
+ * game.
+ *
+ * <p>Standard three-by-three games are drawn from a {@link TicTacToePool} and returned to it
+ * when discarded, so steady session churn allocates no new boards.
+ *
+ * <p>A server given a {@link MoveJournal} journals every game under its id, and on startup hosts
+ * the games recovered from the journal under their old ids, so games in progress survive a
+ * crash. Recovered games belong to no connection: they stay until a client ends them, which any
+ * client may. The server should be closed before its journal. If the journal fails, or is closed
+ * first, {@code NEW} and {@code MOVE} are answered with {@code ERR Journal failed}, since their
+ * games could no longer be recovered; games already hosted can still be shown and ended.
+ */
+public class TicTacToeServer implements Closeable {
+  private static final int BUFFER_BYTES = 4096;
+  private static final int HIGH_WATER_BYTES = 64 * 1024;
+  private static final int MAX_SIZE = 1024;
+  private static final int POOL_CAPACITY = 1024;
+  private static final byte[] OK = ascii("OK");
+  private static final byte[] OK_X = ascii("OK X");
+  private static final byte[] OK_O = ascii("OK O");
+  private static final byte[] OK_WIN_X = ascii("OK WIN X");
+  private static final byte[] OK_WIN_O = ascii("OK WIN O");
+  private static final byte[] OK_DRAW = ascii("OK DRAW");
+  // the error reply for each MoveStatus code
+  private static final byte[][] MOVE_ERRORS = new byte[MoveStatus.WRONG_TURN + 1][];
+
+  static {
+    for (int code = 1; code < MOVE_ERRORS.length; code++) {
+      MOVE_ERRORS[code] = ascii("ERR " + MoveStatus.message(code));
+    }
+  }
+
+  private final ServerSocketChannel serverChannel;
+  private final EventLoop[] loops;
+  private final Thread acceptor;
+  private final ConcurrentMap<Long, TicTacToe> games = new ConcurrentHashMap<>();
+  // the recovered games no connection has ended yet, which any connection may end
+  private final Set<Long> orphans = ConcurrentHashMap.newKeySet();
+  private final AtomicLong nextGameId = new AtomicLong(1);
+  private final TicTacToePool standardGames =
+      new TicTacToePool(() -> GameMetrics.global().wrap(new TicTacToeModel()), POOL_CAPACITY);
+  private final MoveJournal journal;
+  private volatile boolean running;
+
+  /**
+   * Creates a server listening on the loopback interface.
+   *
+   * @param port       the port to listen on, or 0 for any free port
+   * @param eventLoops the number of event loop threads
+   * @throws IOException              if the socket cannot be bound
+   * @throws IllegalArgumentException if eventLoops is not positive
+   */
+  public TicTacToeServer(int port, int eventLoops) throws IOException, IllegalArgumentException {
+    this(port, eventLoops, null);
+  }
+
+  /**
+   * Creates a server listening on the loopback interface, journaling its games and hosting the
+   * games recovered from the journal.
+   *
+   * @param port       the port to listen on, or 0 for any free port
+   * @param eventLoops the number of event loop threads
+   * @param journal    the journal, or null to keep games only in memory
+   * @throws IOException              if the socket cannot be bound
+   * @throws IllegalArgumentException if eventLoops is not positive
+   */
+  public TicTacToeServer(int port, int eventLoops, MoveJournal journal)
+      throws IOException, IllegalArgumentException {
+    if (eventLoops < 1) {
+      throw new IllegalArgumentException("There must be at least one event loop!");
+    }
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+    this.loops = new EventLoop[eventLoops];
+    for (int i = 0; i < eventLoops; i++) {
+      loops[i] = new EventLoop(Selector.open(), "tictactoe-loop-" + i);
+    }
+    this.acceptor = new Thread(this::acceptConnections, "tictactoe-acceptor");
+    this.journal = journal;
+    if (journal != null) {
+      for (Map.Entry<Long, TicTacToe> entry : journal.getRecoveredGames().entrySet()) {
+        TicTacToe game = GameMetrics.global().wrap(entry.getValue());
+        journal.attach(entry.getKey(), game);
+        games.put(entry.getKey(), game);
+        orphans.add(entry.getKey());
+        nextGameId.accumulateAndGet(entry.getKey() + 1, Math::max);
+      }
+    }
+  }
+
+  /**
+   * Starts accepting connections.
+   */
+  public void start() {
+    running = true;
+    for (EventLoop loop : loops) {
+      loop.thread.start();
+    }
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Returns the number of games currently hosted.
+   *
+   * @return the game count
+   */
+  public int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * Returns the pool the standard three-by-three games are drawn from, and its hit and miss
+   * counts.
+   *
+   * @return the game pool
+   */
+  public TicTacToePool getGamePool() {
+    return standardGames;
+  }
+
+  /**
+   * Stops accepting connections, closes every connection and discards every game.
+   *
+   * @throws IOException if closing the listening socket fails
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    serverChannel.close();
+    for (EventLoop loop : loops) {
+      loop.selector.wakeup();
+    }
+    try {
+      acceptor.join();
+      for (EventLoop loop : loops) {
+        loop.thread.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    games.clear();
+  }
+
+  private void acceptConnections() {
+    int next = 0;
+    while (running) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        loops[next].add(channel);
+        next = (next + 1) % loops.length;
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        if (running) {
+          System.err.println("Accept failed: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * A thread multiplexing many connections on one selector.
+   */
+  private final class EventLoop implements Runnable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+    EventLoop(Selector selector, String name) {
+      this.selector = selector;
+      this.thread = new Thread(this, name);
+    }
+
+    void add(SocketChannel channel) {
+      pending.add(channel);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          SocketChannel channel;
+          while ((channel = pending.poll()) != null) {
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+          }
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Connection connection = (Connection) key.attachment();
+            try {
+              if (key.isReadable()) {
+                connection.read(key);
+              }
+              if (key.isValid() && key.isWritable()) {
+                connection.flush(key);
+              }
+            } catch (IOException e) {
+              connection.close(key);
+            }
+          }
+        }
+      } catch (IOException e) {
+        System.err.println("Event loop failed: " + e.getMessage());
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          ((Connection) key.attachment()).close(key);
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          // nothing more to release
+        }
+      }
+    }
+  }
+
+  /**
+   * One client connection: its buffers and the games it started.
+   */
+  private final class Connection {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+    private long[] owned = new long[4];
+    private int ownedCount;
+    // the request line being parsed: in[pos, end)
+    private int pos;
+    private int end;
+    // whether the rest of a request too long for the input buffer is being skipped
+    private boolean skipping;
+    // whether requests were left unanswered in the input buffer until responses are written
+    private boolean throttled;
+
+    Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    void read(SelectionKey key) throws IOException {
+      if (channel.read(in) < 0) {
+        close(key);
+        return;
+      }
+      handleRequests();
+      flush(key);
+    }
+
+    /**
+     * Answers the complete requests in the input buffer, stopping early if the responses waiting
+     * to be written pass the high-water mark.
+     */
+    private void handleRequests() {
+      in.flip();
+      int start = in.position();
+      for (int i = start; i < in.limit() && out.position() < HIGH_WATER_BYTES; i++) {
+        if (in.get(i) == '\n') {
+          if (skipping) {
+            skipping = false;
+          } else {
+            pos = start;
+            end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+            handleRequest();
+          }
+          start = i + 1;
+        }
+      }
+      throttled = out.position() >= HIGH_WATER_BYTES;
+      in.position(start);
+      in.compact();
+      if (!throttled && in.position() == in.capacity()) {
+        // no end of line in a full buffer: answer the request once, then skip up to its end
+        in.clear();
+        if (!skipping) {
+          skipping = true;
+          reply("ERR Request too long");
+        }
+      }
+    }
+
+    /**
+     * Writes as many waiting responses as the socket takes, answers the requests held back
+     * while the responses were over the high-water mark once they are under it again, and reads
+     * more requests only while they are.
+     */
+    void flush(SelectionKey key) throws IOException {
+      while (true) {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        if (!throttled || out.position() >= HIGH_WATER_BYTES) {
+          break;
+        }
+        handleRequests();
+      }
+      if (out.position() == 0 && out.capacity() > HIGH_WATER_BYTES) {
+        out = ByteBuffer.allocate(BUFFER_BYTES); // let a large board's response go
+      }
+      int ops = out.position() > 0 ? SelectionKey.OP_WRITE : 0;
+      key.interestOps(out.position() < HIGH_WATER_BYTES ? ops | SelectionKey.OP_READ : ops);
+    }
+
+    void close(SelectionKey key) {
+      key.cancel();
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // the connection is gone either way
+      }
+      for (int i = 0; i < ownedCount; i++) {
+        discard(owned[i], games.remove(owned[i]));
+      }
+      ownedCount = 0;
+    }
+
+    private void handleRequest() {
+      if (matchWord("MOVE")) {
+        long id = nextNumber();
+        long r = nextNumber();
+        long c = nextNumber();
+        TicTacToe game = id < 0 ? null : games.get(id);
+        if (r < 0 || c < 0 || !atEnd()) {
+          reply("ERR Usage: MOVE id row col");
+        } else if (game == null) {
+          reply("ERR No such game");
+        } else if (journalDown()) {
+          reply("ERR Journal failed");
+        } else {
+          move(id, game, (int) Math.min(r, Integer.MAX_VALUE),
+              (int) Math.min(c, Integer.MAX_VALUE));
+        }
+      } else if (matchWord("NEW")) {
+        long size = 3;
+        long winLength = 3;
+        if (!atEnd()) {
+          size = nextNumber();
+          winLength = nextNumber();
+        }
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size || !atEnd()) {
+          reply("ERR Usage: NEW [size winLength]");
+        } else if (journalDown()) {
+          reply("ERR Journal failed");
+        } else {
+          long id = nextGameId.getAndIncrement();
+          boolean standard = size == 3 && winLength == 3;
+          TicTacToe game = standard ? standardGames.acquire()
+              : GameMetrics.global().wrap(new TicTacToeModel((int) size, (int) winLength));
+          if (journal != null) {
+            try {
+              journal.attach(id, game);
+            } catch (IllegalStateException e) {
+              // the journal failed or was closed since it was checked
+              if (standard) {
+                standardGames.release(game);
+              }
+              reply("ERR Journal failed");
+              return;
+            }
+          }
+          games.put(id, game);
+          own(id);
+          ensureCapacity(24);
+          out.put((byte) 'O').put((byte) 'K').put((byte) ' ');
+          putNumber(id);
+          out.put((byte) '\n');
+        }
+      } else if (matchWord("BOARD")) {
+        long id = nextNumber();
+        TicTacToe game = id < 0 || !atEnd() ? null : games.get(id);
+        if (game == null) {
+          reply("ERR No such game");
+        } else {
+          synchronized (game) {
+            if (games.get(id) != game) {
+              reply("ERR No such game"); // ended, and possibly reused, since it was looked up
+              return;
+            }
+            ensureCapacity(game.getSize() * game.getSize() + 4);
+            out.put((byte) 'O').put((byte) 'K').put((byte) ' ');
+            game.forEachCell((r, c, mark) ->
+                out.put((byte) (mark == null ? '.' : mark == Player.X ? 'X' : 'O')));
+            out.put((byte) '\n');
+          }
+        }
+      } else if (matchWord("END")) {
+        long id = nextNumber();
+        if (id < 0 || !atEnd() || !games.containsKey(id)) {
+          reply("ERR No such game");
+        } else if (!disown(id) && !orphans.remove(id)) {
+          reply("ERR Not your game");
+        } else {
+          discard(id, games.remove(id));
+          reply(OK);
+        }
+      } else {
+        reply("ERR Unknown command");
+      }
+    }
+
+    private void move(long id, TicTacToe game, int r, int c) {
+      synchronized (game) {
+        if (games.get(id) != game) {
+          reply("ERR No such game"); // ended, and possibly reused, since it was looked up
+          return;
+        }
+        int status = game.tryMove(r, c);
+        if (status != MoveStatus.OK) {
+          reply(MOVE_ERRORS[status]);
+        } else if (game.getWinner() != null) {
+          reply(game.getWinner() == Player.X ? OK_WIN_X : OK_WIN_O);
+        } else if (game.isGameOver()) {
+          reply(OK_DRAW);
+        } else {
+          reply(game.getTurn() == Player.X ? OK_X : OK_O);
+        }
+      }
+    }
+
+    /**
+     * Ends the journal session of a game that has been removed from the server, and returns the
+     * game to the pool if it came from there. Requests that looked the game up before it was
+     * removed recheck that it is still hosted under their id while holding its lock, so they
+     * cannot touch it once it is reused.
+     */
+    private void discard(long id, TicTacToe game) {
+      if (game == null) {
+        return;
+      }
+      synchronized (game) {
+        if (journal != null) {
+          try {
+            journal.detach(id);
+          } catch (IllegalStateException e) {
+            // the journal failed or was closed: the game is gone from this server regardless
+          }
+        }
+        if (game.getSize() == 3 && game.getWinLength() == 3) {
+          standardGames.release(game);
+        }
+      }
+    }
+
+    /**
+     * Returns whether the journal can no longer record games, so new games and moves are
+     * refused.
+     */
+    private boolean journalDown() {
+      return journal != null && (journal.isFailed() || journal.isClosed());
+    }
+
+    private void own(long id) {
+      if (ownedCount == owned.length) {
+        owned = Arrays.copyOf(owned, owned.length * 2);
+      }
+      owned[ownedCount++] = id;
+    }
+
+    /** Removes a game from those this connection started, returning whether it was one. */
+    private boolean disown(long id) {
+      for (int i = 0; i < ownedCount; i++) {
+        if (owned[i] == id) {
+          owned[i] = owned[--ownedCount];
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Consumes the given word if the request continues with it. */
+    private boolean matchWord(String word) {
+      skipSpaces();
+      int len = word.length();
+      if (end - pos < len || (end - pos > len && in.get(pos + len) != ' ')) {
+        return false;
+      }
+      for (int i = 0; i < len; i++) {
+        if (in.get(pos + i) != word.charAt(i)) {
+          return false;
+        }
+      }
+      pos += len;
+      return true;
+    }
+
+    /** Consumes a non-negative decimal number, or returns -1 if there isn't one. */
+    private long nextNumber() {
+      skipSpaces();
+      long value = 0;
+      int digits = 0;
+      while (pos < end && in.get(pos) >= '0' && in.get(pos) <= '9') {
+        if (digits++ < 18) {
+          value = value * 10 + in.get(pos) - '0';
+        }
+        pos++;
+      }
+      if (digits == 0 || digits > 18 || (pos < end && in.get(pos) != ' ')) {
+        return -1;
+      }
+      return value;
+    }
+
+    private boolean atEnd() {
+      skipSpaces();
+      return pos == end;
+    }
+
+    private void skipSpaces() {
+      while (pos < end && in.get(pos) == ' ') {
+        pos++;
+      }
+    }
+
+    private void reply(String line) {
+      reply(ascii(line));
+    }
+
+    private void reply(byte[] line) {
+      ensureCapacity(line.length + 1);
+      out.put(line).put((byte) '\n');
+    }
+
+    private void putNumber(long value) {
+      if (value >= 10) {
+        putNumber(value / 10);
+      }
+      out.put((byte) ('0' + value % 10));
+    }
+
+    // a request is only answered below the high-water mark, which bounds the buffer's growth
+    private void ensureCapacity(int bytes) {
+      if (out.remaining() < bytes) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2,
+            out.position() + bytes));
+        out.flip();
+        bigger.put(out);
+        out = bigger;
+      }
+    }
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Runs the server until the process is killed. With {@code -Dtictactoe.metrics=true}, its
+   * games are instrumented and the {@link GameMetrics} are published over JMX.
+   *
+   * @param args Command-line arguments: the port (default 7007), the number of event loops
+   *             (default: one per core), and a journal directory to recover games from and
+   *             journal them to (default: none). The journal commits every 256 records or
+   *             10 ms, and snapshots every million records.
+   * @throws IOException if the server cannot start
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7007;
+    int loops = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    MoveJournal journal = args.length > 2
+        ? new MoveJournal(Paths.get(args[2]), 256, 10, 1_000_000) : null;
+    if (GameMetrics.isEnabled()) {
+      GameMetrics.global().register("server");
+    }
+    TicTacToeServer server = new TicTacToeServer(port, loops, journal);
+    server.start();
+    System.out.println("Tic Tac Toe server listening on port " + server.getPort()
+        + (journal == null ? "" : ", " + server.getGameCount() + " games recovered"));
+  }
+}
@@ -1,7 +1,5 @@
 package tictactoe;
 
-import java.awt.event.ActionListener;
-
 /**
  * Defines the contract for the view in a Tic-Tac-Toe game.
  * View is responsible for displaying the game board, moves, turn information, and game results.
@@ -16,12 +14,13 @@ public interface TicTacToeView {
 
 
   /**
-   * Adds an ActionListener to the view, allowing it to receive user input events.
-   * The ActionListener is used to capture user interactions.
+   * Adds a listener to the view, to be told which cell the user selects.
+   * The view passes the cell's coordinates directly, so the listener does not need to decode
+   * them from the event.
    *
-   * @param listener The ActionListener to be added.
+   * @param listener The listener to be added.
    */
-  void addActionListener(ActionListener listener);
+  void addClickListener(CellClickListener listener);
 
   /**
    * Displays a player's move on the game board.
@@ -34,6 +33,15 @@ public interface TicTacToeView {
    */
   void displayMove(int row, int col, String currentPlayer);
 
+  /**
+   * Clears a cell of the game board.
+   * This method is called when a move is taken back, and makes the cell selectable again.
+   *
+   * @param row The row index of the cell.
+   * @param col The column index of the cell.
+   */
+  void clearMove(int row, int col);
+
   /**
    * Updates the label indicating whose turn it is to play.
    *
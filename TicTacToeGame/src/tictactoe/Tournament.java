@@ -0,0 +1,394 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays {@link Strategy} implementations against each other and ranks them. Entrants are paired
+ * either round-robin, everyone against everyone, or in Swiss rounds, where entrants with similar
+ * scores meet and pairings are not repeated while a new opponent is left. Each pairing is a
+ * match of a fixed number of games with the entrants swapping sides every game.
+ *
+ * <p>Most strategies are deterministic, so every game of a match would otherwise be the same.
+ * Each game therefore starts with a few random moves, and both games of a pair, one with each
+ * entrant as X, start with the same ones.
+ *
+ * <p>The games of a round are independent tasks on a thread pool. As in
+ * {@link SelfPlaySimulator}, each worker thread keeps one reusable game and its own instance of
+ * every entrant's strategy, since strategies need not be thread-safe. Results are applied in
+ * schedule order, not completion order, and random openings are drawn from the tournament seed,
+ * so the same seed gives the same standings on any number of threads when the strategies are
+ * deterministic. Elo ratings are updated after every game, starting from 1500.
+ *
+ * <p>A strategy that throws or chooses an illegal move forfeits the game. Only the time spent in
+ * {@link Strategy#chooseMove(TicTacToe)} is counted as an entrant's thinking time.
+ */
+public class Tournament {
+  private static final double INITIAL_RATING = 1500;
+  private static final double K_FACTOR = 16;
+
+  private final Supplier<? extends TicTacToe> games;
+  private final int gamesPerPairing;
+  private final int openingPlies;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<Worker> workers;
+  private final List<String> names = new ArrayList<>();
+  private final List<Supplier<? extends Strategy>> strategies = new ArrayList<>();
+
+  /**
+   * Creates a tournament with no entrants.
+   *
+   * @param games           creates the game each worker thread reuses, which sets the rules
+   * @param gamesPerPairing the number of games each pairing plays
+   * @param openingPlies    the number of random moves each game starts with
+   * @param parallelism     the number of worker threads
+   * @throws IllegalArgumentException if the game count or parallelism is not positive, or the
+   *                                  number of opening moves is negative
+   */
+  public Tournament(Supplier<? extends TicTacToe> games, int gamesPerPairing, int openingPlies,
+                    int parallelism) throws IllegalArgumentException {
+    if (gamesPerPairing < 1) {
+      throw new IllegalArgumentException("Games per pairing must be positive!");
+    } else if (openingPlies < 0) {
+      throw new IllegalArgumentException("Opening plies cannot be negative!");
+    } else if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive!");
+    }
+    this.games = games;
+    this.gamesPerPairing = gamesPerPairing;
+    this.openingPlies = openingPlies;
+    this.pool = new ForkJoinPool(parallelism);
+    this.workers = ThreadLocal.withInitial(Worker::new);
+  }
+
+  /**
+   * Adds an entrant. Entrants must not be added while a tournament is being played.
+   *
+   * @param name       the entrant's name, unique in this tournament
+   * @param strategies creates the strategy instance each worker thread plays the entrant with
+   * @throws IllegalArgumentException if the name is taken or either argument is null
+   */
+  public void addEntrant(String name, Supplier<? extends Strategy> strategies)
+      throws IllegalArgumentException {
+    if (name == null || strategies == null) {
+      throw new IllegalArgumentException("Name and strategy cannot be null!");
+    } else if (names.contains(name)) {
+      throw new IllegalArgumentException("Entrant already exists: " + name);
+    }
+    names.add(name);
+    this.strategies.add(strategies);
+  }
+
+  /**
+   * Plays every entrant against every other.
+   *
+   * @param seed the seed for the random openings
+   * @return the standings
+   * @throws IllegalStateException if there are fewer than two entrants
+   */
+  public TournamentResult roundRobin(long seed) throws IllegalStateException {
+    Table table = new Table();
+    List<int[]> pairings = new ArrayList<>();
+    for (int a = 0; a < table.count; a++) {
+      for (int b = a + 1; b < table.count; b++) {
+        pairings.add(new int[] {a, b});
+      }
+    }
+    table.play(pairings, new SplittableRandom(seed));
+    return table.result();
+  }
+
+  /**
+   * Plays the given number of Swiss rounds. Before each round, entrants are ranked by points
+   * and then rating, and each is paired with the next-ranked entrant it has not yet met, or the
+   * last one left if it has met them all. With an odd number of entrants, the lowest-ranked
+   * entrant with the fewest byes sits the round out.
+   *
+   * @param rounds the number of rounds
+   * @param seed   the seed for the random openings
+   * @return the standings
+   * @throws IllegalArgumentException if the number of rounds is not positive
+   * @throws IllegalStateException    if there are fewer than two entrants
+   */
+  public TournamentResult swiss(int rounds, long seed) throws IllegalArgumentException,
+      IllegalStateException {
+    if (rounds < 1) {
+      throw new IllegalArgumentException("Rounds must be positive!");
+    }
+    Table table = new Table();
+    SplittableRandom random = new SplittableRandom(seed);
+    boolean[][] met = new boolean[table.count][table.count];
+    for (int round = 0; round < rounds; round++) {
+      List<Integer> ranked = table.ranking();
+      if (ranked.size() % 2 == 1) {
+        int bye = ranked.get(ranked.size() - 1);
+        for (int i = ranked.size() - 1; i >= 0; i--) {
+          if (table.byes[ranked.get(i)] < table.byes[bye]) {
+            bye = ranked.get(i);
+          }
+        }
+        ranked.remove(Integer.valueOf(bye));
+        table.byes[bye]++;
+        table.points[bye] += gamesPerPairing;
+      }
+      List<int[]> pairings = new ArrayList<>();
+      while (!ranked.isEmpty()) {
+        int a = ranked.remove(0);
+        int pick = 0;
+        while (pick < ranked.size() - 1 && met[a][ranked.get(pick)]) {
+          pick++;
+        }
+        int b = ranked.remove(pick);
+        met[a][b] = true;
+        met[b][a] = true;
+        pairings.add(new int[] {a, b});
+      }
+      table.play(pairings, random);
+    }
+    return table.result();
+  }
+
+  /**
+   * Stops the worker threads. The tournament cannot be used afterwards.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * The running totals of one tournament, indexed by entrant.
+   */
+  private final class Table {
+    private final int count = names.size();
+    private final int[] wins = new int[count];
+    private final int[] draws = new int[count];
+    private final int[] losses = new int[count];
+    private final int[] forfeits = new int[count];
+    private final int[] byes = new int[count];
+    private final double[] points = new double[count];
+    private final double[] ratings = new double[count];
+    private final long[] moves = new long[count];
+    private final long[] thinkNanos = new long[count];
+    private final long start = System.nanoTime();
+    private long played;
+
+    Table() throws IllegalStateException {
+      if (count < 2) {
+        throw new IllegalStateException("A tournament needs at least two entrants!");
+      }
+      Arrays.fill(ratings, INITIAL_RATING);
+    }
+
+    /**
+     * Plays the matches of the given pairings, interleaved so that early games do not all
+     * belong to the same pairing, and applies their results in that order.
+     */
+    void play(List<int[]> pairings, SplittableRandom random) {
+      List<Callable<Outcome>> tasks = new ArrayList<>();
+      long[] openings = new long[pairings.size()];
+      for (int g = 0; g < gamesPerPairing; g++) {
+        for (int p = 0; p < pairings.size(); p++) {
+          if (g % 2 == 0) {
+            openings[p] = random.nextLong();
+          }
+          int[] pairing = pairings.get(p);
+          int x = pairing[g % 2];
+          int o = pairing[1 - g % 2];
+          long opening = openings[p];
+          tasks.add(() -> workers.get().play(x, o, opening));
+        }
+      }
+      for (Future<Outcome> future : pool.invokeAll(tasks)) {
+        try {
+          record(future.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while playing!", e);
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Game failed!", e.getCause());
+        }
+      }
+    }
+
+    private void record(Outcome outcome) {
+      int x = outcome.entrants[0];
+      int o = outcome.entrants[1];
+      for (int side = 0; side < 2; side++) {
+        moves[outcome.entrants[side]] += outcome.moves[side];
+        thinkNanos[outcome.entrants[side]] += outcome.thinkNanos[side];
+      }
+      if (outcome.forfeiter >= 0) {
+        forfeits[outcome.entrants[outcome.forfeiter]]++;
+      }
+      if (outcome.xScore == 1) {
+        wins[x]++;
+        losses[o]++;
+      } else if (outcome.xScore == 0) {
+        wins[o]++;
+        losses[x]++;
+      } else {
+        draws[x]++;
+        draws[o]++;
+      }
+      points[x] += outcome.xScore;
+      points[o] += 1 - outcome.xScore;
+      double expected = 1 / (1 + Math.pow(10, (ratings[o] - ratings[x]) / 400));
+      double change = K_FACTOR * (outcome.xScore - expected);
+      ratings[x] += change;
+      ratings[o] -= change;
+      played++;
+    }
+
+    /**
+     * Returns the entrants ranked by points, then rating, then the order they were added.
+     */
+    List<Integer> ranking() {
+      List<Integer> ranked = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        ranked.add(i);
+      }
+      ranked.sort(Comparator.<Integer>comparingDouble(i -> -points[i])
+          .thenComparingDouble(i -> -ratings[i]));
+      return ranked;
+    }
+
+    TournamentResult result() {
+      List<TournamentResult.Standing> standings = new ArrayList<>();
+      for (int i : ranking()) {
+        standings.add(new TournamentResult.Standing(names.get(i), wins[i], draws[i], losses[i],
+            forfeits[i], byes[i], points[i], ratings[i], moves[i], thinkNanos[i]));
+      }
+      return new TournamentResult(standings, played, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * The result of one game, with per-side statistics indexed 0 for X and 1 for O.
+   */
+  private static final class Outcome {
+    private final int[] entrants;
+    private final long[] moves = new long[2];
+    private final long[] thinkNanos = new long[2];
+    private int forfeiter = -1;
+    // 1 if X won, 0 if O won, one half for a draw
+    private double xScore;
+
+    Outcome(int x, int o) {
+      this.entrants = new int[] {x, o};
+    }
+  }
+
+  /**
+   * The per-thread state: a reusable game and an instance of each entrant's strategy, created
+   * when the thread first plays the entrant.
+   */
+  private final class Worker {
+    private final TicTacToe game = games.get();
+    private Strategy[] players = new Strategy[0];
+
+    Outcome play(int x, int o, long openingSeed) {
+      game.reset();
+      int size = game.getSize();
+      SplittableRandom random = new SplittableRandom(openingSeed);
+      for (int i = 0; i < openingPlies && !game.isGameOver(); i++) {
+        int cell;
+        do {
+          cell = random.nextInt(size * size);
+        } while (game.getMarkAt(cell / size, cell % size) != null);
+        game.move(cell / size, cell % size);
+      }
+      Outcome outcome = new Outcome(x, o);
+      while (!game.isGameOver()) {
+        int side = game.getTurn() == Player.X ? 0 : 1;
+        Strategy strategy = player(outcome.entrants[side]);
+        long start = System.nanoTime();
+        int[] move;
+        try {
+          move = strategy.chooseMove(game);
+        } catch (RuntimeException e) {
+          move = null;
+        }
+        outcome.thinkNanos[side] += System.nanoTime() - start;
+        outcome.moves[side]++;
+        if (move == null || move.length != 2 || game.tryMove(move[0], move[1]) != MoveStatus.OK) {
+          outcome.forfeiter = side;
+          outcome.xScore = side;
+          return outcome;
+        }
+      }
+      Player winner = game.getWinner();
+      outcome.xScore = winner == Player.X ? 1 : winner == Player.O ? 0 : 0.5;
+      return outcome;
+    }
+
+    private Strategy player(int entrant) {
+      if (entrant >= players.length) {
+        players = Arrays.copyOf(players, strategies.size());
+      }
+      if (players[entrant] == null) {
+        players[entrant] = strategies.get(entrant).get();
+      }
+      return players[entrant];
+    }
+  }
+
+  /**
+   * Plays a round-robin tournament between a random player, a shallow search and a full search
+   * on the given rules, and prints the standings.
+   *
+   * @param args Command-line arguments: {@code [--swiss rounds] [--games n] [--threads n]
+   *             [size:winLength]}; by default, a round robin of 100 games per pairing on the
+   *             three-by-three board, on all cores.
+   */
+  public static void main(String[] args) {
+    int rounds = 0;
+    int gamesPerPairing = 100;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int size = 3;
+    int winLength = 3;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      boolean hasValue = i + 1 < args.length;
+      if (arg.equals("--swiss") && hasValue) {
+        rounds = Integer.parseInt(args[++i]);
+      } else if (arg.equals("--games") && hasValue) {
+        gamesPerPairing = Integer.parseInt(args[++i]);
+      } else if (arg.equals("--threads") && hasValue) {
+        threads = Integer.parseInt(args[++i]);
+      } else {
+        String[] parts = arg.split(":");
+        size = Integer.parseInt(parts[0]);
+        winLength = Integer.parseInt(parts[1]);
+      }
+    }
+    int n = size;
+    int k = winLength;
+    Tournament tournament = new Tournament(() -> new TicTacToeModel(n, k), gamesPerPairing,
+        size <= 3 ? 1 : 2, threads);
+    tournament.addEntrant("random", () -> {
+      SplittableRandom random = new SplittableRandom();
+      return game -> {
+        int cell;
+        do {
+          cell = random.nextInt(n * n);
+        } while (game.getMarkAt(cell / n, cell % n) != null);
+        return new int[] {cell / n, cell % n};
+      };
+    });
+    tournament.addEntrant("negamax-100", () -> new NegamaxStrategy(100, 1000));
+    tournament.addEntrant("negamax-10k", () -> new NegamaxStrategy(10_000, 1000));
+    tournament.addEntrant("negamax", () -> new NegamaxStrategy(Long.MAX_VALUE, 100));
+    TournamentResult result = rounds > 0 ? tournament.swiss(rounds, 42)
+        : tournament.roundRobin(42);
+    tournament.shutdown();
+    System.out.print(result);
+  }
+}
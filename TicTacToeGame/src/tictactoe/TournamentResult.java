@@ -0,0 +1,212 @@
+package tictactoe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The final standings of a {@link Tournament}: each entrant's record, Elo rating and thinking
+ * time, ranked by points and then by rating, and how long the tournament took to play.
+ */
+public final class TournamentResult {
+  private final List<Standing> standings;
+  private final long games;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a result.
+   *
+   * @param standings    the entrants' standings, in rank order
+   * @param games        the number of games played
+   * @param elapsedNanos the wall-clock time taken, in nanoseconds
+   */
+  public TournamentResult(List<Standing> standings, long games, long elapsedNanos) {
+    this.standings = Collections.unmodifiableList(new ArrayList<>(standings));
+    this.games = games;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Returns the standings, best first.
+   *
+   * @return an unmodifiable list of every entrant's standing
+   */
+  public List<Standing> getStandings() {
+    return standings;
+  }
+
+  /**
+   * Returns the standing of the entrant with the given name.
+   *
+   * @param name the entrant's name
+   * @return the entrant's standing
+   * @throws IllegalArgumentException if there is no such entrant
+   */
+  public Standing getStanding(String name) throws IllegalArgumentException {
+    for (Standing standing : standings) {
+      if (standing.getName().equals(name)) {
+        return standing;
+      }
+    }
+    throw new IllegalArgumentException("No such entrant: " + name);
+  }
+
+  /**
+   * Returns the total number of games played.
+   *
+   * @return the game count
+   */
+  public long getGames() {
+    return games;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the throughput of the tournament.
+   *
+   * @return games played per second of wall-clock time
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(String.format("%d games in %.2f s, %.0f games/s%n",
+        games, elapsedNanos / 1e9, getGamesPerSecond()));
+    sb.append(String.format("%4s  %-16s %6s %6s %6s %6s %6s %8s %10s%n", "rank", "entrant",
+        "elo", "games", "won", "drawn", "lost", "points", "us/move"));
+    int rank = 1;
+    for (Standing s : standings) {
+      sb.append(String.format("%4d  %-16s %6.0f %6d %6d %6d %6d %8.1f %10.1f%n", rank++,
+          s.getName(), s.getRating(), s.getGames(), s.getWins(), s.getDraws(), s.getLosses(),
+          s.getPoints(), s.getMeanMoveNanos() / 1e3));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * One entrant's results. A win scores one point and a draw half a point; a bye, in a Swiss
+   * tournament, scores as if every game of the round had been won. Losses include games the
+   * entrant forfeited.
+   */
+  public static final class Standing {
+    private final String name;
+    private final int wins;
+    private final int draws;
+    private final int losses;
+    private final int forfeits;
+    private final int byes;
+    private final double points;
+    private final double rating;
+    private final long moves;
+    private final long thinkNanos;
+
+    Standing(String name, int wins, int draws, int losses, int forfeits, int byes,
+             double points, double rating, long moves, long thinkNanos) {
+      this.name = name;
+      this.wins = wins;
+      this.draws = draws;
+      this.losses = losses;
+      this.forfeits = forfeits;
+      this.byes = byes;
+      this.points = points;
+      this.rating = rating;
+      this.moves = moves;
+      this.thinkNanos = thinkNanos;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the number of games the entrant played.
+     *
+     * @return the game count
+     */
+    public int getGames() {
+      return wins + draws + losses;
+    }
+
+    public int getWins() {
+      return wins;
+    }
+
+    public int getDraws() {
+      return draws;
+    }
+
+    public int getLosses() {
+      return losses;
+    }
+
+    /**
+     * Returns the number of games lost by throwing or choosing an illegal move.
+     *
+     * @return the forfeit count
+     */
+    public int getForfeits() {
+      return forfeits;
+    }
+
+    /**
+     * Returns the number of Swiss rounds the entrant sat out for lack of an opponent.
+     *
+     * @return the bye count
+     */
+    public int getByes() {
+      return byes;
+    }
+
+    public double getPoints() {
+      return points;
+    }
+
+    /**
+     * Returns the entrant's Elo rating after the last game.
+     *
+     * @return the rating; every entrant starts at 1500
+     */
+    public double getRating() {
+      return rating;
+    }
+
+    /**
+     * Returns the number of moves the entrant's strategy chose, not counting random opening
+     * moves.
+     *
+     * @return the move count
+     */
+    public long getMoves() {
+      return moves;
+    }
+
+    /**
+     * Returns the total time the entrant's strategy spent choosing moves.
+     *
+     * @return the thinking time, in nanoseconds
+     */
+    public long getThinkNanos() {
+      return thinkNanos;
+    }
+
+    /**
+     * Returns the mean time the entrant's strategy spent choosing a move.
+     *
+     * @return the mean thinking time per move, in nanoseconds, or 0 if it chose none
+     */
+    public double getMeanMoveNanos() {
+      return moves == 0 ? 0 : (double) thinkNanos / moves;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %d-%d-%d, %.1f points, Elo %.0f, %.1f us/move", name, wins,
+          draws, losses, points, rating, getMeanMoveNanos() / 1e3);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package tictactoe;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, always-replace transposition table for game-tree search, keyed by Zobrist hash.
+ * Each slot holds a packed entry with the score, the search depth, the bound type and the best
+ * move found, and the full key XORed with the entry, so a probe is two array reads and no
+ * allocation.
+ *
+ * <p>A table may be shared by searches on several threads without locking. Slots are written
+ * without synchronization, but a probe that sees one half of a slot from one store and the
+ * other half from another finds that they no longer XOR to its key and reports a miss, so a race
+ * can lose an entry but never return one stored for a different position.
+ */
+final class TranspositionTable {
+  static final int EXACT = 0;
+  static final int LOWER = 1;
+  static final int UPPER = 2;
+
+  /** The value returned by {@link #probe(long)} when the position is not in the table. */
+  static final long MISS = 0L;
+
+  private static final long VALID = 1L << 63;
+
+  private final long[] checks;
+  private final long[] entries;
+  private final int mask;
+
+  /**
+   * Creates a table with 2^log2Size slots.
+   *
+   * @param log2Size the base-two logarithm of the number of slots
+   * @throws IllegalArgumentException if log2Size is not between 1 and 30
+   */
+  TranspositionTable(int log2Size) throws IllegalArgumentException {
+    if (log2Size < 1 || log2Size > 30) {
+      throw new IllegalArgumentException("Table size must be between 2^1 and 2^30!");
+    }
+    this.checks = new long[1 << log2Size];
+    this.entries = new long[1 << log2Size];
+    this.mask = (1 << log2Size) - 1;
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param key the position hash
+   * @return the packed entry, or {@link #MISS} if the position is not stored
+   */
+  long probe(long key) {
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    long entry = entries[slot];
+    return (checks[slot] ^ entry) == key ? entry : MISS;
+  }
+
+  /**
+   * Stores a position, replacing whatever occupied its slot.
+   *
+   * @param key   the position hash
+   * @param score the score of the position
+   * @param depth the depth the position was searched to
+   * @param flag  one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+   * @param move  the best move found, or -1 if none
+   */
+  void store(long key, int score, int depth, int flag, int move) {
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    long entry = pack(score, depth, flag, move);
+    entries[slot] = entry;
+    checks[slot] = key ^ entry;
+  }
+
+  /**
+   * Removes every entry.
+   */
+  void clear() {
+    Arrays.fill(checks, 0L);
+    Arrays.fill(entries, MISS);
+  }
+
+  /**
+   * Packs a table entry. The result is never equal to {@link #MISS}.
+   *
+   * @param score the score of the position
+   * @param depth the search depth, saturated at 255
+   * @param flag  the bound type
+   * @param move  the best move, or -1 if none
+   * @return the packed entry
+   */
+  static long pack(int score, int depth, int flag, int move) {
+    return VALID
+        | ((long) (move + 1) & 0x1FFFFFL) << 42
+        | ((long) flag & 0x3L) << 40
+        | ((long) Math.min(depth, 255) & 0xFFL) << 32
+        | (score & 0xFFFFFFFFL);
+  }
+
+  static int score(long entry) {
+    return (int) entry;
+  }
+
+  static int depth(long entry) {
+    return (int) (entry >>> 32) & 0xFF;
+  }
+
+  static int flag(long entry) {
+    return (int) (entry >>> 40) & 0x3;
+  }
+
+  static int move(long entry) {
+    return (int) ((entry >>> 42) & 0x1FFFFFL) - 1;
+  }
+}
@@ -0,0 +1,81 @@
+package tictactoe;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Zobrist hashing keys for Tic Tac Toe positions. Each (player, cell) pair on a board of a given
+ * size gets a fixed pseudo-random 64-bit key, and a position hashes to the XOR of the keys of its
+ * marks, so placing or removing a mark updates the hash with a single XOR. Keys are generated
+ * from a fixed seed, so hashes are stable across runs.
+ */
+final class Zobrist {
+  private static final long SEED = 0x5DEECE66DL;
+  private static final ConcurrentMap<Integer, long[]> KEYS = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<Integer, long[][]> SYMMETRIC_KEYS =
+      new ConcurrentHashMap<>();
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns the keys for a board of the given size. The key for player p in cell i is at index
+   * {@code p.ordinal() * size * size + i}. The returned array is shared and must not be modified.
+   *
+   * @param size the board size
+   * @return the key table
+   */
+  static long[] keys(int size) {
+    return KEYS.computeIfAbsent(size, s -> {
+      SplittableRandom random = new SplittableRandom(SEED ^ s);
+      long[] keys = new long[2 * s * s];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = random.nextLong();
+      }
+      return keys;
+    });
+  }
+
+  /**
+   * Returns the keys for a board of the given size as seen through each board symmetry: entry
+   * {@code [t][p.ordinal() * size * size + i]} is the key of player p's mark in the cell that
+   * symmetry t moves cell i to. XORing these in as marks are placed maintains the hashes of all
+   * eight symmetric variants of a position at once. The returned arrays are shared and must not
+   * be modified.
+   *
+   * @param size the board size
+   * @return the key tables, one per symmetry, in the order of {@link BoardSymmetry#transforms}
+   */
+  static long[][] symmetricKeys(int size) {
+    return SYMMETRIC_KEYS.computeIfAbsent(size, s -> {
+      long[] keys = keys(s);
+      int[][] transforms = BoardSymmetry.transforms(s);
+      int cells = s * s;
+      long[][] symmetric = new long[BoardSymmetry.COUNT][2 * cells];
+      for (int t = 0; t < BoardSymmetry.COUNT; t++) {
+        for (int p = 0; p < 2; p++) {
+          for (int i = 0; i < cells; i++) {
+            symmetric[t][p * cells + i] = keys[p * cells + transforms[t][i]];
+          }
+        }
+      }
+      return symmetric;
+    });
+  }
+
+  /**
+   * Returns a key that distinguishes games with the same board size but different rules, to be
+   * XORed into a position hash used across differently configured games.
+   *
+   * @param size      the board size
+   * @param winLength the win length
+   * @return the configuration key
+   */
+  static long configKey(int size, int winLength) {
+    long z = ((long) size << 32 | winLength) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
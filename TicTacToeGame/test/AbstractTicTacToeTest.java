@@ -0,0 +1,409 @@
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.MoveStatus;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeListener;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases shared by every implementation of the three-by-three game. Verifying that game state
+ * is properly managed, and all game actions are properly validated; each subclass runs them
+ * against its own implementation.
+ */
+public abstract class AbstractTicTacToeTest {
+
+  protected TicTacToe ttt1;
+  protected TicTacToe exampleGame;
+
+  /**
+   * Returns a new three-by-three game of the implementation under test.
+   *
+   * @return the new game
+   */
+  protected abstract TicTacToe newGame();
+
+  /**
+   * Creates the games the tests play.
+   */
+  @Before
+  public void setUp() {
+    ttt1 = newGame();
+    exampleGame = newGame();
+  }
+
+  /**
+   * Test for the move() method, verifying that the player turn is updated correctly.
+   */
+  @Test
+  public void testMove() {
+    ttt1.move(0, 0);
+    assertEquals(Player.O, ttt1.getTurn());
+  }
+
+  /**
+   * Test for a horizontal win scenario, verifying that the game is correctly declared as over,
+   * the winner is determined, and the game board is updated accordingly.
+   */
+  @Test
+  public void testHorizontalWin() {
+    ttt1.move(0, 0); // X takes upper left
+    assertFalse(ttt1.isGameOver());
+    ttt1.move(1, 0); // O takes middle left
+    ttt1.move(0, 1); // X takes upper middle
+    assertNull(ttt1.getWinner());
+    ttt1.move(2, 0); // O takes lower left
+    ttt1.move(0, 2); // X takes upper right
+    assertTrue(ttt1.isGameOver());
+    assertEquals(Player.X, ttt1.getWinner());
+    assertEquals(" X | X | X\n"
+                          + "-----------\n"
+                          + " O |   |  \n"
+                          + "-----------\n"
+                          + " O |   |  ", ttt1.toString());
+  }
+
+  /**
+   * Test for a diagonal win scenario, verifying that the game is correctly declared as over,
+   * the winner is determined, and the game board is updated accordingly.
+   */
+  @Test
+  public void testDiagonalWin() {
+    diagonalWinHelper();
+    assertTrue(ttt1.isGameOver());
+    assertEquals(Player.O, ttt1.getWinner());
+    assertEquals(" X | X | O\n"
+            + "-----------\n"
+            + " X | O |  \n"
+            + "-----------\n"
+            + " O |   |  ", ttt1.toString());
+  }
+
+  // set up situation where game is over, O wins on the diagonal, board is not full
+  private void diagonalWinHelper() {
+    ttt1.move(0, 0); // X takes upper left
+    assertFalse(ttt1.isGameOver());
+    ttt1.move(2, 0); // O takes lower left
+    ttt1.move(1, 0); // X takes middle left
+    assertNull(ttt1.getWinner());
+    ttt1.move(1, 1); // O takes center
+    ttt1.move(0, 1); // X takes upper middle
+    ttt1.move(0, 2); // O takes upper right
+  }
+
+  /**
+   * Test for an invalid move scenario, verifying that an exception is
+   * thrown and the game state remains unchanged.
+   */
+  @Test
+  public void testInvalidMove() {
+    ttt1.move(0, 0);
+    assertEquals(Player.O, ttt1.getTurn());
+    assertEquals(Player.X, ttt1.getMarkAt(0, 0));
+    try {
+      ttt1.move(0, 0);
+      fail("Invalid move should have thrown exception");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("Position occupied", iae.getMessage());
+      assertTrue(iae.getMessage().length() > 0);
+    }
+    try {
+      ttt1.move(-1, 0);
+      fail("Invalid move should have thrown exception");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("Position is out of bounds!", iae.getMessage());
+      assertTrue(iae.getMessage().length() > 0);
+    }
+  }
+
+  /**
+   * Test for attempting to make a move after the game is already
+   * over, verifying that an exception is thrown.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testMoveAttemptAfterGameOver() {
+    diagonalWinHelper();
+    ttt1.move(2, 2); // 2,2 is an empty position
+  }
+
+  /**
+   * Test for a cats game scenario, verifying that the game is correctly declared as over,
+   * there is no winner, and the game board is updated accordingly.
+   */
+  @Test
+  public void testCatsGame() {
+    ttt1.move(0, 0);
+    assertEquals(Player.O, ttt1.getTurn());
+    ttt1.move(1, 1);
+    assertEquals(Player.X, ttt1.getTurn());
+    ttt1.move(0, 2);
+    ttt1.move(0, 1);
+    ttt1.move(2, 1);
+    ttt1.move(1, 0);
+    ttt1.move(1, 2);
+    ttt1.move(2, 2);
+    ttt1.move(2, 0);
+    assertTrue(ttt1.isGameOver());
+    assertNull(ttt1.getWinner());
+    assertEquals(" X | O | X\n"
+            + "-----------\n"
+            + " O | O | X\n"
+            + "-----------\n"
+            + " X | X | O", ttt1.toString());
+  }
+
+  /**
+   * Test for getting the mark at a valid position.
+   */
+  @Test
+  public void testValidGetMarkAt() {
+    ttt1.move(2, 0);
+    assertEquals(Player.X, ttt1.getMarkAt(2, 0));
+  }
+
+  /**
+   * Test for getting the mark at an invalid row, verifying that an exception is thrown.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidGetMarkAtRow() {
+    ttt1.getMarkAt(-12, 0);
+  }
+
+  /**
+   * Test for getting the mark at an invalid column, verifying that an exception is thrown.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidGetMarkAtCol() {
+    ttt1.getMarkAt(0, -30);
+  }
+
+  /**
+   * Test for the getBoard() method, verifying that the returned game board is a separate copy
+   * and not affected by mutations.
+   */
+  @Test
+  public void testGetBoard() {
+    diagonalWinHelper();
+    Player[][] bd = ttt1.getBoard();
+    assertEquals(Player.X, bd[0][0]);
+    assertEquals(Player.O, bd[1][1]);
+    assertEquals(Player.X, bd[0][1]);
+
+    // attempt to cheat by mutating board returned by getBoard()
+    // check correct preconditions
+    assertEquals(Player.O, bd[2][0]);
+    assertEquals(Player.O, ttt1.getMarkAt(2, 0));
+    bd[2][0] = Player.X;  // mutate
+    // check correct post conditions
+    assertEquals(Player.O, ttt1.getMarkAt(2, 0));
+    Player[][] bd2 = ttt1.getBoard();
+    assertEquals(Player.O, bd2[2][0]);
+  }
+
+  // TODO: test case where board is full AND there is a winner
+  /**
+   * Test for a scenario where the game board is full and there is a winner,
+   * verifying that the game is correctly declared as over and the winner is determined.
+   */
+  @Test
+  public void testFullBoardWithWinner() {
+    assertFalse(exampleGame.isGameOver());
+
+    assertEquals(Player.X, exampleGame.getTurn());
+    exampleGame.move(0, 0);
+    assertEquals(Player.O, exampleGame.getTurn());
+    exampleGame.move(1, 0);
+    assertEquals(Player.X, exampleGame.getTurn());
+    exampleGame.move(1, 1);
+    assertEquals(Player.O, exampleGame.getTurn());
+    exampleGame.move(2, 2);
+    assertEquals(Player.X, exampleGame.getTurn());
+    exampleGame.move(1, 2);
+    assertEquals(Player.O, exampleGame.getTurn());
+    exampleGame.move(0, 2);
+    assertEquals(Player.X, exampleGame.getTurn());
+    exampleGame.move(0, 1);
+    assertEquals(Player.O, exampleGame.getTurn());
+    exampleGame.move(2, 0);
+    assertEquals(Player.X, exampleGame.getTurn());
+    exampleGame.move(2, 1);
+
+    assertTrue(exampleGame.isGameOver());
+    assertEquals(Player.X, exampleGame.getWinner());
+
+    assertEquals(Player.O, exampleGame.getMarkAt(0, 2));
+    assertEquals(Player.X, exampleGame.getMarkAt(1, 1));
+
+    Player[][] bd = exampleGame.getBoard();
+    assertEquals(Player.X, bd[0][0]);
+    assertEquals(Player.O, bd[1][0]);
+    assertEquals(Player.X, bd[2][1]);
+
+    assertEquals(" X | X | O\n"
+        + "-----------\n"
+        + " O | X | X\n"
+        + "-----------\n"
+        + " O | X | O", exampleGame.toString());
+  }
+
+  /**
+   * Test for the forEachCell() method, verifying that every cell is visited once in row-major
+   * order with its current mark.
+   */
+  @Test
+  public void testForEachCell() {
+    diagonalWinHelper();
+    StringBuilder visited = new StringBuilder();
+    ttt1.forEachCell((r, c, mark) ->
+        visited.append(r).append(c).append(mark == null ? "-" : mark.toString()).append(' '));
+    assertEquals("00X 01X 02O 10X 11O 12- 20O 21- 22- ", visited.toString());
+  }
+
+  /**
+   * Test for the appendTo() method, verifying that it writes the same text as toString() after
+   * whatever the destination already holds.
+   */
+  @Test
+  public void testAppendTo() throws IOException {
+    diagonalWinHelper();
+    StringBuilder sb = new StringBuilder("board:\n");
+    ttt1.appendTo(sb);
+    assertEquals("board:\n" + ttt1.toString(), sb.toString());
+  }
+
+  /**
+   * Test for undo() after a winning move, verifying that the winner, the turn and the board are
+   * restored and the game can continue.
+   */
+  @Test
+  public void testUndoWin() {
+    diagonalWinHelper();
+    assertEquals(Player.O, ttt1.getWinner());
+    ttt1.undo();
+    assertFalse(ttt1.isGameOver());
+    assertNull(ttt1.getWinner());
+    assertEquals(Player.O, ttt1.getTurn());
+    assertNull(ttt1.getMarkAt(0, 2));
+    assertEquals(5, ttt1.getMoveCount());
+    ttt1.move(2, 2);
+    assertEquals(Player.X, ttt1.getTurn());
+  }
+
+  /**
+   * Test for redo(), verifying that undone moves are replayed in order, and that a new move
+   * discards them.
+   */
+  @Test
+  public void testRedo() {
+    diagonalWinHelper();
+    ttt1.undo();
+    ttt1.undo();
+    assertTrue(ttt1.canRedo());
+    ttt1.redo();
+    ttt1.redo();
+    assertFalse(ttt1.canRedo());
+    assertEquals(Player.O, ttt1.getWinner());
+    assertArrayEquals(new int[] {0, 6, 3, 4, 1, 2}, ttt1.getMoveHistory());
+
+    ttt1.undo();
+    ttt1.move(2, 2);
+    assertFalse(ttt1.canRedo());
+    assertArrayEquals(new int[] {0, 6, 3, 4, 1, 8}, ttt1.getMoveHistory());
+  }
+
+  /**
+   * Test for undo() on a new game, verifying that an exception is thrown.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testUndoNewGame() {
+    ttt1.undo();
+  }
+
+  /**
+   * Test for redo() with nothing undone, verifying that an exception is thrown.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testRedoNothingUndone() {
+    ttt1.move(1, 1);
+    ttt1.redo();
+  }
+
+  /**
+   * Test for addListener(), verifying that each move, undo and the end of the game is reported
+   * once, in order, and that a removed listener hears nothing more.
+   */
+  @Test
+  public void testListener() {
+    StringBuilder events = new StringBuilder();
+    TicTacToeListener listener = new TicTacToeListener() {
+      @Override
+      public void moveMade(int r, int c, Player player) {
+        events.append("move ").append(player).append(r).append(c).append(';');
+      }
+
+      @Override
+      public void moveUndone(int r, int c) {
+        events.append("undo ").append(r).append(c).append(';');
+      }
+
+      @Override
+      public void turnChanged(Player turn) {
+        events.append("turn ").append(turn).append(';');
+      }
+
+      @Override
+      public void gameOver(Player winner) {
+        events.append("over ").append(winner).append(';');
+      }
+    };
+    ttt1.addListener(listener);
+    ttt1.move(0, 0);
+    ttt1.move(1, 0);
+    ttt1.undo();
+    ttt1.redo();
+    assertEquals("move X00;turn O;move O10;turn X;undo 10;turn O;move O10;turn X;",
+        events.toString());
+
+    events.setLength(0);
+    ttt1.move(0, 1);
+    ttt1.move(1, 1);
+    ttt1.move(0, 2);
+    assertEquals("move X01;turn O;move O11;turn X;move X02;over X;", events.toString());
+
+    events.setLength(0);
+    ttt1.removeListener(listener);
+    ttt1.undo();
+    assertEquals("", events.toString());
+  }
+
+  /**
+   * Test for tryMove() and applyMoves(), verifying that illegal moves are reported by status
+   * code with the index of the first one, and that the moves before it are applied.
+   */
+  @Test
+  public void testApplyMoves() {
+    assertEquals(MoveStatus.OUT_OF_BOUNDS, ttt1.tryMove(3, 0));
+    assertEquals(MoveStatus.OK, ttt1.tryMove(1, 1));
+    assertEquals(MoveStatus.OCCUPIED, ttt1.tryMove(1, 1));
+    assertEquals(1, ttt1.getMoveCount());
+
+    int result = exampleGame.applyMoves(new int[] {-1, 0, 3, 4, 0, 8}, 1, 5);
+    assertEquals(MoveStatus.OCCUPIED, MoveStatus.code(result));
+    assertEquals(3, MoveStatus.applied(result));
+    assertArrayEquals(new int[] {0, 3, 4}, exampleGame.getMoveHistory());
+    assertEquals("Position occupied", MoveStatus.message(MoveStatus.code(result)));
+
+    result = exampleGame.applyMoves(new int[] {8, 1, 7, 2, 5}, 0, 5);
+    assertEquals(MoveStatus.GAME_OVER, MoveStatus.code(result));
+    assertEquals(4, MoveStatus.applied(result));
+    assertEquals(Player.X, exampleGame.getWinner());
+
+    result = ttt1.applyMoves(new int[] {0, 9}, 0, 2);
+    assertEquals(MoveStatus.OUT_OF_BOUNDS, MoveStatus.code(result));
+    assertEquals(1, MoveStatus.applied(result));
+    assertEquals(MoveStatus.OK, MoveStatus.code(ttt1.applyMoves(new int[] {2}, 0, 1)));
+  }
+}
@@ -0,0 +1,95 @@
+import org.junit.Test;
+import tictactoe.BatchGameEngine;
+import tictactoe.MoveStatus;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the batch game engine. Verifying that stepping many games together gives the
+ * same results, move by move, as playing each game on its own model.
+ */
+public class BatchGameEngineTest {
+
+  /**
+   * Test that random moves, including out-of-bounds and occupied cells and moves after the end
+   * of the game, give each game the same status codes and state as a model playing the same
+   * moves.
+   */
+  @Test
+  public void testMatchesModel() {
+    int count = 500;
+    Random random = new Random(7);
+    BatchGameEngine engine = new BatchGameEngine(count);
+    TicTacToe[] models = new TicTacToe[count];
+    for (int i = 0; i < count; i++) {
+      models[i] = new TicTacToeModel();
+    }
+    int[] cells = new int[count];
+    int[] codes = new int[count];
+    for (int round = 0; round < 3; round++) {
+      for (int ply = 0; ply < 20; ply++) {
+        int inProgress = 0;
+        for (int i = 0; i < count; i++) {
+          cells[i] = random.nextInt(13) - 2;
+        }
+        int reported = engine.step(cells, codes);
+        for (int i = 0; i < count; i++) {
+          int cell = cells[i];
+          int expected = cell < 0 || cell >= 9 ? MoveStatus.OUT_OF_BOUNDS
+              : models[i].tryMove(cell / 3, cell % 3);
+          assertEquals(expected, codes[i]);
+          assertSameGame(models[i], engine, i);
+          inProgress += models[i].isGameOver() ? 0 : 1;
+        }
+        assertEquals(inProgress, reported);
+      }
+      engine.reset();
+      for (TicTacToe model : models) {
+        model.reset();
+      }
+    }
+  }
+
+  private static void assertSameGame(TicTacToe model, BatchGameEngine engine, int game) {
+    assertEquals(model.isGameOver(), engine.isGameOver(game));
+    assertEquals(model.getWinner(), engine.getWinner(game));
+    assertEquals(model.getMoveCount(), engine.getMoveCount(game));
+    if (!model.isGameOver()) {
+      assertEquals(model.getTurn(), engine.getTurn(game));
+    }
+    for (int r = 0; r < 3; r++) {
+      for (int c = 0; c < 3; c++) {
+        assertEquals(model.getMarkAt(r, c), engine.getMarkAt(game, r, c));
+      }
+    }
+  }
+
+  /**
+   * Test that a single game can be started over without touching the others, and that a draw
+   * is reported as one.
+   */
+  @Test
+  public void testResetGameAndDraw() {
+    BatchGameEngine engine = new BatchGameEngine(2);
+    int[] codes = new int[2];
+    // X O X / X O O / O X X is a draw
+    int[] draw = {0, 1, 2, 4, 3, 5, 7, 6, 8};
+    for (int cell : draw) {
+      engine.step(new int[] {cell, cell}, codes);
+    }
+    assertEquals(BatchGameEngine.DRAW, engine.getStatus(0));
+    assertNull(engine.getWinner(0));
+    engine.reset(1);
+    assertEquals(BatchGameEngine.IN_PROGRESS, engine.getStatus(1));
+    assertEquals(0, engine.getBits(1, Player.X) | engine.getBits(1, Player.O));
+    assertEquals(1, engine.step(new int[] {4, 4}, codes));
+    assertArrayEquals(new int[] {MoveStatus.GAME_OVER, MoveStatus.OK}, codes);
+    assertEquals(Player.O, engine.getTurn(1));
+    assertEquals(BatchGameEngine.DRAW, engine.getStatus(0));
+  }
+}
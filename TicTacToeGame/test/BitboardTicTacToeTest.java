@@ -0,0 +1,32 @@
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.TicTacToe;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the bitboard tic tac toe model. Runs the shared scenarios of
+ * {@code AbstractTicTacToeTest}, verifying that it behaves like the other implementations, and
+ * checks its bitmasks.
+ */
+public class BitboardTicTacToeTest extends AbstractTicTacToeTest {
+
+  @Override
+  protected TicTacToe newGame() {
+    return new BitboardTicTacToe();
+  }
+
+  /**
+   * Test for the bitmask accessors, verifying that each move sets the bit of its cell
+   * in the mover's mask only.
+   */
+  @Test
+  public void testBitMasks() {
+    BitboardTicTacToe game = new BitboardTicTacToe();
+    game.move(0, 0);
+    game.move(1, 1);
+    game.move(2, 2);
+    assertEquals(0b100_000_001, game.getXBits());
+    assertEquals(0b000_010_000, game.getOBits());
+  }
+}
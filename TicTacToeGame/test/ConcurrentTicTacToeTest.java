@@ -0,0 +1,210 @@
+import org.junit.Test;
+import tictactoe.ConcurrentTicTacToe;
+import tictactoe.MoveStatus;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the lock-free tic tac toe model. Verifying that it plays like the sequential
+ * model, and stress-testing it with racing threads to show that every move is applied exactly
+ * once, none is lost, and readers only ever see consistent positions.
+ */
+public class ConcurrentTicTacToeTest {
+
+  private static final int THREADS = 8;
+
+  /**
+   * Test a game played on one thread, including undo and redo.
+   */
+  @Test
+  public void testSequentialGame() {
+    TicTacToe game = new ConcurrentTicTacToe();
+    game.move(0, 0); // X
+    game.move(1, 0); // O
+    game.move(1, 1); // X
+    game.move(2, 2); // O
+    game.move(1, 2); // X
+    game.move(0, 2); // O
+    game.move(0, 1); // X
+    game.move(2, 0); // O
+    assertFalse(game.isGameOver());
+    game.move(2, 1); // X wins down the middle column on the last cell
+    assertTrue(game.isGameOver());
+    assertEquals(Player.X, game.getWinner());
+    assertEquals(" X | X | O\n"
+        + "-----------\n"
+        + " O | X | X\n"
+        + "-----------\n"
+        + " O | X | O", game.toString());
+    game.undo();
+    assertNull(game.getWinner());
+    assertEquals(Player.X, game.getTurn());
+    game.redo();
+    assertEquals(Player.X, game.getWinner());
+    assertArrayEquals(new int[] {0, 3, 4, 8, 5, 2, 1, 6, 7}, game.getMoveHistory());
+  }
+
+  /**
+   * Test that moving for a player whose turn it is not is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testMoveOutOfTurn() {
+    ConcurrentTicTacToe game = new ConcurrentTicTacToe();
+    game.move(Player.X, 0, 0);
+    game.move(Player.X, 1, 1);
+  }
+
+  /**
+   * Test that when many threads race for the same cell, exactly one move is applied and every
+   * other thread gets the sequential model's exception.
+   */
+  @Test
+  public void testRaceForSameCell() throws Exception {
+    for (int round = 0; round < 100; round++) {
+      ConcurrentTicTacToe game = new ConcurrentTicTacToe();
+      AtomicInteger applied = new AtomicInteger();
+      AtomicInteger occupied = new AtomicInteger();
+      AtomicReference<Throwable> unexpected = new AtomicReference<>();
+      runConcurrently(() -> {
+        try {
+          game.move(1, 1);
+          applied.incrementAndGet();
+        } catch (IllegalArgumentException e) {
+          if ("Position occupied".equals(e.getMessage())) {
+            occupied.incrementAndGet();
+          } else {
+            unexpected.set(e);
+          }
+        } catch (Throwable t) {
+          unexpected.set(t);
+        }
+      });
+      assertNull(unexpected.get());
+      assertEquals(1, applied.get());
+      assertEquals(THREADS - 1, occupied.get());
+      assertEquals(1, game.getMoveCount());
+      assertEquals(Player.X, game.getMarkAt(1, 1));
+    }
+  }
+
+  /**
+   * Test threads acting for X and O racing over all cells: every move a thread was told it made
+   * is on the board under its player's mark and in the history exactly once, no other cell is
+   * marked, and the result is the one a sequential game with the same moves reaches.
+   */
+  @Test
+  public void testRacingPlayersLoseNoMoves() throws Exception {
+    for (int round = 0; round < 100; round++) {
+      ConcurrentTicTacToe game = new ConcurrentTicTacToe();
+      AtomicInteger thread = new AtomicInteger();
+      AtomicIntegerArray claims = new AtomicIntegerArray(9);
+      runConcurrently(() -> {
+        Player me = thread.getAndIncrement() % 2 == 0 ? Player.X : Player.O;
+        while (!game.isGameOver()) {
+          int cell = ThreadLocalRandom.current().nextInt(9);
+          if (game.tryMove(me, cell / 3, cell % 3) == MoveStatus.OK) {
+            // the claim count spots a cell two threads both believe they marked
+            claims.addAndGet(cell, me == Player.X ? 1 : 100);
+          }
+        }
+      });
+      int[] history = game.getMoveHistory();
+      TicTacToe sequential = new TicTacToeModel();
+      for (int cell : history) {
+        sequential.move(cell / 3, cell % 3);
+      }
+      int claimed = 0;
+      for (int cell = 0; cell < 9; cell++) {
+        Player mark = game.getMarkAt(cell / 3, cell % 3);
+        assertEquals(mark == null ? 0 : mark == Player.X ? 1 : 100, claims.get(cell));
+        claimed += claims.get(cell) == 0 ? 0 : 1;
+      }
+      assertEquals(history.length, claimed);
+      assertArrayEquals(sequential.getBoard(), game.getBoard());
+      assertEquals(sequential.getWinner(), game.getWinner());
+      assertTrue(sequential.isGameOver());
+    }
+  }
+
+  /**
+   * Test that readers racing with writers, undo and redo only ever observe positions a
+   * sequential game could reach.
+   */
+  @Test
+  public void testReadersSeeConsistentSnapshots() throws Exception {
+    ConcurrentTicTacToe game = new ConcurrentTicTacToe();
+    AtomicReference<String> inconsistency = new AtomicReference<>();
+    AtomicInteger thread = new AtomicInteger();
+    long deadline = System.nanoTime() + 300_000_000L;
+    runConcurrently(() -> {
+      boolean writer = thread.getAndIncrement() % 2 == 0;
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      while (System.nanoTime() < deadline) {
+        if (writer) {
+          try {
+            int choice = random.nextInt(10);
+            if (choice < 7) {
+              game.move(random.nextInt(3), random.nextInt(3));
+            } else if (choice < 9) {
+              game.undo();
+            } else {
+              game.redo();
+            }
+          } catch (IllegalArgumentException | IllegalStateException e) {
+            // rejected moves are expected
+          }
+        } else {
+          Player[][] board = game.getBoard();
+          int xs = 0;
+          int os = 0;
+          for (Player[] row : board) {
+            for (Player p : row) {
+              xs += p == Player.X ? 1 : 0;
+              os += p == Player.O ? 1 : 0;
+            }
+          }
+          if (xs != os && xs != os + 1) {
+            inconsistency.set(xs + " X marks but " + os + " O marks");
+          }
+        }
+      }
+    });
+    assertNull(inconsistency.get(), inconsistency.get());
+  }
+
+  private static void runConcurrently(Runnable task) throws Exception {
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    CountDownLatch done = new CountDownLatch(THREADS);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      Thread t = new Thread(() -> {
+        try {
+          start.await();
+          task.run();
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        } finally {
+          done.countDown();
+        }
+      });
+      threads.add(t);
+      t.start();
+    }
+    done.await();
+    for (Thread t : threads) {
+      t.join();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+import org.junit.Test;
+import tictactoe.ConsoleTicTacToeController;
+import tictactoe.ConsoleTicTacToeView;
+import tictactoe.NegamaxStrategy;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the console controller and view. Verifying scripted games, reporting of bad
+ * input, and play against the computer.
+ */
+public class ConsoleTicTacToeControllerTest {
+
+  private static TicTacToe play(String input, StringBuilder out) {
+    TicTacToe model = new TicTacToeModel();
+    ConsoleTicTacToeView view = new ConsoleTicTacToeView(new StringReader(input), out, 3);
+    new ConsoleTicTacToeController(view, model).playGame();
+    return model;
+  }
+
+  /**
+   * Test that a typed game is played to the end, and input after it is ignored.
+   */
+  @Test
+  public void testScriptedGame() {
+    StringBuilder out = new StringBuilder();
+    TicTacToe model = play("1 1\n2 1\n1 2\n2 2\n1 3\n3 3\n", out);
+    assertEquals(Player.X, model.getWinner());
+    assertEquals(5, model.getMoveCount());
+    assertTrue(out.toString().startsWith("   |   |  \n---+---+---\n"));
+    assertTrue(out.toString().contains(" X | X | X\n"));
+    assertTrue(out.toString().endsWith("Game is over! X wins.\n"));
+  }
+
+  /**
+   * Test that words, cells off the board and occupied cells are reported and skipped, and that
+   * q ends the game early.
+   */
+  @Test
+  public void testBadInput() {
+    StringBuilder out = new StringBuilder();
+    TicTacToe model = play("2 2\nmiddle\n4 1\n2 2\n1 1\nq\n3 3\n", out);
+    assertEquals(2, model.getMoveCount());
+    assertFalse(model.isGameOver());
+    String prompt = "Enter a row and column between 1 and 3, or q to quit.\n";
+    assertEquals(2, out.toString().split(prompt, -1).length - 1);
+    assertTrue(out.toString().contains("Position occupied"));
+    assertEquals(Player.O, model.getMarkAt(0, 0));
+  }
+
+  /**
+   * Test that the computer opens when it plays X and never loses to the user.
+   */
+  @Test
+  public void testComputerPlayer() {
+    TicTacToe model = new TicTacToeModel();
+    StringBuilder out = new StringBuilder();
+    ConsoleTicTacToeView view = new ConsoleTicTacToeView(
+        new StringReader("1 1\n1 2\n1 3\n2 1\n2 2\n2 3\n3 1\n3 2\n3 3\n"), out, 3);
+    new ConsoleTicTacToeController(view, model, new NegamaxStrategy(), Player.X).playGame();
+    assertTrue(model.isGameOver());
+    assertNotEquals(Player.O, model.getWinner());
+    assertTrue(out.toString().startsWith("   |   |  \n---+---+---\n   |   |  \n---+---+---\n"
+        + "   |   |  \nTurn: X\n"));
+    assertEquals(1, model.getMoveCount() % 2);
+  }
+
+  /**
+   * Test that a move taken back is cleared from the board the view shows.
+   */
+  @Test
+  public void testUndoClearsView() {
+    TicTacToe model = new TicTacToeModel();
+    StringBuilder out = new StringBuilder();
+    ConsoleTicTacToeView view = new ConsoleTicTacToeView(new StringReader(""), out, 3);
+    new ConsoleTicTacToeController(view, model);
+    model.move(1, 1);
+    assertTrue(out.toString().endsWith("   |   |  \n---+---+---\n   | X |  \n---+---+---\n"
+        + "   |   |  \nTurn: O\n"));
+    model.undo();
+    assertTrue(out.toString().endsWith("   |   |  \n---+---+---\n   |   |  \n---+---+---\n"
+        + "   |   |  \nTurn: X\n"));
+  }
+}
@@ -0,0 +1,119 @@
+import org.junit.Test;
+import tictactoe.EvaluationCache;
+import tictactoe.NegamaxStrategy;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the shared evaluation cache. Verifying lookups, clock eviction within a fixed
+ * capacity, consistency under concurrent use, and reuse of evaluations across searches.
+ */
+public class EvaluationCacheTest {
+
+  /**
+   * Test that stored values are found, updated in place, and counted as hits and misses.
+   */
+  @Test
+  public void testGetAndPut() {
+    EvaluationCache cache = new EvaluationCache(1 << 16);
+    assertEquals(EvaluationCache.MISS, cache.get(42));
+    cache.put(42, -7);
+    cache.put(0, 0);
+    assertEquals(-7, cache.get(42));
+    assertEquals(0, cache.get(0));
+    cache.put(42, Integer.MIN_VALUE);
+    assertEquals(Integer.MIN_VALUE, cache.get(42));
+    assertEquals(3, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    cache.clear();
+    assertEquals(EvaluationCache.MISS, cache.get(42));
+  }
+
+  /**
+   * Test that a full cache evicts entries rather than growing, sparing recently read ones.
+   */
+  @Test
+  public void testClockEviction() {
+    // room for a single set of eight entries
+    EvaluationCache cache = new EvaluationCache(8 * 17);
+    assertEquals(8, cache.getCapacity());
+    for (int key = 1; key <= 8; key++) {
+      cache.put(key, key);
+    }
+    assertEquals(0, cache.getEvictions());
+    assertEquals(1, cache.get(1));
+    cache.put(9, 9);
+    assertEquals(1, cache.getEvictions());
+    assertEquals(1, cache.get(1));
+    assertEquals(EvaluationCache.MISS, cache.get(2));
+    assertEquals(9, cache.get(9));
+  }
+
+  /**
+   * Test that caps too small for one set, or large enough for more than 2^30 slots, are rejected.
+   */
+  @Test
+  public void testSizeLimits() {
+    for (long maxBytes : new long[] {8 * 17 - 1, ((1L << 30) + 1) * 17}) {
+      try {
+        new EvaluationCache(maxBytes);
+        fail("Invalid cache size should have thrown exception");
+      } catch (IllegalArgumentException iae) {
+        assertEquals("Cache size must hold between 8 and 2^30 entries!", iae.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Test that threads racing on a small cache never read a value stored for another key.
+   */
+  @Test
+  public void testConcurrentUse() throws InterruptedException {
+    EvaluationCache cache = new EvaluationCache(64 * 17);
+    AtomicInteger wrong = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      long seed = t;
+      threads[t] = new Thread(() -> {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < 200_000; i++) {
+          long key = random.nextLong(1000) * 0x9E3779B97F4A7C15L;
+          long value = cache.get(key);
+          if (value == EvaluationCache.MISS) {
+            cache.put(key, (int) (key >>> 32));
+          } else if (value != (int) (key >>> 32)) {
+            wrong.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, wrong.get());
+    assertTrue(cache.getHits() > 0);
+  }
+
+  /**
+   * Test that a second player searching the same large-board position reuses the first
+   * player's evaluations and chooses the same move.
+   */
+  @Test
+  public void testSharedAcrossSearches() {
+    EvaluationCache cache = new EvaluationCache(1 << 20);
+    TicTacToe game = new TicTacToeModel(15, 5);
+    game.move(7, 7);
+    game.move(7, 8);
+    int[] first = new NegamaxStrategy(5_000, 10_000, cache).chooseMove(game);
+    long hits = cache.getHits();
+    int[] second = new NegamaxStrategy(5_000, 10_000, cache).chooseMove(game);
+    assertTrue(cache.getHits() > hits);
+    assertArrayEquals(first, second);
+  }
+}
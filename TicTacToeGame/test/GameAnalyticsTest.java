@@ -0,0 +1,138 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.GameAnalytics;
+import tictactoe.GameRecordWriter;
+import tictactoe.GameStats;
+import tictactoe.Player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the game analytics stage. Verifying the counts over known games, and that an
+ * incremental run adds only the games appended since the checkpoint.
+ */
+public class GameAnalyticsTest {
+
+  // X wins along the top row, opening in the corner
+  private static final int[] X_WINS = {0, 3, 1, 4, 2};
+  // the same game reflected left to right, opening in the other corner
+  private static final int[] X_WINS_REFLECTED = {2, 5, 1, 4, 0};
+  // a draw opening in the center
+  private static final int[] DRAW = {4, 0, 8, 2, 1, 7, 6, 3, 5};
+  // O wins down the left column, X opening on an edge
+  private static final int[] O_WINS = {1, 0, 2, 3, 4, 6};
+
+  private Path dir;
+  private GameAnalytics analytics;
+
+  /**
+   * Creates a directory for the partitions and the checkpoint.
+   */
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("analytics");
+    analytics = new GameAnalytics(3, 3, 2);
+  }
+
+  /**
+   * Deletes the files written.
+   */
+  @After
+  public void tearDown() throws IOException {
+    analytics.shutdown();
+    try (var files = Files.list(dir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(dir);
+  }
+
+  private Path write(String name, int[]... games) throws IOException {
+    Path file = dir.resolve(name);
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      for (int[] game : games) {
+        writer.write(3, 3, game, 0, game.length);
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Test the counts by outcome, opening, length and position class.
+   */
+  @Test
+  public void testCounts() throws IOException {
+    List<Path> partitions = Arrays.asList(write("a", X_WINS, DRAW), write("b", X_WINS_REFLECTED,
+        O_WINS, DRAW));
+    GameStats stats = analytics.run(partitions);
+    assertEquals(5, stats.getGames());
+    assertEquals(2, stats.getResults(Player.X));
+    assertEquals(1, stats.getResults(Player.O));
+    assertEquals(2, stats.getResults(null));
+
+    assertEquals(2, stats.getOpeningGames(1, 1));
+    assertEquals(2, stats.getOpeningResults(1, 1, null));
+    assertEquals(1, stats.getOpeningResults(0, 2, Player.X));
+    assertEquals(1, stats.getOpeningResults(0, 1, Player.O));
+    assertArrayEquals(new int[] {0, 0}, stats.getBestOpening(Player.X));
+
+    assertEquals(2, stats.getLengthCount(5));
+    assertEquals(1, stats.getLengthCount(6));
+    assertEquals(2, stats.getLengthCount(9));
+
+    int cornerClass = stats.getPositionClass(0, 3);
+    assertEquals(cornerClass, stats.getPositionClass(2, 5));
+    assertEquals(2, stats.getClassGames(cornerClass));
+    assertEquals(0, stats.getClassDraws(cornerClass));
+    assertEquals(2, stats.getClassDraws(stats.getPositionClass(4, 0)));
+  }
+
+  /**
+   * Test that a run with a checkpoint reads only the games appended since the previous run, and
+   * gives the same totals as reading everything.
+   */
+  @Test
+  public void testIncremental() throws IOException {
+    Path a = write("a", X_WINS);
+    Path b = write("b", DRAW);
+    Path checkpoint = dir.resolve("checkpoint");
+    assertEquals(2, analytics.run(Arrays.asList(a, b), checkpoint).getGames());
+
+    try (GameRecordWriter writer = new GameRecordWriter(a)) {
+      writer.write(3, 3, O_WINS, 0, O_WINS.length);
+    }
+    Path c = write("c", X_WINS_REFLECTED);
+    GameStats incremental = analytics.run(Arrays.asList(a, b, c), checkpoint);
+    assertEquals(4, incremental.getGames());
+    assertEquals(1, incremental.getResults(Player.O));
+
+    GameStats full = analytics.run(Arrays.asList(a, b, c));
+    assertEquals(full.toString(), incremental.toString());
+    assertEquals(4, analytics.run(Arrays.asList(a, b, c), checkpoint).getGames());
+  }
+
+  /**
+   * Test that stats for the largest board start without allocating position-class counts, and
+   * that larger boards are rejected.
+   */
+  @Test
+  public void testLargeBoards() {
+    GameStats stats = new GameStats(GameStats.MAX_SIZE, 5);
+    int cells = GameStats.MAX_SIZE * GameStats.MAX_SIZE;
+    assertEquals(0, stats.getClassGames(cells * cells - 1));
+    try {
+      new GameStats(GameStats.MAX_SIZE + 1, 5);
+      fail("Oversized board should have thrown exception");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("Invalid board size or win length!", iae.getMessage());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+import org.junit.Test;
+import tictactoe.GameMetrics;
+import tictactoe.InstrumentedController;
+import tictactoe.InstrumentedTicTacToe;
+import tictactoe.LatencyHistogram;
+import tictactoe.MoveStatus;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for game metrics. Verifying histogram percentiles, and the counts and latencies
+ * recorded by instrumented games and controllers.
+ */
+public class GameMetricsTest {
+
+  /**
+   * Test that percentiles are exact for small values and within the bucket precision for large
+   * ones, and never exceed the maximum.
+   */
+  @Test
+  public void testHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getPercentile(50));
+    for (int i = 1; i <= 20; i++) {
+      histogram.record(i);
+    }
+    assertEquals(20, histogram.getCount());
+    assertEquals(10, histogram.getPercentile(50));
+    assertEquals(20, histogram.getPercentile(100));
+    assertEquals(10.5, histogram.getMean(), 1e-9);
+
+    histogram.reset();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(1_000);
+    }
+    histogram.record(5_000_000);
+    long p50 = histogram.getPercentile(50);
+    assertTrue(p50 >= 1_000 && p50 <= 1_000 * 1.07);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(p99 >= 1_000 && p99 <= 1_000 * 1.07);
+    assertEquals(5_000_000, histogram.getPercentile(100));
+    assertEquals(5_000_000, histogram.getMax());
+    histogram.record(-3);
+    assertEquals(0, histogram.getPercentile(0));
+  }
+
+  /**
+   * Test that an instrumented game counts moves, rejected moves, undos, and finished games.
+   */
+  @Test
+  public void testInstrumentedGame() {
+    GameMetrics metrics = new GameMetrics();
+    TicTacToe game = new InstrumentedTicTacToe(new TicTacToeModel(), metrics);
+    game.move(0, 0);
+    assertEquals(MoveStatus.OCCUPIED, game.tryMove(0, 0));
+    game.move(1, 0);
+    game.undo();
+    game.move(1, 2);
+    game.move(1, 1);
+    game.move(0, 1);
+    game.move(2, 2);
+    assertTrue(game.isGameOver());
+    assertEquals(Player.X, game.getWinner());
+    assertEquals(MoveStatus.GAME_OVER, game.tryMove(2, 0));
+
+    assertEquals(6, metrics.getMoves());
+    assertEquals(2, metrics.getIllegalMoves());
+    assertEquals(1, metrics.getUndos());
+    assertEquals(1, metrics.getGamesStarted());
+    assertEquals(1, metrics.getXWins());
+    assertEquals(0, metrics.getOWins() + metrics.getDraws());
+    assertEquals(8, metrics.getMoveLatency().getCount());
+    assertEquals(1, metrics.getGameDuration().getCount());
+
+    int result = new InstrumentedTicTacToe(new TicTacToeModel(), metrics)
+        .applyMoves(new int[] {0, 4, 8, 2, 6, 3, 5, 7, 1}, 0, 9);
+    assertEquals(MoveStatus.OK, MoveStatus.code(result));
+    assertEquals(15, metrics.getMoves());
+    assertEquals(2, metrics.getGamesStarted());
+    assertEquals(1, metrics.getDraws());
+
+    metrics.reset();
+    assertEquals(0, metrics.getMoves());
+    assertEquals(0, metrics.getMoveLatency().getCount());
+  }
+
+  /**
+   * Test that a game's result is counted once, however often its last move is undone and redone
+   * or replaced, and counted again only for a new game after a reset.
+   */
+  @Test
+  public void testResultCountedOnce() {
+    GameMetrics metrics = new GameMetrics();
+    TicTacToe game = new InstrumentedTicTacToe(new TicTacToeModel(), metrics);
+    game.applyMoves(new int[] {0, 1, 4, 5, 6, 7, 8}, 0, 7);
+    assertEquals(1, metrics.getXWins());
+    game.undo();
+    game.redo();
+    game.undo();
+    game.move(1, 0); // X wins down the first column instead
+    assertEquals(Player.X, game.getWinner());
+    assertEquals(1, metrics.getXWins());
+    assertEquals(1, metrics.getGameDuration().getCount());
+
+    game.reset();
+    game.applyMoves(new int[] {0, 1, 4, 5, 6, 7, 8}, 0, 7);
+    assertEquals(2, metrics.getGamesStarted());
+    assertEquals(2, metrics.getXWins());
+    assertEquals(2, metrics.getGameDuration().getCount());
+  }
+
+  /**
+   * Test that an instrumented controller counts and times its sessions, even failed ones.
+   */
+  @Test
+  public void testInstrumentedController() {
+    GameMetrics metrics = new GameMetrics();
+    new InstrumentedController(() -> { }, metrics).playGame();
+    try {
+      new InstrumentedController(() -> {
+        throw new IllegalStateException();
+      }, metrics).playGame();
+      fail("The controller's exception should propagate");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(2, metrics.getControllerLatency().getCount());
+    assertTrue(metrics.getReport().contains("controller: 2 sessions"));
+  }
+}
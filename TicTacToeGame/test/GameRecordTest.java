@@ -0,0 +1,248 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.GameRecordReader;
+import tictactoe.GameRecordWriter;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the binary game-record format. Verifying that games written are read back and
+ * replayed exactly, across blocks and appended writes.
+ */
+public class GameRecordTest {
+
+  private Path file;
+
+  /**
+   * Creates an empty temporary file name to write to.
+   */
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("games", ".ttt");
+    Files.delete(file);
+  }
+
+  /**
+   * Deletes the temporary file.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Test that games of different rules are read back with their moves, and replay to the same
+   * result.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    TicTacToe won = new TicTacToeModel();
+    won.move(0, 0);
+    won.move(1, 0);
+    won.move(0, 1);
+    won.move(1, 1);
+    won.move(0, 2);
+    TicTacToe gomoku = new TicTacToeModel(15, 5);
+    gomoku.move(7, 7);
+    gomoku.move(14, 14);
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      writer.write(won);
+      writer.write(gomoku);
+      writer.write(new TicTacToeModel());
+    }
+
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertEquals(3, reader.getSize());
+      assertEquals(5, reader.getMoveCount());
+      assertEquals(2, reader.getMove(4));
+      TicTacToe replayed = reader.replay();
+      assertEquals(Player.X, replayed.getWinner());
+      assertEquals(won.toString(), replayed.toString());
+
+      assertTrue(reader.next());
+      assertEquals(15, reader.getSize());
+      assertEquals(5, reader.getWinLength());
+      assertArrayEquals(gomoku.getMoveHistory(), reader.replay().getMoveHistory());
+
+      assertTrue(reader.next());
+      assertEquals(0, reader.getMoveCount());
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test many random games spanning several blocks, written in two sessions, and that reading
+   * can resume from a saved block offset.
+   */
+  @Test
+  public void testBlocksAndAppend() throws IOException {
+    int games = 40_000;
+    int[][] histories = new int[games][];
+    SplittableRandom random = new SplittableRandom(7);
+    for (int i = 0; i < games; i++) {
+      TicTacToe game = new TicTacToeModel();
+      while (!game.isGameOver()) {
+        int r = random.nextInt(3);
+        int c = random.nextInt(3);
+        if (game.getMarkAt(r, c) == null) {
+          game.move(r, c);
+        }
+      }
+      histories[i] = game.getMoveHistory();
+    }
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      for (int i = 0; i < games / 2; i++) {
+        writer.write(3, 3, histories[i], 0, histories[i].length);
+      }
+    }
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      for (int i = games / 2; i < games; i++) {
+        writer.write(3, 3, histories[i], 0, histories[i].length);
+      }
+    }
+
+    long resumeOffset = -1;
+    int resumeIndex = -1;
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      long lastOffset = -1;
+      for (int i = 0; i < games; i++) {
+        assertTrue(reader.next());
+        if (reader.getBlockOffset() != lastOffset) {
+          lastOffset = reader.getBlockOffset();
+          resumeOffset = lastOffset;
+          resumeIndex = i;
+        }
+        assertEquals(histories[i].length, reader.getMoveCount());
+        for (int m = 0; m < histories[i].length; m++) {
+          assertEquals(histories[i][m], reader.getMove(m));
+        }
+      }
+      assertFalse(reader.next());
+      assertTrue(resumeIndex > 0);
+
+      reader.seek(resumeOffset);
+      assertTrue(reader.next());
+      assertEquals(resumeOffset, reader.getBlockOffset());
+      assertArrayEquals(histories[resumeIndex], reader.replay().getMoveHistory());
+    }
+  }
+
+  /**
+   * Test that moves wider than 24 bits, on a board of more than 2^24 cells, are written and read
+   * back without losing their high bits.
+   */
+  @Test
+  public void testWideMoves() throws IOException {
+    int size = 5000;
+    int[] moves = {size * size - 1, 0, 12_345_678, size * size - 2, 1 << 23, 7};
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      writer.write(size, 5, moves, 0, moves.length);
+    }
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertEquals(size, reader.getSize());
+      assertEquals(moves.length, reader.getMoveCount());
+      for (int m = 0; m < moves.length; m++) {
+        assertEquals(moves[m], reader.getMove(m));
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test that a last block cut short is read as the end of the file, and that a writer opened
+   * on the file cuts it off before appending.
+   */
+  @Test
+  public void testTruncatedLastBlock() throws IOException {
+    int[] first = {4, 0, 8};
+    int[] second = {0, 3, 1, 4, 2};
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      writer.write(3, 3, first, 0, first.length);
+      writer.flush();
+      writer.write(3, 3, second, 0, second.length);
+    }
+    long complete;
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertTrue(reader.next());
+      complete = reader.getBlockOffset();
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertArrayEquals(first, reader.replay().getMoveHistory());
+      assertFalse(reader.next());
+      assertEquals(complete, reader.getNextBlockOffset());
+    }
+
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      assertEquals(complete, Files.size(file));
+      writer.write(3, 3, second, 0, second.length);
+    }
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertArrayEquals(first, reader.replay().getMoveHistory());
+      assertTrue(reader.next());
+      assertArrayEquals(second, reader.replay().getMoveHistory());
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test that a record rejected for a move off the board leaves nothing behind, so the record
+   * written after it is read back intact.
+   */
+  @Test
+  public void testRejectedRecord() throws IOException {
+    int[] bad = {0, 4, 99};
+    int[] good = {0, 1, 2};
+    try (GameRecordWriter writer = new GameRecordWriter(file)) {
+      try {
+        writer.write(3, 3, bad, 0, bad.length);
+        fail("Writing a move off the board should have thrown exception");
+      } catch (IllegalArgumentException iae) {
+        assertEquals("Position is out of bounds!", iae.getMessage());
+      }
+      try {
+        writer.write(3, 3, good, 1, good.length);
+        fail("Writing past the end of the array should have thrown exception");
+      } catch (IndexOutOfBoundsException e) {
+        // expected
+      }
+      writer.write(3, 3, good, 0, good.length);
+    }
+    try (GameRecordReader reader = new GameRecordReader(file)) {
+      assertTrue(reader.next());
+      assertEquals(3, reader.getSize());
+      assertEquals(3, reader.getWinLength());
+      assertEquals(good.length, reader.getMoveCount());
+      for (int m = 0; m < good.length; m++) {
+        assertEquals(good[m], reader.getMove(m));
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Test that a file that is not a game record is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testNotAGameRecord() throws IOException {
+    Files.write(file, new byte[] {'T', 'T', 'T', '3', 0, 0, 0, 1});
+    new GameRecordReader(file).close();
+  }
+}
@@ -0,0 +1,199 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.MoveJournal;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the move journal. Verifying that games are rebuilt after a crash, that
+ * snapshots bound what is replayed, that a torn record at the end of the log is ignored, and
+ * that a stopped writer fails the journal.
+ */
+public class MoveJournalTest {
+
+  private Path dir;
+
+  /**
+   * Creates an empty temporary journal directory.
+   */
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("journal");
+  }
+
+  /**
+   * Deletes the journal directory.
+   */
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  private List<Path> files() throws IOException {
+    List<Path> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      files.forEach(found::add);
+    }
+    return found;
+  }
+
+  /**
+   * Test that the games live when the journal was last synced are rebuilt, with their undos and
+   * resets, and that detached games are not, even if the journal was never closed.
+   */
+  @Test
+  public void testRecoverAfterCrash() throws IOException {
+    MoveJournal journal = new MoveJournal(dir, 1000, 1000, 1_000_000);
+    TicTacToe standard = new TicTacToeModel();
+    standard.move(1, 1);
+    journal.attach(1, standard);
+    standard.move(0, 0);
+    standard.move(2, 2);
+    standard.undo();
+    TicTacToe large = new TicTacToeModel(7, 5);
+    journal.attach(2, large);
+    large.move(6, 6);
+    TicTacToe reused = new TicTacToeModel();
+    journal.attach(4, reused);
+    reused.applyMoves(new int[] {0, 4, 8}, 0, 3);
+    reused.reset();
+    reused.move(2, 0);
+    TicTacToe ended = new TicTacToeModel();
+    journal.attach(3, ended);
+    ended.move(0, 0);
+    journal.detach(3);
+    journal.sync();
+    assertEquals(3, journal.getSessionCount());
+    assertEquals(journal.getAppended(), journal.getDurable());
+
+    // a second journal on the same directory sees only what the first made durable
+    MoveJournal recovered = new MoveJournal(dir, 1000, 1000, 1_000_000);
+    Map<Long, TicTacToe> games = recovered.getRecoveredGames();
+    assertEquals(3, games.size());
+    assertArrayEquals(standard.getMoveHistory(), games.get(1L).getMoveHistory());
+    assertArrayEquals(large.getMoveHistory(), games.get(2L).getMoveHistory());
+    assertEquals(7, games.get(2L).getSize());
+    assertEquals(5, games.get(2L).getWinLength());
+    assertArrayEquals(new int[] {6}, games.get(4L).getMoveHistory());
+    assertEquals(3, recovered.getSessionCount());
+    recovered.close();
+    journal.close();
+  }
+
+  /**
+   * Test that a new generation starts every few records, leaving a single snapshot and log on
+   * disk, and that a journal closed and reopened resumes its attached games.
+   */
+  @Test
+  public void testSnapshots() throws IOException {
+    MoveJournal journal = new MoveJournal(dir, 4, 1000, 10);
+    TicTacToe[] games = new TicTacToe[5];
+    for (int i = 0; i < games.length; i++) {
+      games[i] = new TicTacToeModel(5, 5);
+      journal.attach(i, games[i]);
+    }
+    for (int cell = 0; cell < 20; cell++) {
+      for (TicTacToe game : games) {
+        game.move(cell / 5, cell % 5);
+      }
+    }
+    journal.sync();
+    assertTrue(journal.getGeneration() > 1);
+    assertTrue(journal.getSyncs() < journal.getAppended());
+    assertEquals(2, files().size());
+    journal.close();
+
+    journal = new MoveJournal(dir, 4, 1000, 10);
+    assertEquals(5, journal.getRecoveredGames().size());
+    for (int i = 0; i < games.length; i++) {
+      assertArrayEquals(games[i].getMoveHistory(),
+          journal.getRecoveredGames().get((long) i).getMoveHistory());
+    }
+    journal.close();
+  }
+
+  /**
+   * Interrupts the journal writer threads, the way a host shutting down its threads might, and
+   * waits for the journal to notice.
+   */
+  static void interruptWriter(MoveJournal journal) throws InterruptedException {
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals("tictactoe-journal")) {
+        thread.interrupt();
+      }
+    }
+    for (int i = 0; i < 500 && !journal.isFailed(); i++) {
+      Thread.sleep(10);
+    }
+    assertTrue(journal.isFailed());
+  }
+
+  /**
+   * Test that a writer stopped by an interrupt fails the journal, so syncing reports it rather
+   * than waiting forever, and attaching is refused.
+   */
+  @Test
+  public void testWriterInterrupted() throws IOException, InterruptedException {
+    MoveJournal journal = new MoveJournal(dir, 1000, 1000, 1_000_000);
+    TicTacToe game = new TicTacToeModel();
+    journal.attach(1, game);
+    interruptWriter(journal);
+    game.move(1, 1); // dropped rather than failing the move
+    try {
+      journal.sync();
+      fail("Sync should have reported the failure");
+    } catch (IOException e) {
+      assertEquals("Journal writer was interrupted", e.getMessage());
+    }
+    try {
+      journal.attach(2, new TicTacToeModel());
+      fail("Attach should have thrown exception");
+    } catch (IllegalStateException ise) {
+      assertEquals("Journal failed!", ise.getMessage());
+    }
+    try {
+      journal.close();
+      fail("Close should have reported the failure");
+    } catch (IOException e) {
+      assertTrue(journal.isClosed());
+    }
+  }
+
+  /**
+   * Test that a record cut short by a crash at the end of the log is ignored.
+   */
+  @Test
+  public void testTornRecord() throws IOException {
+    MoveJournal journal = new MoveJournal(dir, 1, 1, 1_000_000);
+    TicTacToe game = new TicTacToeModel();
+    journal.attach(7, game);
+    game.move(0, 1);
+    game.move(2, 1);
+    journal.close();
+    for (Path file : files()) {
+      if (file.getFileName().toString().endsWith(".log")) {
+        Files.write(file, new byte[] {'M', 0, 0, 0, 0, 0, 0, 0, 7, 0, 0},
+            StandardOpenOption.APPEND);
+      }
+    }
+    journal = new MoveJournal(dir, 1, 1, 1_000_000);
+    assertArrayEquals(new int[] {1, 7}, journal.getRecoveredGames().get(7L).getMoveHistory());
+    journal.close();
+  }
+}
@@ -0,0 +1,115 @@
+import org.junit.Test;
+import tictactoe.NegamaxStrategy;
+import tictactoe.Player;
+import tictactoe.Strategy;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the negamax computer player. Verifying that it takes wins, blocks losses,
+ * never loses on the three-by-three board, and respects its search budget on large boards.
+ */
+public class NegamaxStrategyTest {
+
+  private Strategy ai = new NegamaxStrategy();
+
+  /**
+   * Test that the computer completes a row when it can win immediately.
+   */
+  @Test
+  public void testTakesWin() {
+    TicTacToe game = new TicTacToeModel();
+    game.move(0, 0); // X
+    game.move(1, 0); // O
+    game.move(0, 1); // X
+    game.move(1, 1); // O
+    assertArrayEquals(new int[] {0, 2}, ai.chooseMove(game));
+  }
+
+  /**
+   * Test that the computer blocks the opponent's row when it cannot win itself.
+   */
+  @Test
+  public void testBlocksLoss() {
+    TicTacToe game = new TicTacToeModel();
+    game.move(0, 0); // X
+    game.move(1, 1); // O
+    game.move(0, 1); // X threatens (0, 2)
+    assertArrayEquals(new int[] {0, 2}, ai.chooseMove(game));
+  }
+
+  /**
+   * Test that two perfect players always draw.
+   */
+  @Test
+  public void testSelfPlayDraws() {
+    TicTacToe game = new TicTacToeModel();
+    while (!game.isGameOver()) {
+      int[] move = ai.chooseMove(game);
+      game.move(move[0], move[1]);
+    }
+    assertNull(game.getWinner());
+  }
+
+  /**
+   * Test that the computer never loses to random play, whichever side it takes.
+   */
+  @Test
+  public void testNeverLosesToRandomPlay() {
+    Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      Player aiSide = i % 2 == 0 ? Player.X : Player.O;
+      TicTacToe game = new TicTacToeModel();
+      while (!game.isGameOver()) {
+        if (game.getTurn() == aiSide) {
+          int[] move = ai.chooseMove(game);
+          game.move(move[0], move[1]);
+        } else {
+          int r;
+          int c;
+          do {
+            r = random.nextInt(3);
+            c = random.nextInt(3);
+          } while (game.getMarkAt(r, c) != null);
+          game.move(r, c);
+        }
+      }
+      assertNotEquals(aiSide == Player.X ? Player.O : Player.X, game.getWinner());
+    }
+  }
+
+  /**
+   * Test that on a large board the search stops within its node budget and still returns a
+   * legal move.
+   */
+  @Test
+  public void testLargeBoardRespectsNodeBudget() {
+    NegamaxStrategy budgeted = new NegamaxStrategy(20_000, 10_000);
+    TicTacToe game = new TicTacToeModel(15, 5);
+    game.move(7, 7);
+    game.move(7, 8);
+    game.move(8, 8);
+    int[] move = budgeted.chooseMove(game);
+    assertNull(game.getMarkAt(move[0], move[1]));
+    assertTrue(budgeted.getLastNodeCount() <= 20_000);
+    assertTrue(budgeted.getLastDepth() >= 1);
+  }
+
+  /**
+   * Test that asking for a move in a finished game throws an exception.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testGameOver() {
+    TicTacToe game = new TicTacToeModel();
+    game.move(0, 0);
+    game.move(1, 0);
+    game.move(0, 1);
+    game.move(1, 1);
+    game.move(0, 2);
+    ai.chooseMove(game);
+  }
+}
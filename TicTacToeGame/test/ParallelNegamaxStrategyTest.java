@@ -0,0 +1,87 @@
+import org.junit.After;
+import org.junit.Test;
+import tictactoe.ParallelNegamaxStrategy;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the parallel search player. Verifying that it plays the three-by-three game
+ * perfectly, and keeps to its time budget on a large board while finding forced moves.
+ */
+public class ParallelNegamaxStrategyTest {
+
+  private ParallelNegamaxStrategy ai = new ParallelNegamaxStrategy(3, Long.MAX_VALUE, 1000);
+
+  /**
+   * Stops the search threads.
+   */
+  @After
+  public void tearDown() {
+    ai.shutdown();
+  }
+
+  /**
+   * Test that the parallel player drawing against itself ends in a tie.
+   */
+  @Test
+  public void testSelfPlayDraws() {
+    TicTacToe game = new TicTacToeModel();
+    while (!game.isGameOver()) {
+      int[] move = ai.chooseMove(game);
+      game.move(move[0], move[1]);
+    }
+    assertNull(game.getWinner());
+  }
+
+  /**
+   * Test that on a large board the search returns within its time budget, and blocks an open
+   * four that would otherwise win next move.
+   */
+  @Test
+  public void testLargeBoardBlocksWithinBudget() {
+    ParallelNegamaxStrategy timed = new ParallelNegamaxStrategy(2, Long.MAX_VALUE, 200);
+    try {
+      TicTacToe game = new TicTacToeModel(15, 5);
+      game.move(7, 3);
+      game.move(0, 0);
+      game.move(7, 4);
+      game.move(0, 14);
+      game.move(7, 5);
+      game.move(14, 0);
+      game.move(7, 6);
+      assertEquals(Player.O, game.getTurn());
+      long start = System.nanoTime();
+      int[] move = timed.chooseMove(game);
+      long millis = (System.nanoTime() - start) / 1_000_000;
+      assertTrue("took " + millis + " ms", millis < 1000);
+      assertEquals(7, move[0]);
+      assertTrue(move[1] == 2 || move[1] == 7);
+      assertTrue(timed.getLastDepth() >= 1);
+      assertTrue(timed.getLastNodeCount() > 0);
+    } finally {
+      timed.shutdown();
+    }
+  }
+
+  /**
+   * Test that a thread spending its share of the node budget does not stop the others, so
+   * every thread spends its whole share.
+   */
+  @Test
+  public void testThreadsSpendTheirOwnBudgets() {
+    ParallelNegamaxStrategy budgeted = new ParallelNegamaxStrategy(4, 4 * 50_000, 60_000);
+    try {
+      TicTacToe game = new TicTacToeModel(15, 5);
+      game.move(7, 7);
+      game.move(7, 8);
+      budgeted.chooseMove(game);
+      assertTrue("visited " + budgeted.getLastNodeCount(),
+          budgeted.getLastNodeCount() >= 4 * 50_000);
+    } finally {
+      budgeted.shutdown();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.BookStrategy;
+import tictactoe.ConcurrentTicTacToe;
+import tictactoe.PositionBook;
+import tictactoe.PositionBookGenerator;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the position book. Verifying that endgames are solved exactly, that book moves
+ * follow the position through board symmetries, and that the strategy falls back outside the
+ * book.
+ */
+public class PositionBookTest {
+
+  private static PositionBook generate(PositionBookGenerator generator) throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    file.toFile().deleteOnExit();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      generator.write(out);
+    }
+    return PositionBook.load(file);
+  }
+
+  /**
+   * Test that an endgame region as large as the three-by-three board solves every one of its
+   * 627 unfinished positions up to symmetry, and that each stored move keeps the value.
+   */
+  @Test
+  public void testEndgameTablebase() throws IOException {
+    PositionBookGenerator generator = new PositionBookGenerator(0, 1, 9, 1, 0);
+    generator.add(3, 3);
+    PositionBook book = generate(generator);
+    assertEquals(627, book.size());
+    TicTacToe game = new TicTacToeModel();
+    assertEquals(PositionBook.DRAW, book.getValue(game));
+    checkMoves(book, game);
+    assertEquals(PositionBook.UNKNOWN, book.getValue(new TicTacToeModel(4, 3)));
+  }
+
+  /**
+   * Plays the book move in every position after the given one, checking that it is legal and
+   * that it wins, or leaves the opponent the opposite value.
+   */
+  private static void checkMoves(PositionBook book, TicTacToe game) {
+    if (game.isGameOver()) {
+      return;
+    }
+    int value = book.getValue(game);
+    int[] move = book.getMove(game);
+    assertNull(game.getMarkAt(move[0], move[1]));
+    game.move(move[0], move[1]);
+    if (game.isGameOver()) {
+      assertEquals(game.getWinner() == null ? PositionBook.DRAW : PositionBook.WIN, value);
+    } else {
+      assertEquals(-value, book.getValue(game));
+    }
+    game.undo();
+    for (int r = 0; r < 3; r++) {
+      for (int c = 0; c < 3; c++) {
+        if (game.getMarkAt(r, c) == null) {
+          game.move(r, c);
+          checkMoves(book, game);
+          game.undo();
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that the opening book answers symmetric openings with symmetric moves, and that the
+   * strategy only searches once the game leaves the book.
+   */
+  @Test
+  public void testOpeningBook() throws IOException {
+    PositionBookGenerator generator = new PositionBookGenerator(2, 5, 0, 0, 0);
+    generator.add(7, 5);
+    PositionBook book = generate(generator);
+
+    TicTacToe game = new TicTacToeModel(7, 5);
+    game.move(0, 0);
+    int[] reply = book.getMove(game);
+    assertNotNull(reply);
+    game.move(reply[0], reply[1]);
+    long answered = game.getCanonicalHash();
+    for (int[] corner : new int[][] {{0, 6}, {6, 6}, {6, 0}}) {
+      TicTacToe mirrored = new TicTacToeModel(7, 5);
+      mirrored.move(corner[0], corner[1]);
+      int[] move = book.getMove(mirrored);
+      mirrored.move(move[0], move[1]);
+      // the same reply, seen through the symmetry taking one corner to the other
+      assertEquals(answered, mirrored.getCanonicalHash());
+    }
+
+    int[] searched = new int[1];
+    BookStrategy strategy = new BookStrategy(book, g -> {
+      searched[0]++;
+      return new int[] {0, 0};
+    });
+    game = new TicTacToeModel(7, 5);
+    int[] first = strategy.chooseMove(game);
+    game.move(first[0], first[1]);
+    game.move(first[0] - 1, first[1]);
+    strategy.chooseMove(game);
+    assertEquals(1, searched[0]);
+    assertEquals(1, strategy.getBookMoves());
+    assertEquals(1, strategy.getFallbackMoves());
+    assertNull(book.getMove(new TicTacToeModel(5, 4)));
+  }
+
+  /**
+   * Test that the canonical symmetry maintained as moves are made and undone agrees with the one
+   * found from a snapshot of the board.
+   */
+  @Test
+  public void testCanonicalSymmetry() {
+    SplittableRandom random = new SplittableRandom(7);
+    for (int round = 0; round < 200; round++) {
+      TicTacToe[] games = {
+          new TicTacToeModel(), new BitboardTicTacToe(), new ConcurrentTicTacToe()
+      };
+      int moves = random.nextInt(9);
+      for (int i = 0; i < moves && !games[0].isGameOver(); i++) {
+        int cell;
+        do {
+          cell = random.nextInt(9);
+        } while (games[0].getMarkAt(cell / 3, cell % 3) != null);
+        for (TicTacToe game : games) {
+          game.move(cell / 3, cell % 3);
+        }
+      }
+      if (moves > 0 && random.nextBoolean()) {
+        for (TicTacToe game : games) {
+          game.undo();
+        }
+      }
+      assertEquals(games[2].getCanonicalSymmetry(), games[0].getCanonicalSymmetry());
+      assertEquals(games[2].getCanonicalSymmetry(), games[1].getCanonicalSymmetry());
+    }
+  }
+
+  /**
+   * Test that boards with more cells than a book move can hold are rejected.
+   */
+  @Test
+  public void testBoardTooLarge() {
+    try {
+      new PositionBookGenerator(1, 1, 0, 0, 0).add(257, 5);
+      fail("Oversized board should have thrown exception");
+    } catch (IllegalArgumentException iae) {
+      assertEquals("Board is too large for a position book!", iae.getMessage());
+    }
+  }
+
+  /**
+   * Test that a file that is not a book is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void testNotABook() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    file.toFile().deleteOnExit();
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+    PositionBook.load(file);
+  }
+}
@@ -0,0 +1,76 @@
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.NegamaxStrategy;
+import tictactoe.SelfPlaySimulator;
+import tictactoe.SimulationResult;
+import tictactoe.TicTacToeModel;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the self-play simulator. Verifying that batches are reproducible regardless of
+ * the number of threads, and that the outcome counts are plausible.
+ */
+public class SelfPlaySimulatorTest {
+
+  /**
+   * Test that random play reproduces the known outcome frequencies of random 3x3 games: X wins
+   * about 58.5%, O about 28.8%, and about 12.7% are drawn.
+   */
+  @Test
+  public void testRandomPlayFrequencies() {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(BitboardTicTacToe::new);
+    SimulationResult result = simulator.run(200_000, 1);
+    simulator.shutdown();
+    assertEquals(200_000, result.getGames());
+    assertEquals(0.585, result.getXWins() / 200_000.0, 0.01);
+    assertEquals(0.288, result.getOWins() / 200_000.0, 0.01);
+    assertEquals(0.127, result.getDraws() / 200_000.0, 0.01);
+  }
+
+  /**
+   * Test that the same seed plays the same games on one thread and on several.
+   */
+  @Test
+  public void testReproducibleAcrossThreadCounts() {
+    SelfPlaySimulator one = new SelfPlaySimulator(TicTacToeModel::new, null, null, 1);
+    SelfPlaySimulator three = new SelfPlaySimulator(TicTacToeModel::new, null, null, 3);
+    SimulationResult a = one.run(50_000, 99);
+    SimulationResult b = three.run(50_000, 99);
+    one.shutdown();
+    three.shutdown();
+    assertEquals(a.getXWins(), b.getXWins());
+    assertEquals(a.getOWins(), b.getOWins());
+    assertEquals(a.getDraws(), b.getDraws());
+    assertEquals(a.getMoves(), b.getMoves());
+  }
+
+  /**
+   * Test that a perfect player never loses to a random one, playing either side.
+   */
+  @Test
+  public void testPerfectPlayerNeverLoses() {
+    SelfPlaySimulator xPerfect = new SelfPlaySimulator(TicTacToeModel::new,
+        NegamaxStrategy::new, null, 2);
+    SelfPlaySimulator oPerfect = new SelfPlaySimulator(TicTacToeModel::new,
+        null, NegamaxStrategy::new, 2);
+    assertEquals(0, xPerfect.run(2_000, 5).getOWins());
+    assertEquals(0, oPerfect.run(2_000, 5).getXWins());
+    xPerfect.shutdown();
+    oPerfect.shutdown();
+  }
+
+  /**
+   * Test that a strategy choosing an occupied cell is reported as an illegal move.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testIllegalStrategyMove() {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(TicTacToeModel::new,
+        () -> game -> new int[] {0, 0}, null, 1);
+    try {
+      simulator.run(1, 1);
+    } finally {
+      simulator.shutdown();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.NegamaxStrategy;
+import tictactoe.Player;
+import tictactoe.SolvedPositionTable;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the solved three-by-three position table. Verifying that generation reaches
+ * every position, that symmetric positions share a record, and that the stored moves are
+ * perfect.
+ */
+public class SolvedPositionTableTest {
+
+  private SolvedPositionTable table;
+  private int reached;
+
+  /**
+   * Generates a table into a temporary file and memory-maps it.
+   */
+  @Before
+  public void setUp() throws IOException {
+    Path file = Files.createTempFile("solved", ".bin");
+    file.toFile().deleteOnExit();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      reached = SolvedPositionTable.generate(out);
+    }
+    table = SolvedPositionTable.load(file);
+  }
+
+  /**
+   * Test that generation reaches all 5,478 legal positions, which reduce to 765 under symmetry.
+   */
+  @Test
+  public void testPositionCounts() {
+    assertEquals(5478, reached);
+    assertEquals(765, table.size());
+  }
+
+  /**
+   * Test the values of a few well-known positions.
+   */
+  @Test
+  public void testValues() {
+    TicTacToe game = new TicTacToeModel();
+    assertEquals(SolvedPositionTable.DRAW, table.getValue(game));
+    game.move(0, 0); // X corner
+    game.move(0, 1); // O edge next to it loses
+    assertEquals(SolvedPositionTable.WIN, table.getValue(game));
+  }
+
+  /**
+   * Test that the best move is mapped back from the canonical frame, so every rotation of a
+   * position gets the matching rotation of its winning move.
+   */
+  @Test
+  public void testBestMoveUnderSymmetry() {
+    int[][] xCells = {{0, 0}, {0, 2}, {2, 2}, {2, 0}};
+    int[][] oCells = {{1, 0}, {0, 1}, {1, 2}, {2, 1}};
+    int[][] xSecond = {{0, 1}, {1, 2}, {2, 1}, {1, 0}};
+    int[][] wins = {{0, 2}, {2, 2}, {2, 0}, {0, 0}};
+    for (int i = 0; i < 4; i++) {
+      TicTacToe game = new TicTacToeModel();
+      game.move(xCells[i][0], xCells[i][1]);
+      game.move(oCells[i][0], oCells[i][1]);
+      game.move(xSecond[i][0], xSecond[i][1]);
+      game.move(1, 1); // O takes the center
+      assertArrayEquals(wins[i], table.getBestMove(game));
+    }
+  }
+
+  /**
+   * Test that the table agrees with a full game-tree search on random positions, and that
+   * playing its moves from the empty board draws.
+   */
+  @Test
+  public void testAgreesWithSearch() {
+    Random random = new Random(7);
+    NegamaxStrategy search = new NegamaxStrategy();
+    for (int i = 0; i < 200; i++) {
+      TicTacToe game = new TicTacToeModel();
+      int moves = random.nextInt(8);
+      for (int j = 0; j < moves && !game.isGameOver(); j++) {
+        int r;
+        int c;
+        do {
+          r = random.nextInt(3);
+          c = random.nextInt(3);
+        } while (game.getMarkAt(r, c) != null);
+        game.move(r, c);
+      }
+      if (game.isGameOver()) {
+        continue;
+      }
+      // with both sides playing perfectly, the game ends with the table's value
+      Player mover = game.getTurn();
+      int value = table.getValue(game);
+      while (!game.isGameOver()) {
+        int[] move = game.getTurn() == mover ? table.getBestMove(game) : search.chooseMove(game);
+        game.move(move[0], move[1]);
+      }
+      int outcome = game.getWinner() == null ? 0 : game.getWinner() == mover ? 1 : -1;
+      assertEquals(value, outcome);
+    }
+
+    TicTacToe game = new TicTacToeModel();
+    while (!game.isGameOver()) {
+      int[] move = table.getBestMove(game);
+      game.move(move[0], move[1]);
+    }
+    assertNull(game.getWinner());
+  }
+
+  /**
+   * Test that the table refuses games with other rules.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOtherRules() {
+    table.getValue(new TicTacToeModel(4, 3));
+  }
+
+  /**
+   * Test that a header with a negative record count is rejected rather than loaded.
+   */
+  @Test(expected = IOException.class)
+  public void testNegativeCount() throws IOException {
+    Path file = Files.createTempFile("corrupt", ".bin");
+    file.toFile().deleteOnExit();
+    Files.write(file, ByteBuffer.allocate(12).putInt(SolvedPositionTable.MAGIC).putInt(1)
+        .putInt(-1).array());
+    SolvedPositionTable.load(file);
+  }
+}
@@ -0,0 +1,208 @@
+import org.junit.Test;
+import tictactoe.Player;
+import tictactoe.SpectatorHub;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeModel;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the spectator hub. Verifying that the frames a subscriber receives rebuild the
+ * board, that late subscribers start from a keyframe, and that slow subscribers are coalesced
+ * or dropped without holding up the game.
+ */
+public class SpectatorHubTest {
+
+  /**
+   * A channel that keeps what it is written, accepting at most a given number of bytes per
+   * write.
+   */
+  private static final class Spectator implements WritableByteChannel {
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    private int budget = Integer.MAX_VALUE;
+    private boolean open = true;
+
+    @Override
+    public int write(ByteBuffer src) {
+      int n = Math.min(budget, src.remaining());
+      for (int i = 0; i < n; i++) {
+        received.write(src.get());
+      }
+      return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
+
+  /**
+   * Applies a stream of frames to an empty board, checking that sequence numbers only jump
+   * where a keyframe starts over.
+   *
+   * @param keyframes receives the number of keyframes in its first element
+   * @return the board
+   */
+  private static Player[][] decode(byte[] stream, int size, int[] keyframes) {
+    Player[][] board = new Player[size][size];
+    ByteBuffer in = ByteBuffer.wrap(stream);
+    int expected = -1;
+    while (in.hasRemaining()) {
+      char type = (char) in.get();
+      int sequence = in.getInt();
+      if (type == 'K') {
+        keyframes[0]++;
+        assertEquals(size, in.getShort());
+        in.get();
+        byte[] cells = new byte[(size * size + 3) / 4];
+        in.get(cells);
+        for (int cell = 0; cell < size * size; cell++) {
+          int mark = cells[cell / 4] >> (cell % 4 * 2) & 3;
+          board[cell / size][cell % size] = mark == 0 ? null : mark == 1 ? Player.X : Player.O;
+        }
+      } else {
+        assertEquals(expected, sequence);
+        if (type == 'M') {
+          int cell = in.getInt();
+          board[cell / size][cell % size] = in.get() == 1 ? Player.X : Player.O;
+        } else if (type == 'U') {
+          int cell = in.getInt();
+          board[cell / size][cell % size] = null;
+        } else {
+          assertEquals('E', type);
+          in.get();
+        }
+      }
+      expected = sequence + 1;
+    }
+    return board;
+  }
+
+  private static void playRandomly(TicTacToe game, Random random, int moves) {
+    int size = game.getSize();
+    for (int i = 0; i < moves && !game.isGameOver(); i++) {
+      int cell;
+      do {
+        cell = random.nextInt(size * size);
+      } while (game.getMarkAt(cell / size, cell % size) != null);
+      game.move(cell / size, cell % size);
+    }
+  }
+
+  /**
+   * Test that subscribers pumped after every move, including an undo and a subscriber that
+   * joins late, rebuild the current board, and that moves cost a few bytes each.
+   */
+  @Test
+  public void testDeltasRebuildBoard() {
+    TicTacToe game = new TicTacToeModel(9, 5);
+    SpectatorHub hub = new SpectatorHub(game, 1 << 12, 8);
+    Spectator early = new Spectator();
+    hub.subscribe(early);
+    Random random = new Random(3);
+    playRandomly(game, random, 10);
+    game.undo();
+    hub.pump();
+    Spectator late = new Spectator();
+    hub.subscribe(late);
+    for (int i = 0; i < 20 && !game.isGameOver(); i++) {
+      playRandomly(game, random, 1);
+      hub.pump();
+    }
+    int[] keyframes = new int[1];
+    assertArrayEquals(game.getBoard(), decode(early.received.toByteArray(), 9, keyframes));
+    assertArrayEquals(game.getBoard(), decode(late.received.toByteArray(), 9, new int[1]));
+    // the first keyframe, then one every eight moves
+    assertEquals(1 + (game.getMoveCount() + 1) / 8, keyframes[0]);
+    assertTrue(hub.getPublishedBytes() < 30 * game.getMoveCount() + 100);
+    assertEquals(0, hub.getResyncs());
+    hub.close();
+    assertFalse(early.isOpen());
+  }
+
+  /**
+   * Test that a reset game is broadcast on the same stream, so subscribers follow the new game.
+   */
+  @Test
+  public void testReset() {
+    TicTacToe game = new TicTacToeModel(5, 4);
+    SpectatorHub hub = new SpectatorHub(game, 1 << 12, 100);
+    Spectator spectator = new Spectator();
+    hub.subscribe(spectator);
+    Random random = new Random(5);
+    playRandomly(game, random, 6);
+    hub.pump();
+    game.reset();
+    playRandomly(game, random, 3);
+    hub.pump();
+    int[] keyframes = new int[1];
+    assertArrayEquals(game.getBoard(), decode(spectator.received.toByteArray(), 5, keyframes));
+    assertEquals(2, keyframes[0]);
+    hub.close();
+  }
+
+  /**
+   * Test that a subscriber that stops reading while the game runs on skips ahead to the latest
+   * keyframe, and one that stops in the middle of a write is dropped.
+   */
+  @Test
+  public void testSlowSubscribers() {
+    TicTacToe game = new TicTacToeModel(9, 9);
+    SpectatorHub hub = new SpectatorHub(game, 0, 4);
+    Spectator stalled = new Spectator();
+    Spectator partial = new Spectator();
+    hub.subscribe(stalled);
+    hub.subscribe(partial);
+    stalled.budget = 0;
+    partial.budget = 3;
+    Random random = new Random(5);
+    playRandomly(game, random, 2);
+    hub.pump();
+    playRandomly(game, random, 2 * hub.getCapacity() / 10);
+    stalled.budget = Integer.MAX_VALUE;
+    hub.pump();
+    assertEquals(1, hub.getResyncs());
+    assertEquals(1, hub.getDropped());
+    assertEquals(1, hub.getSubscriberCount());
+    assertFalse(partial.isOpen());
+    assertTrue(stalled.isOpen());
+    assertArrayEquals(game.getBoard(), decode(stalled.received.toByteArray(), 9, new int[1]));
+    hub.close();
+  }
+
+  /**
+   * Test that a subscriber whose next frame lies in the oldest frame's worth of the ring, which
+   * the game may be overwriting while the pump copies it, is resynced rather than sent it.
+   */
+  @Test
+  public void testResyncNearOverwrite() {
+    TicTacToe game = new TicTacToeModel(9, 9);
+    SpectatorHub hub = new SpectatorHub(game, 0, 4);
+    Spectator stalled = new Spectator();
+    hub.subscribe(stalled);
+    stalled.budget = 0;
+    hub.pump();
+    Random random = new Random(11);
+    int keyframeBytes = 5 + 3 + (9 * 9 + 3) / 4; // the largest frame
+    while (hub.getPublishedBytes() <= hub.getCapacity() - keyframeBytes) {
+      playRandomly(game, random, 1);
+    }
+    assertTrue(hub.getPublishedBytes() <= hub.getCapacity());
+    stalled.budget = Integer.MAX_VALUE;
+    hub.pump();
+    assertEquals(1, hub.getResyncs());
+    assertArrayEquals(game.getBoard(), decode(stalled.received.toByteArray(), 9, new int[1]));
+    hub.close();
+  }
+}
@@ -1,230 +1,170 @@
 import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.ConcurrentTicTacToe;
 import tictactoe.Player;
 import tictactoe.TicTacToe;
+import tictactoe.TicTacToeListener;
 import tictactoe.TicTacToeModel;
 
 import static org.junit.Assert.*;
 
 /**
- * Test cases for the tic tac toe model. Verifying that game state is properly managed, and
- * all game actions are properly validated.
+ * Test cases for the tic tac toe model. Runs the shared scenarios of
+ * {@code AbstractTicTacToeTest}, and verifies boards of other sizes and win lengths.
  */
-public class TicTacToeModelTest {
+public class TicTacToeModelTest extends AbstractTicTacToeTest {
 
-  private TicTacToe ttt1 = new TicTacToeModel();
-  private TicTacToe exampleGame = new TicTacToeModel();
-
-  /**
-   * Test for the move() method, verifying that the player turn is updated correctly.
-   */
-  @Test
-  public void testMove() {
-    ttt1.move(0, 0);
-    assertEquals(Player.O, ttt1.getTurn());
+  @Override
+  protected TicTacToe newGame() {
+    return new TicTacToeModel();
   }
 
   /**
-   * Test for a horizontal win scenario, verifying that the game is correctly declared as over,
-   * the winner is determined, and the game board is updated accordingly.
+   * Test for a five-in-a-row win on a fifteen-by-fifteen board, verifying that four in a row is
+   * not enough and the fifth marker ends the game.
    */
   @Test
-  public void testHorizontalWin() {
-    ttt1.move(0, 0); // X takes upper left
-    assertFalse(ttt1.isGameOver());
-    ttt1.move(1, 0); // O takes middle left
-    ttt1.move(0, 1); // X takes upper middle
-    assertNull(ttt1.getWinner());
-    ttt1.move(2, 0); // O takes lower left
-    ttt1.move(0, 2); // X takes upper right
-    assertTrue(ttt1.isGameOver());
-    assertEquals(Player.X, ttt1.getWinner());
-    assertEquals(" X | X | X\n"
-                          + "-----------\n"
-                          + " O |   |  \n"
-                          + "-----------\n"
-                          + " O |   |  ", ttt1.toString());
+  public void testGomokuHorizontalWin() {
+    TicTacToe gomoku = new TicTacToeModel(15, 5);
+    assertEquals(15, gomoku.getSize());
+    assertEquals(5, gomoku.getWinLength());
+    for (int c = 3; c < 7; c++) {
+      gomoku.move(7, c); // X builds a row
+      gomoku.move(0, c); // O plays elsewhere
+    }
+    assertFalse(gomoku.isGameOver());
+    assertNull(gomoku.getWinner());
+    gomoku.move(7, 2); // X completes five by extending to the left
+    assertTrue(gomoku.isGameOver());
+    assertEquals(Player.X, gomoku.getWinner());
   }
 
   /**
-   * Test for a diagonal win scenario, verifying that the game is correctly declared as over,
-   * the winner is determined, and the game board is updated accordingly.
+   * Test for an anti-diagonal win on a larger board where the win length is shorter than the
+   * board size.
    */
   @Test
-  public void testDiagonalWin() {
-    diagonalWinHelper();
-    assertTrue(ttt1.isGameOver());
-    assertEquals(Player.O, ttt1.getWinner());
-    assertEquals(" X | X | O\n"
-            + "-----------\n"
-            + " X | O |  \n"
-            + "-----------\n"
-            + " O |   |  ", ttt1.toString());
-  }
-
-  // set up situation where game is over, O wins on the diagonal, board is not full
-  private void diagonalWinHelper() {
-    ttt1.move(0, 0); // X takes upper left
-    assertFalse(ttt1.isGameOver());
-    ttt1.move(2, 0); // O takes lower left
-    ttt1.move(1, 0); // X takes middle left
-    assertNull(ttt1.getWinner());
-    ttt1.move(1, 1); // O takes center
-    ttt1.move(0, 1); // X takes upper middle
-    ttt1.move(0, 2); // O takes upper right
+  public void testAntiDiagonalWinOnLargerBoard() {
+    TicTacToe game = new TicTacToeModel(5, 3);
+    game.move(0, 0); // X
+    game.move(1, 3); // O
+    game.move(0, 1); // X
+    game.move(3, 1); // O
+    game.move(4, 4); // X
+    assertNull(game.getWinner());
+    game.move(2, 2); // O completes (1,3), (2,2), (3,1)
+    assertTrue(game.isGameOver());
+    assertEquals(Player.O, game.getWinner());
   }
 
   /**
-   * Test for an invalid move scenario, verifying that an exception is
-   * thrown and the game state remains unchanged.
+   * Test for the board string of a non-default size, verifying that the row separator matches
+   * the width of the board.
    */
   @Test
-  public void testInvalidMove() {
-    ttt1.move(0, 0);
-    assertEquals(Player.O, ttt1.getTurn());
-    assertEquals(Player.X, ttt1.getMarkAt(0, 0));
-    try {
-      ttt1.move(0, 0);
-      fail("Invalid move should have thrown exception");
-    } catch (IllegalArgumentException iae) {
-      assertEquals("Position occupied", iae.getMessage());
-      assertTrue(iae.getMessage().length() > 0);
-    }
-    try {
-      ttt1.move(-1, 0);
-      fail("Invalid move should have thrown exception");
-    } catch (IllegalArgumentException iae) {
-      assertEquals("Position is out of bounds!", iae.getMessage());
-      assertTrue(iae.getMessage().length() > 0);
-    }
+  public void testToStringLargerBoard() {
+    TicTacToe game = new TicTacToeModel(4, 3);
+    game.move(0, 3);
+    assertEquals("   |   |   | X\n"
+        + "---------------\n"
+        + "   |   |   |  \n"
+        + "---------------\n"
+        + "   |   |   |  \n"
+        + "---------------\n"
+        + "   |   |   |  ", game.toString());
   }
 
   /**
-   * Test for attempting to make a move after the game is already
-   * over, verifying that an exception is thrown.
+   * Test for creating a game whose win length is longer than the board, verifying that an
+   * exception is thrown.
    */
-  @Test(expected = IllegalStateException.class)
-  public void testMoveAttemptAfterGameOver() {
-    diagonalWinHelper();
-    ttt1.move(2, 2); // 2,2 is an empty position
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWinLength() {
+    new TicTacToeModel(3, 4);
   }
 
   /**
-   * Test for a cats game scenario, verifying that the game is correctly declared as over,
-   * there is no winner, and the game board is updated accordingly.
+   * Test for getHash() and getCanonicalHash(), verifying that the hash depends only on the marks,
+   * that the canonical hash is shared by rotations and reflections, that undo restores both, and
+   * that every implementation hashes a position alike.
    */
   @Test
-  public void testCatsGame() {
+  public void testHash() {
+    assertEquals(0, ttt1.getHash());
     ttt1.move(0, 0);
-    assertEquals(Player.O, ttt1.getTurn());
     ttt1.move(1, 1);
-    assertEquals(Player.X, ttt1.getTurn());
-    ttt1.move(0, 2);
     ttt1.move(0, 1);
-    ttt1.move(2, 1);
-    ttt1.move(1, 0);
-    ttt1.move(1, 2);
+    exampleGame.move(0, 1);
+    exampleGame.move(1, 1);
+    exampleGame.move(0, 0);
+    assertEquals(ttt1.getHash(), exampleGame.getHash());
+
+    // the same shape rotated a quarter turn
+    TicTacToe rotated = new TicTacToeModel();
+    rotated.move(0, 2);
+    rotated.move(1, 1);
+    rotated.move(1, 2);
+    assertNotEquals(ttt1.getHash(), rotated.getHash());
+    assertEquals(ttt1.getCanonicalHash(), rotated.getCanonicalHash());
+
+    long hash = ttt1.getHash();
+    long canonical = ttt1.getCanonicalHash();
     ttt1.move(2, 2);
-    ttt1.move(2, 0);
-    assertTrue(ttt1.isGameOver());
-    assertNull(ttt1.getWinner());
-    assertEquals(" X | O | X\n"
-            + "-----------\n"
-            + " O | O | X\n"
-            + "-----------\n"
-            + " X | X | O", ttt1.toString());
-  }
-
-  /**
-   * Test for getting the mark at a valid position.
-   */
-  @Test
-  public void testValidGetMarkAt() {
-    ttt1.move(2, 0);
-    assertEquals(Player.X, ttt1.getMarkAt(2, 0));
-  }
-
-  /**
-   * Test for getting the mark at an invalid row, verifying that an exception is thrown.
-   */
-  @Test(expected = IllegalArgumentException.class)
-  public void testInvalidGetMarkAtRow() {
-    ttt1.getMarkAt(-12, 0);
-  }
-
-  /**
-   * Test for getting the mark at an invalid column, verifying that an exception is thrown.
-   */
-  @Test(expected = IllegalArgumentException.class)
-  public void testInvalidGetMarkAtCol() {
-    ttt1.getMarkAt(0, -30);
-  }
-
-  /**
-   * Test for the getBoard() method, verifying that the returned game board is a separate copy
-   * and not affected by mutations.
-   */
-  @Test
-  public void testGetBoard() {
-    diagonalWinHelper();
-    Player[][] bd = ttt1.getBoard();
-    assertEquals(Player.X, bd[0][0]);
-    assertEquals(Player.O, bd[1][1]);
-    assertEquals(Player.X, bd[0][1]);
-
-    // attempt to cheat by mutating board returned by getBoard()
-    // check correct preconditions
-    assertEquals(Player.O, bd[2][0]);
-    assertEquals(Player.O, ttt1.getMarkAt(2, 0));
-    bd[2][0] = Player.X;  // mutate
-    // check correct post conditions
-    assertEquals(Player.O, ttt1.getMarkAt(2, 0));
-    Player[][] bd2 = ttt1.getBoard();
-    assertEquals(Player.O, bd2[2][0]);
+    assertNotEquals(hash, ttt1.getHash());
+    ttt1.undo();
+    assertEquals(hash, ttt1.getHash());
+    assertEquals(canonical, ttt1.getCanonicalHash());
+
+    for (TicTacToe other : new TicTacToe[] {new BitboardTicTacToe(), new ConcurrentTicTacToe()}) {
+      other.move(0, 2);
+      other.move(1, 1);
+      other.move(1, 2);
+      assertEquals(rotated.getHash(), other.getHash());
+      assertEquals(canonical, other.getCanonicalHash());
+    }
   }
 
-  // TODO: test case where board is full AND there is a winner
   /**
-   * Test for a scenario where the game board is full and there is a winner,
-   * verifying that the game is correctly declared as over and the winner is determined.
+   * Test for reset(), verifying that a finished game returns to its initial state, forgets its
+   * history, tells its listeners, and plays the same as a new game.
    */
   @Test
-  public void testFullBoardWithWinner() {
-    assertFalse(exampleGame.isGameOver());
-
-    assertEquals(Player.X, exampleGame.getTurn());
-    exampleGame.move(0, 0);
-    assertEquals(Player.O, exampleGame.getTurn());
-    exampleGame.move(1, 0);
-    assertEquals(Player.X, exampleGame.getTurn());
-    exampleGame.move(1, 1);
-    assertEquals(Player.O, exampleGame.getTurn());
-    exampleGame.move(2, 2);
-    assertEquals(Player.X, exampleGame.getTurn());
-    exampleGame.move(1, 2);
-    assertEquals(Player.O, exampleGame.getTurn());
-    exampleGame.move(0, 2);
-    assertEquals(Player.X, exampleGame.getTurn());
-    exampleGame.move(0, 1);
-    assertEquals(Player.O, exampleGame.getTurn());
-    exampleGame.move(2, 0);
-    assertEquals(Player.X, exampleGame.getTurn());
-    exampleGame.move(2, 1);
-
-    assertTrue(exampleGame.isGameOver());
-    assertEquals(Player.X, exampleGame.getWinner());
-
-    assertEquals(Player.O, exampleGame.getMarkAt(0, 2));
-    assertEquals(Player.X, exampleGame.getMarkAt(1, 1));
-
-    Player[][] bd = exampleGame.getBoard();
-    assertEquals(Player.X, bd[0][0]);
-    assertEquals(Player.O, bd[1][0]);
-    assertEquals(Player.X, bd[2][1]);
-
-    assertEquals(" X | X | O\n"
-        + "-----------\n"
-        + " O | X | X\n"
-        + "-----------\n"
-        + " O | X | O", exampleGame.toString());
+  public void testReset() {
+    TicTacToe game = new TicTacToeModel(4, 3);
+    TicTacToe fresh = new TicTacToeModel(4, 3);
+    int[] events = new int[2];
+    game.addListener(new TicTacToeListener() {
+      @Override
+      public void moveMade(int r, int c, Player player) {
+        events[0]++;
+      }
+
+      @Override
+      public void gameReset() {
+        events[1]++;
+      }
+    });
+    game.applyMoves(new int[] {0, 4, 1, 5, 2}, 0, 5);
+    game.undo();
+    assertTrue(game.canRedo());
+    game.redo();
+    assertEquals(Player.X, game.getWinner());
+    int before = events[0];
+
+    game.reset();
+    assertEquals(1, events[1]);
+    assertEquals(0, game.getMoveCount());
+    assertFalse(game.isGameOver());
+    assertNull(game.getWinner());
+    assertFalse(game.canRedo());
+    assertEquals(Player.X, game.getTurn());
+    assertEquals(fresh.toString(), game.toString());
+    assertEquals(fresh.getHash(), game.getHash());
+    assertEquals(fresh.getCanonicalHash(), game.getCanonicalHash());
+
+    game.move(3, 3);
+    fresh.move(3, 3);
+    assertEquals(before + 1, events[0]);
+    assertEquals(fresh.getCanonicalHash(), game.getCanonicalHash());
   }
 }
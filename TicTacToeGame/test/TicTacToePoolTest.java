@@ -0,0 +1,111 @@
+import org.junit.Test;
+import tictactoe.BitboardTicTacToe;
+import tictactoe.ConcurrentTicTacToe;
+import tictactoe.Player;
+import tictactoe.TicTacToe;
+import tictactoe.TicTacToeListener;
+import tictactoe.TicTacToeModel;
+import tictactoe.TicTacToePool;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the game pool. Verifying that released games come back reset, the hit and miss
+ * counts, the per-thread bound, and that every implementation can be pooled.
+ */
+public class TicTacToePoolTest {
+
+  /**
+   * Test that a released game is reset, without its listeners, and handed out again, and that
+   * games are only created when none is free.
+   */
+  @Test
+  public void testReuse() {
+    AtomicInteger created = new AtomicInteger();
+    TicTacToePool pool = new TicTacToePool(() -> {
+      created.incrementAndGet();
+      return new TicTacToeModel();
+    }, 4);
+    TicTacToe first = pool.acquire();
+    int[] events = new int[1];
+    first.addListener(new TicTacToeListener() {
+      @Override
+      public void moveMade(int r, int c, Player player) {
+        events[0]++;
+      }
+
+      @Override
+      public void gameReset() {
+        events[0]++;
+      }
+    });
+    first.applyMoves(new int[] {0, 3, 1, 4, 2}, 0, 5);
+    assertEquals(Player.X, first.getWinner());
+    pool.release(first);
+
+    TicTacToe second = pool.acquire();
+    assertSame(first, second);
+    assertEquals(0, second.getMoveCount());
+    assertNull(second.getWinner());
+    second.move(1, 1);
+    assertEquals("released games should lose their listeners", 5, events[0]);
+    second.undo();
+    assertNotSame(second, pool.acquire());
+    assertEquals(2, created.get());
+    assertEquals(1, pool.getHits());
+    assertEquals(2, pool.getMisses());
+    assertEquals(1.0 / 3, pool.getHitRate(), 1e-9);
+  }
+
+  /**
+   * Test that each thread keeps at most the capacity, and that threads do not share free games.
+   */
+  @Test
+  public void testBounds() throws InterruptedException {
+    TicTacToePool pool = new TicTacToePool(TicTacToeModel::new, 2);
+    TicTacToe[] games = {pool.acquire(), pool.acquire(), pool.acquire()};
+    for (TicTacToe game : games) {
+      pool.release(game);
+    }
+    assertEquals(1, pool.getDiscards());
+
+    Thread other = new Thread(() -> pool.acquire());
+    other.start();
+    other.join();
+    assertEquals(4, pool.getMisses());
+    pool.acquire();
+    pool.acquire();
+    assertEquals(2, pool.getHits());
+    pool.acquire();
+    assertEquals(5, pool.getMisses());
+  }
+
+  /**
+   * Test that every implementation resets to a game that plays like a new one.
+   */
+  @Test
+  public void testResetImplementations() {
+    for (Supplier<TicTacToe> factory : List.<Supplier<TicTacToe>>of(
+        TicTacToeModel::new, BitboardTicTacToe::new, ConcurrentTicTacToe::new)) {
+      TicTacToePool pool = new TicTacToePool(factory, 1);
+      TicTacToe game = pool.acquire();
+      game.applyMoves(new int[] {4, 0, 8, 2, 1, 7, 6, 3, 5}, 0, 9);
+      assertTrue(game.isGameOver());
+      pool.release(game);
+
+      TicTacToe reused = pool.acquire();
+      TicTacToe fresh = factory.get();
+      assertEquals(fresh.toString(), reused.toString());
+      assertEquals(fresh.getHash(), reused.getHash());
+      assertEquals(Player.X, reused.getTurn());
+      assertFalse(reused.canRedo());
+      reused.move(1, 1);
+      fresh.move(1, 1);
+      assertEquals(fresh.getCanonicalHash(), reused.getCanonicalHash());
+    }
+  }
+}
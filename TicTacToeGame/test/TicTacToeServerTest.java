@@ -0,0 +1,284 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tictactoe.MoveJournal;
+import tictactoe.TicTacToeLoadGenerator;
+import tictactoe.TicTacToeServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the headless game server. Verifying the request protocol over a real socket,
+ * and that the load generator can drive many games without errors.
+ */
+public class TicTacToeServerTest {
+
+  private TicTacToeServer server;
+  private Socket socket;
+  private BufferedReader in;
+  private OutputStream out;
+
+  /**
+   * Starts a server on a free port and connects to it.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = new TicTacToeServer(0, 2);
+    server.start();
+    socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+        StandardCharsets.US_ASCII));
+    out = socket.getOutputStream();
+  }
+
+  /**
+   * Disconnects and stops the server.
+   */
+  @After
+  public void tearDown() throws IOException {
+    socket.close();
+    server.close();
+  }
+
+  private String request(String line) throws IOException {
+    out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+    return in.readLine();
+  }
+
+  /**
+   * Test a whole game played over the protocol, ending in a win for X.
+   */
+  @Test
+  public void testPlayGame() throws IOException {
+    String created = request("NEW");
+    assertTrue(created.startsWith("OK "));
+    String id = created.substring(3);
+    assertEquals("OK O", request("MOVE " + id + " 0 0"));
+    assertEquals("OK X", request("MOVE " + id + " 1 0"));
+    assertEquals("OK O", request("MOVE " + id + " 0 1"));
+    assertEquals("OK X", request("MOVE " + id + " 1 1"));
+    assertEquals("OK WIN X", request("MOVE " + id + " 0 2"));
+    assertEquals("OK XXXOO....", request("BOARD " + id));
+    assertEquals("ERR Game is over!", request("MOVE " + id + " 2 2"));
+    assertEquals("OK", request("END " + id));
+    assertEquals("ERR No such game", request("BOARD " + id));
+    assertEquals("ERR No such game", request("MOVE " + id + " 2 2"));
+
+    // the ended game is recycled, empty, for the next standard game
+    String next = request("NEW").substring(3);
+    assertEquals("OK .........", request("BOARD " + next));
+    // a connection stays on one event loop, so the game went back to that loop's free games
+    assertEquals(1, server.getGamePool().getMisses());
+    assertEquals(1, server.getGamePool().getHits());
+  }
+
+  /**
+   * Test that invalid requests are rejected with an error and leave the game unchanged.
+   */
+  @Test
+  public void testInvalidRequests() throws IOException {
+    String id = request("NEW 5 4").substring(3);
+    assertEquals("ERR Position is out of bounds!", request("MOVE " + id + " 5 0"));
+    assertEquals("OK O", request("MOVE " + id + " 2 2"));
+    assertEquals("ERR Position occupied", request("MOVE " + id + " 2 2"));
+    assertEquals("ERR Usage: MOVE id row col", request("MOVE " + id + " 1"));
+    assertEquals("ERR No such game", request("MOVE 999999 0 0"));
+    assertEquals("ERR Usage: NEW [size winLength]", request("NEW 3 4"));
+    assertEquals("ERR Unknown command", request("JUMP"));
+    assertEquals("OK ............X............", request("BOARD " + id));
+  }
+
+  /**
+   * Test that pipelined requests are answered in order.
+   */
+  @Test
+  public void testPipelining() throws IOException {
+    String id = request("NEW").substring(3);
+    out.write(("MOVE " + id + " 1 1\nMOVE " + id + " 0 0\nBOARD " + id + "\n")
+        .getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+    assertEquals("OK O", in.readLine());
+    assertEquals("OK X", in.readLine());
+    assertEquals("OK O...X....", in.readLine());
+  }
+
+  /**
+   * Test that a request longer than the input buffer is answered once and skipped to its end of
+   * line, so the next request is answered normally.
+   */
+  @Test
+  public void testRequestTooLong() throws IOException {
+    StringBuilder request = new StringBuilder("BOARD ");
+    for (int i = 0; i < 10_000; i++) {
+      request.append('1');
+    }
+    out.write((request + "\nNEW\n").getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+    assertEquals("ERR Request too long", in.readLine());
+    assertTrue(in.readLine().startsWith("OK "));
+  }
+
+  /**
+   * Test that a client pipelining large responses faster than it reads them is throttled rather
+   * than buffered without bound, and gets every response once it reads.
+   */
+  @Test
+  public void testPipelinedLargeResponses() throws IOException {
+    String id = request("NEW 300 300").substring(3);
+    StringBuilder requests = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      requests.append("BOARD ").append(id).append('\n');
+    }
+    out.write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(3 + 300 * 300, in.readLine().length());
+    }
+    assertEquals("OK O", request("MOVE " + id + " 0 0"));
+  }
+
+  /**
+   * Test that only the connection that started a game may end it, though any may move in it.
+   */
+  @Test
+  public void testEndRequiresOwner() throws IOException {
+    String id = request("NEW").substring(3);
+    try (Socket other = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(other.getInputStream(),
+          StandardCharsets.US_ASCII));
+      other.getOutputStream().write(("MOVE " + id + " 1 1\nEND " + id + "\n")
+          .getBytes(StandardCharsets.US_ASCII));
+      assertEquals("OK O", reader.readLine());
+      assertEquals("ERR Not your game", reader.readLine());
+    }
+    assertEquals("OK", request("END " + id));
+  }
+
+  /**
+   * Test that games are discarded when the connection that started them closes.
+   */
+  @Test
+  public void testGamesDiscardedOnClose() throws IOException, InterruptedException {
+    request("NEW");
+    request("NEW");
+    assertEquals(2, server.getGameCount());
+    socket.close();
+    for (int i = 0; i < 100 && server.getGameCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, server.getGameCount());
+  }
+
+  /**
+   * Test that a journaled server's games are hosted again, under their old ids, by a server
+   * started on the same journal after the first one died.
+   */
+  @Test
+  public void testJournalRecovery() throws IOException {
+    Path dir = Files.createTempDirectory("journal");
+    MoveJournal journal = new MoveJournal(dir, 100, 1000, 1000);
+    TicTacToeServer first = new TicTacToeServer(0, 1, journal);
+    first.start();
+    String id;
+    try (Socket client = new Socket(InetAddress.getLoopbackAddress(), first.getPort())) {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(),
+          StandardCharsets.US_ASCII));
+      client.getOutputStream().write("NEW 5 4\n".getBytes(StandardCharsets.US_ASCII));
+      id = reader.readLine().substring(3);
+      client.getOutputStream().write(("MOVE " + id + " 2 2\n").getBytes(StandardCharsets.US_ASCII));
+      assertEquals("OK O", reader.readLine());
+      journal.sync();
+
+      // the first server is still running: as far as the journal is concerned, it crashed
+      MoveJournal recovered = new MoveJournal(dir, 100, 1000, 1000);
+      TicTacToeServer second = new TicTacToeServer(0, 1, recovered);
+      second.start();
+      assertEquals(1, second.getGameCount());
+      socket.close();
+      socket = new Socket(InetAddress.getLoopbackAddress(), second.getPort());
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.US_ASCII));
+      out = socket.getOutputStream();
+      assertEquals("OK ............X............", request("BOARD " + id));
+      assertEquals("OK X", request("MOVE " + id + " 0 0"));
+      assertTrue(Long.parseLong(request("NEW").substring(3)) > Long.parseLong(id));
+      socket.close();
+      second.close();
+      recovered.close();
+    } finally {
+      first.close();
+      journal.close();
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+    }
+  }
+
+  /**
+   * Test that a server whose journal fails, and then is closed, keeps serving: new games and
+   * moves are refused, while games can still be shown and ended.
+   */
+  @Test
+  public void testJournalFailure() throws IOException, InterruptedException {
+    Path dir = Files.createTempDirectory("journal");
+    MoveJournal journal = new MoveJournal(dir, 100, 1000, 1000);
+    TicTacToeServer journaled = new TicTacToeServer(0, 1, journal);
+    journaled.start();
+    try {
+      socket.close();
+      socket = new Socket(InetAddress.getLoopbackAddress(), journaled.getPort());
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+          StandardCharsets.US_ASCII));
+      out = socket.getOutputStream();
+      String first = request("NEW").substring(3);
+      String second = request("NEW").substring(3);
+      assertEquals("OK O", request("MOVE " + first + " 1 1"));
+
+      MoveJournalTest.interruptWriter(journal);
+      assertEquals("ERR Journal failed", request("NEW"));
+      assertEquals("ERR Journal failed", request("MOVE " + first + " 0 0"));
+      assertEquals("OK ....X....", request("BOARD " + first));
+      assertEquals("OK", request("END " + first));
+
+      try {
+        journal.close();
+        fail("Close should have reported the failure");
+      } catch (IOException e) {
+        // expected: the journal had failed
+      }
+      assertEquals("ERR Journal failed", request("MOVE " + second + " 0 0"));
+      assertEquals("OK", request("END " + second));
+      assertEquals(0, journaled.getGameCount());
+    } finally {
+      journaled.close();
+      try (Stream<Path> files = Files.walk(dir)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+    }
+  }
+
+  /**
+   * Test that the load generator plays games against the server without errors.
+   */
+  @Test
+  public void testLoadGenerator() throws IOException {
+    TicTacToeLoadGenerator generator = new TicTacToeLoadGenerator(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 4, 50);
+    String summary = generator.run(500);
+    assertTrue(summary, summary.contains(" 0 errors"));
+  }
+}
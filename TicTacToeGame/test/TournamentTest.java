@@ -0,0 +1,142 @@
+import org.junit.Test;
+import tictactoe.NegamaxStrategy;
+import tictactoe.Strategy;
+import tictactoe.TicTacToeModel;
+import tictactoe.Tournament;
+import tictactoe.TournamentResult;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the tournament runner. Verifying the pairing schedules, that standings and
+ * ratings reflect the strength of the entrants, and that results do not depend on the number of
+ * threads.
+ */
+public class TournamentTest {
+
+  // marks the first empty cell in reading order
+  private static final Strategy FIRST_EMPTY = game -> {
+    for (int r = 0; r < game.getSize(); r++) {
+      for (int c = 0; c < game.getSize(); c++) {
+        if (game.getMarkAt(r, c) == null) {
+          return new int[] {r, c};
+        }
+      }
+    }
+    throw new IllegalStateException("Game is over!");
+  };
+
+  // marks the last empty cell in reading order
+  private static final Strategy LAST_EMPTY = game -> {
+    for (int r = game.getSize() - 1; r >= 0; r--) {
+      for (int c = game.getSize() - 1; c >= 0; c--) {
+        if (game.getMarkAt(r, c) == null) {
+          return new int[] {r, c};
+        }
+      }
+    }
+    throw new IllegalStateException("Game is over!");
+  };
+
+  private static Tournament tournament(int gamesPerPairing, int threads) {
+    Tournament tournament = new Tournament(TicTacToeModel::new, gamesPerPairing, 2, threads);
+    tournament.addEntrant("negamax", NegamaxStrategy::new);
+    tournament.addEntrant("first", () -> FIRST_EMPTY);
+    tournament.addEntrant("last", () -> LAST_EMPTY);
+    return tournament;
+  }
+
+  /**
+   * Test that in a round robin every entrant plays every other, that perfect play never loses
+   * and comes out on top, and that the same seed gives the same standings on one thread and on
+   * several.
+   */
+  @Test
+  public void testRoundRobin() {
+    Tournament one = tournament(20, 1);
+    Tournament three = tournament(20, 3);
+    TournamentResult a = one.roundRobin(5);
+    TournamentResult b = three.roundRobin(5);
+    one.shutdown();
+    three.shutdown();
+
+    assertEquals(60, a.getGames());
+    TournamentResult.Standing best = a.getStandings().get(0);
+    assertEquals("negamax", best.getName());
+    assertEquals(40, best.getGames());
+    assertEquals(0, best.getLosses());
+    assertTrue(best.getRating() > 1500);
+    assertTrue(best.getMoves() > 0);
+    assertTrue(best.getThinkNanos() > 0);
+    for (TournamentResult.Standing s : a.getStandings()) {
+      assertEquals(40, s.getGames());
+      TournamentResult.Standing t = b.getStanding(s.getName());
+      assertEquals(s.getWins(), t.getWins());
+      assertEquals(s.getDraws(), t.getDraws());
+      assertEquals(s.getRating(), t.getRating(), 1e-9);
+    }
+    double totalRating = 0;
+    for (TournamentResult.Standing s : a.getStandings()) {
+      totalRating += s.getRating();
+    }
+    assertEquals(4500, totalRating, 1e-6);
+  }
+
+  /**
+   * Test that Swiss rounds with an odd number of entrants give each a bye in turn, and score a
+   * bye as a won round.
+   */
+  @Test
+  public void testSwiss() {
+    Tournament tournament = new Tournament(TicTacToeModel::new, 4, 1, 2);
+    for (int i = 0; i < 5; i++) {
+      tournament.addEntrant("first" + i, () -> FIRST_EMPTY);
+    }
+    TournamentResult result = tournament.swiss(5, 1);
+    tournament.shutdown();
+    assertEquals(5 * 2 * 4, result.getGames());
+    for (TournamentResult.Standing s : result.getStandings()) {
+      // five rounds, one of them a bye
+      assertEquals(1, s.getByes());
+      assertEquals(16, s.getGames());
+      assertEquals(s.getWins() + s.getDraws() / 2.0 + 4, s.getPoints(), 1e-9);
+    }
+  }
+
+  /**
+   * Test that a strategy choosing an illegal move, or throwing, forfeits every game.
+   */
+  @Test
+  public void testForfeit() {
+    Tournament tournament = new Tournament(TicTacToeModel::new, 6, 0, 1);
+    tournament.addEntrant("first", () -> FIRST_EMPTY);
+    tournament.addEntrant("illegal", () -> game -> new int[] {-1, 0});
+    tournament.addEntrant("throws", () -> game -> {
+      throw new IllegalStateException("Broken!");
+    });
+    TournamentResult result = tournament.roundRobin(0);
+    tournament.shutdown();
+    List<TournamentResult.Standing> standings = result.getStandings();
+    assertEquals("first", standings.get(0).getName());
+    assertEquals(12, standings.get(0).getWins());
+    // each loses every game, and the one that moves first forfeits when they meet
+    assertEquals(9, result.getStanding("illegal").getForfeits());
+    assertEquals(9, result.getStanding("throws").getForfeits());
+  }
+
+  /**
+   * Test that a tournament needs two entrants.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testTooFewEntrants() {
+    Tournament tournament = new Tournament(TicTacToeModel::new, 1, 0, 1);
+    tournament.addEntrant("first", () -> FIRST_EMPTY);
+    try {
+      tournament.roundRobin(0);
+    } finally {
+      tournament.shutdown();
+    }
+  }
+}